@@ -0,0 +1,76 @@
+package com.bigbank.loan.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bigbank.loan.engine.AmortizedLoan;
+import com.bigbank.loan.engine.FixedPointAmortizedLoan;
+
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AmortizedLoanBenchmark
+{
+
+    private static final int REPAYMENT_MONTHS = 36;
+
+    @Param({"1000", "15000"})
+    int amount;
+
+    @Param({"0.069", "0.104"})
+    String rate;
+
+    private BigDecimal principal;
+
+    private BigDecimal annualInterestRate;
+
+    private long monthlyInterestRate;
+
+    private long discountComplement;
+
+    private double monthlyRepayment;
+
+    @Setup
+    public void setUp()
+    {
+        principal = new BigDecimal(amount);
+        annualInterestRate = new BigDecimal(rate);
+        monthlyInterestRate = FixedPointAmortizedLoan.getMonthlyInterestRate(annualInterestRate);
+        discountComplement = FixedPointAmortizedLoan.getDiscountComplement(monthlyInterestRate, REPAYMENT_MONTHS);
+        monthlyRepayment = AmortizedLoan.getMonthlyRepayment(principal, annualInterestRate, REPAYMENT_MONTHS).doubleValue();
+    }
+
+    @Benchmark
+    public BigDecimal monthlyRepayment()
+    {
+        return AmortizedLoan.getMonthlyRepayment(principal, annualInterestRate, REPAYMENT_MONTHS);
+    }
+
+    @Benchmark
+    public long fixedPointMonthlyRepayment()
+    {
+        return FixedPointAmortizedLoan.getMonthlyRepayment(amount, monthlyInterestRate, discountComplement, REPAYMENT_MONTHS);
+    }
+
+    @Benchmark
+    public double approximateAnnualInterestRate()
+    {
+        return AmortizedLoan.getApproximateAnnualInterestRate(amount, REPAYMENT_MONTHS, monthlyRepayment);
+    }
+}
@@ -0,0 +1,67 @@
+package com.bigbank.loan.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bigbank.loan.engine.NumericEngine;
+import com.bigbank.loan.engine.quote.LoanQuoteCalculator;
+import com.bigbank.loan.engine.reservation.CapacityLedger;
+import com.bigbank.loan.engine.reservation.Reservation;
+import com.bigbank.loan.excetpion.InsufficientLendersException;
+
+
+/**
+ * Concurrent holds and releases on one market, run with more threads with <code>-t</code> to increase contention
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class CapacityLedgerBenchmark
+{
+
+    @Param({"100", "10000"})
+    int lenders;
+
+    @Param({"1000", "15000"})
+    int amount;
+
+    private CapacityLedger ledger;
+
+    @Setup
+    public void setUp()
+    {
+        ledger = new CapacityLedger(new LoanQuoteCalculator(SyntheticMarket.lenders(lenders), NumericEngine.FIXED_POINT));
+    }
+
+    @Benchmark
+    public boolean holdAndRelease()
+    {
+        try
+        {
+            Reservation reservation = ledger.hold("benchmark", amount, 0);
+
+            return reservation.release();
+        }
+        catch (InsufficientLendersException e)
+        {
+            // every thread holds at the same time, small markets run out
+            return false;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.bigbank.loan.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bigbank.loan.engine.id.LoanIdGenerator;
+import com.bigbank.loan.engine.id.RandomUuidGenerator;
+import com.bigbank.loan.engine.id.UlidGenerator;
+
+
+/**
+ * Id generation on every core at once, where the shared <code>SecureRandom</code> behind <code>UUID.randomUUID()</code>
+ * is contended. Compare with a single thread using <code>-t 1</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class LoanIdGeneratorBenchmark
+{
+
+    @Param({"ulid", "uuid"})
+    String generator;
+
+    private LoanIdGenerator loanIdGenerator;
+
+    @Setup
+    public void setUp()
+    {
+        loanIdGenerator = "ulid".equals(generator) ? new UlidGenerator(1) : new RandomUuidGenerator();
+    }
+
+    @Benchmark
+    public String nextId()
+    {
+        return loanIdGenerator.nextId();
+    }
+}
@@ -0,0 +1,74 @@
+package com.bigbank.loan.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bigbank.loan.engine.id.UlidGenerator;
+import com.bigbank.loan.model.LoanProposal;
+import com.bigbank.loan.model.LoanProposalJson;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+
+/**
+ * Response body of a quote: Jackson on a freshly built proposal, against the loan id spliced into the fragment of the
+ * cached template
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoanProposalJsonBenchmark
+{
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final UlidGenerator loanIdGenerator = new UlidGenerator(1);
+
+    private LoanProposal template;
+
+    @Setup
+    public void setUp() throws JsonProcessingException
+    {
+        template = LoanProposal.builder()
+                .requestedAmount("1000")
+                .rate("7.0")
+                .monthlyRepayment("30.88")
+                .totalRepayment("1111.68")
+                .currencySign("£")
+                .build();
+
+        template.setFragment(LoanProposalJson.fragment(objectMapper, template));
+    }
+
+    @Benchmark
+    public byte[] jackson() throws JsonProcessingException
+    {
+        return objectMapper.writeValueAsBytes(LoanProposal.builder()
+                .loanId(loanIdGenerator.nextId())
+                .requestedAmount("1000")
+                .rate("7.0")
+                .monthlyRepayment("30.88")
+                .totalRepayment("1111.68")
+                .currencySign("£")
+                .build());
+    }
+
+    @Benchmark
+    public byte[] spliced() throws JsonProcessingException
+    {
+        return LoanProposalJson.write(objectMapper, template.toBuilder().loanId(loanIdGenerator.nextId()).build());
+    }
+}
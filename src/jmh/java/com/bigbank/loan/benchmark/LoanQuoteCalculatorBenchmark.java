@@ -0,0 +1,87 @@
+package com.bigbank.loan.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.bigbank.loan.engine.NumericEngine;
+import com.bigbank.loan.engine.quote.LoanQuote;
+import com.bigbank.loan.engine.quote.LoanQuoteCalculator;
+import com.bigbank.loan.engine.quote.LoanQuoteTable;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LoanQuoteCalculatorBenchmark
+{
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int lenders;
+
+    @Param({"1000", "15000"})
+    int amount;
+
+    @Param({"BIG_DECIMAL", "FIXED_POINT"})
+    NumericEngine numericEngine;
+
+    private static final int[] TERMS = {12, 24, 36, 48, 60};
+
+    private LoanQuoteCalculator calculator;
+
+    private LoanQuoteTable table;
+
+    @Setup
+    public void setUp()
+    {
+        calculator = new LoanQuoteCalculator(SyntheticMarket.lenders(lenders), numericEngine);
+        table = new LoanQuoteTable(calculator);
+    }
+
+    @Benchmark
+    public LoanQuote quote()
+    {
+        return calculator.getQuote(amount);
+    }
+
+    /**
+     * Five terms from one allocation and one pass over the lenders
+     */
+    @Benchmark
+    public LoanQuote[] termMenu()
+    {
+        return calculator.getQuotes(amount, TERMS);
+    }
+
+    /**
+     * Five quotes of the default term, the cost of quoting a menu one term at a time
+     */
+    @Benchmark
+    public void fiveQuotes(Blackhole blackhole)
+    {
+        for (int i = 0; i < TERMS.length; i++)
+        {
+            blackhole.consume(calculator.getQuote(amount));
+        }
+    }
+
+    @Benchmark
+    public LoanQuote tableQuote()
+    {
+        return table.getQuote(amount);
+    }
+}
@@ -0,0 +1,80 @@
+package com.bigbank.loan.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.bigbank.loan.TakApplication;
+import com.bigbank.loan.model.LoanProposal;
+import com.bigbank.loan.model.LoanSubmission;
+import com.bigbank.loan.service.LoanService;
+
+
+/**
+ * End to end quote through the Spring context, without the HTTP layer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoanServiceBenchmark
+{
+
+    @Param({"en", "it"})
+    String market;
+
+    @Param({"1000", "2000"})
+    int amount;
+
+    private ConfigurableApplicationContext context;
+
+    private LoanService loanService;
+
+    private LoanSubmission submission;
+
+    @Setup
+    public void setUp()
+    {
+        context = new SpringApplicationBuilder(TakApplication.class).web(WebApplicationType.NONE).run();
+        loanService = context.getBean(LoanService.class);
+
+        submission = new LoanSubmission();
+        submission.setMarket(market);
+        submission.setAmount(amount);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        context.close();
+    }
+
+    @Benchmark
+    public LoanProposal calculate()
+    {
+        return loanService.calculate(submission);
+    }
+
+    @Benchmark
+    public String randomUuid()
+    {
+        return UUID.randomUUID().toString();
+    }
+}
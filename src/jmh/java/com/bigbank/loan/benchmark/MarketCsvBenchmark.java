@@ -0,0 +1,73 @@
+package com.bigbank.loan.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bigbank.loan.engine.quote.Lender;
+import com.bigbank.loan.engine.quote.LenderColumns;
+import com.bigbank.loan.engine.quote.LenderCsvReader;
+import com.opencsv.bean.CsvToBeanBuilder;
+
+
+/**
+ * Loads a generated market file with opencsv bean binding and with the streaming reader
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MarketCsvBenchmark
+{
+
+    @Param({"5000000"})
+    int lenders;
+
+    private Path marketFile;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        marketFile = SyntheticMarket.csv(lenders);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public List<Lender> opencsv() throws IOException
+    {
+        try (Reader reader = new InputStreamReader(new BufferedInputStream(Files.newInputStream(marketFile)), StandardCharsets.UTF_8))
+        {
+            return new CsvToBeanBuilder(reader).withType(Lender.class).withThrowExceptions(true).build().parse();
+        }
+    }
+
+    @Benchmark
+    public LenderColumns lenderCsvReader() throws IOException
+    {
+        try (InputStream input = Files.newInputStream(marketFile))
+        {
+            return LenderCsvReader.read(input);
+        }
+    }
+}
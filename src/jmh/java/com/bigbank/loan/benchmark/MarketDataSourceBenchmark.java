@@ -0,0 +1,61 @@
+package com.bigbank.loan.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.bigbank.loan.TakApplication;
+import com.bigbank.loan.engine.quote.Lender;
+import com.bigbank.loan.service.MarketDataSource;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarketDataSourceBenchmark
+{
+
+    @Param({"en", "it"})
+    String market;
+
+    private ConfigurableApplicationContext context;
+
+    private MarketDataSource marketDataSource;
+
+    @Setup
+    public void setUp()
+    {
+        context = new SpringApplicationBuilder(TakApplication.class).web(WebApplicationType.NONE).run();
+        marketDataSource = context.getBean(MarketDataSource.class);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Lender> find()
+    {
+        return marketDataSource.find(market);
+    }
+}
@@ -0,0 +1,70 @@
+package com.bigbank.loan.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.bigbank.loan.engine.quote.Lender;
+
+
+/**
+ * Generates reproducible lender books of any size, with rates between 5% and 12% in steps of 0.1%
+ */
+final class SyntheticMarket
+{
+
+    private SyntheticMarket()
+    {
+    }
+
+    /**
+     * @param size number of lenders
+     * @return lenders able to fund the largest allowed loan however many there are
+     */
+    static List<Lender> lenders(int size)
+    {
+        Random random = new Random(size);
+
+        // on average the book holds twice the largest loan, with at least 1 per lender
+        int averageAmount = Math.max(2, 2 * 2 * 15000 / size);
+
+        List<Lender> lenders = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++)
+        {
+            lenders.add(new Lender("Lender" + i, BigDecimal.valueOf(50 + random.nextInt(71), 3), 1 + random.nextInt(averageAmount)));
+        }
+
+        return lenders;
+    }
+
+    /**
+     * Writes the same book as {@link #lenders(int)} as a market CSV file
+     *
+     * @param size number of lenders
+     * @return a temporary file, deleted on exit
+     */
+    static Path csv(int size) throws IOException
+    {
+        Path file = Files.createTempFile("market-" + size + "-", ".csv");
+        file.toFile().deleteOnExit();
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+        {
+            writer.write("Lender,Rate,Available\n");
+
+            for (Lender lender : lenders(size))
+            {
+                writer.write(lender.getName() + "," + lender.getRate().toPlainString() + "," + lender.getAmount() + "\n");
+            }
+        }
+
+        return file;
+    }
+}
@@ -0,0 +1,113 @@
+package com.bigbank.loan.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.bigbank.loan.TakApplication;
+
+
+/**
+ * Load test of <code>POST /loan</code> over HTTP on the servlet stack (Tomcat) and on the reactive stack (Netty).
+ * Every JMH thread is a client with its own keep-alive connection, so <code>@Threads</code> is the number of
+ * concurrent connections; the default is above Tomcat's 200 request threads. Throughput mode gives requests per second,
+ * sample time mode the latency percentiles up to p99.99. Raise the load with <code>-t</code>, for example
+ * <code>./gradlew jmh -Pjmh='WebStackBenchmark -t 1024'</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(256)
+@Fork(value = 1, jvmArgsAppend = "-Dhttp.maxConnections=4096")
+public class WebStackBenchmark
+{
+
+    @Param({"servlet", "reactive"})
+    String stack;
+
+    private ConfigurableApplicationContext context;
+
+    private URL url;
+
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        SpringApplicationBuilder application = new SpringApplicationBuilder(TakApplication.class).properties("server.port=0");
+
+        if ("reactive".equals(stack))
+        {
+            application.profiles("reactive");
+        }
+
+        context = application.run();
+
+        url = new URL("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/loan");
+        body = "{\"market\": \"en\", \"amount\": 1000}".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        context.close();
+    }
+
+    @Benchmark
+    public int quote() throws IOException
+    {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setRequestProperty("Bigbank-Apikey", "TOKEN-ABC");
+
+        try (OutputStream output = connection.getOutputStream())
+        {
+            output.write(body);
+        }
+
+        int status = connection.getResponseCode();
+
+        // the body is read to the end so the connection goes back to the keep-alive cache
+        try (InputStream input = status < 400 ? connection.getInputStream() : connection.getErrorStream())
+        {
+            byte[] buffer = new byte[1024];
+
+            while (input.read(buffer) != -1)
+            {
+                // discarded
+            }
+        }
+
+        if (status != 200)
+        {
+            throw new IllegalStateException("Unexpected status " + status + " from the " + stack + " stack");
+        }
+
+        return status;
+    }
+}
@@ -1,27 +1,60 @@
 package com.bigbank.loan.autoconfiguration;
 
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.preauth.AbstractPreAuthenticatedProcessingFilter;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.zalando.problem.Problem;
+import org.zalando.problem.Status;
+
+import com.bigbank.loan.service.ApiKeyRegistry;
+import com.bigbank.loan.service.ApiKeyRegistry.ApiClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ApiSecurityConfig extends WebSecurityConfigurerAdapter
 {
 
+    /**
+     * Probes and the metrics scraper reach these without an API key
+     */
+    static final String[] PUBLIC_ENDPOINTS = {"/actuator/health", "/actuator/prometheus"};
+
+    /**
+     * Only partners holding the admin role reach these
+     */
+    static final String ADMIN_ENDPOINTS = "/admin/**";
+
     @Value("${http.header.name:Bigbank-Apikey}")
     private String principalRequestHeader;
 
-    @Value("${http.api-key:TOKEN-ABC}")
-    private String principalRequestValue;
+    @Autowired
+    private ApiKeyRegistry apiKeyRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @Override
     protected void configure(HttpSecurity httpSecurity) throws Exception
@@ -30,23 +63,25 @@ public class ApiSecurityConfig extends WebSecurityConfigurerAdapter
 
         filter.setAuthenticationManager(authentication -> {
 
-            String principal = (String) authentication.getPrincipal();
+            ApiClient client = apiKeyRegistry.find((String) authentication.getPrincipal());
 
-            if (!principalRequestValue.equals(principal))
+            if (client == null)
             {
                 throw new BadCredentialsException("The API key was not found.");
             }
 
-            authentication.setAuthenticated(true);
-
-            return authentication;
+            return new PreAuthenticatedAuthenticationToken(client, null, client.getAuthorities());
         });
 
         httpSecurity.
                 antMatcher("/**").
                 csrf().disable().
                 sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).
-                and().addFilter(filter).authorizeRequests().anyRequest().authenticated();
+                and().addFilter(filter).addFilterAfter(new QuotaFilter(objectMapper), AbstractPreAuthenticatedProcessingFilter.class).
+                authorizeRequests().
+                antMatchers(PUBLIC_ENDPOINTS).permitAll().
+                antMatchers(ADMIN_ENDPOINTS).hasRole(ApiKeyRegistry.ADMIN_ROLE).
+                anyRequest().authenticated();
     }
 
     public static class ApiKeyFilter extends AbstractPreAuthenticatedProcessingFilter
@@ -71,4 +106,61 @@ public class ApiSecurityConfig extends WebSecurityConfigurerAdapter
             return null;
         }
     }
+
+    /**
+     * @return the 429 problem of a request over the quota of its partner
+     */
+    static Problem quotaExceeded(ApiClient client, long waitNanos)
+    {
+        return Problem.builder()
+                .withStatus(Status.TOO_MANY_REQUESTS)
+                .withTitle(Status.TOO_MANY_REQUESTS.getReasonPhrase())
+                .withDetail("Request quota of " + client.getName() + " exceeded, retry in " + retryAfterSeconds(waitNanos) + " s")
+                .build();
+    }
+
+    static long retryAfterSeconds(long waitNanos)
+    {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Rejects requests over the quota of their partner right after authentication, before any controller runs
+     */
+    public static class QuotaFilter extends OncePerRequestFilter
+    {
+
+        private final ObjectMapper objectMapper;
+
+        public QuotaFilter(ObjectMapper objectMapper)
+        {
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException
+        {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+            if (authentication != null && authentication.getPrincipal() instanceof ApiClient)
+            {
+                ApiClient client = (ApiClient) authentication.getPrincipal();
+
+                long waitNanos = client.tryAcquire();
+
+                if (waitNanos > 0)
+                {
+                    response.setStatus(Status.TOO_MANY_REQUESTS.getStatusCode());
+                    response.setHeader("Retry-After", String.valueOf(retryAfterSeconds(waitNanos)));
+                    response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+
+                    objectMapper.writeValue(response.getOutputStream(), quotaExceeded(client, waitNanos));
+
+                    return;
+                }
+            }
+
+            filterChain.doFilter(request, response);
+        }
+    }
 }
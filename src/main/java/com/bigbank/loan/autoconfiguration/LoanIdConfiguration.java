@@ -0,0 +1,56 @@
+package com.bigbank.loan.autoconfiguration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.bigbank.loan.engine.id.LoanIdGenerator;
+import com.bigbank.loan.engine.id.RandomUuidGenerator;
+import com.bigbank.loan.engine.id.UlidGenerator;
+
+
+@Configuration
+public class LoanIdConfiguration
+{
+
+    private static final Logger log = LoggerFactory.getLogger(LoanIdConfiguration.class);
+
+    /**
+     * <code>ulid</code> for time-ordered ids generated without contention, <code>uuid</code> for random UUIDs
+     */
+    @Value("${loan.id.generator:ulid}")
+    private String generator = "ulid";
+
+    /**
+     * Id of this instance embedded in the ids, derived from the process when negative
+     */
+    @Value("${loan.id.node:-1}")
+    private int node = -1;
+
+    @Bean
+    public LoanIdGenerator loanIdGenerator()
+    {
+        if ("uuid".equalsIgnoreCase(generator))
+        {
+            return new RandomUuidGenerator();
+        }
+
+        if (!"ulid".equalsIgnoreCase(generator))
+        {
+            throw new IllegalArgumentException("Unknown loan.id.generator " + generator + ", expected ulid or uuid");
+        }
+
+        int ulidNode = node;
+
+        if (ulidNode < 0)
+        {
+            ulidNode = UlidGenerator.defaultNode();
+
+            log.info("loan.id.node is not set, using node id {} derived from the process", ulidNode);
+        }
+
+        return new UlidGenerator(ulidNode);
+    }
+}
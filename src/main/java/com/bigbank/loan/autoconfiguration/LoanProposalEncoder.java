@@ -0,0 +1,66 @@
+package com.bigbank.loan.autoconfiguration;
+
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+
+import com.bigbank.loan.model.LoanProposal;
+import com.bigbank.loan.model.LoanProposalJson;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+
+
+/**
+ * WebFlux counterpart of <code>LoanProposalHttpMessageConverter</code>
+ */
+public class LoanProposalEncoder extends AbstractEncoder<LoanProposal>
+{
+
+    private final ObjectMapper objectMapper;
+
+    public LoanProposalEncoder(ObjectMapper objectMapper)
+    {
+        super(MediaType.APPLICATION_JSON);
+
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType)
+    {
+        return LoanProposal.class == elementType.toClass() && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<? extends LoanProposal> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints)
+    {
+        return Flux.from(inputStream).map(proposal -> encodeValue(proposal, bufferFactory, elementType, mimeType, hints));
+    }
+
+    /**
+     * Single values (every <code>Mono</code> body) are written through here rather than {@link #encode}
+     */
+    @Override
+    public DataBuffer encodeValue(LoanProposal proposal, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  MimeType mimeType, Map<String, Object> hints)
+    {
+        try
+        {
+            return bufferFactory.wrap(LoanProposalJson.write(objectMapper, proposal));
+        }
+        catch (JsonProcessingException e)
+        {
+            throw new EncodingException("LoanProposal cannot be written", e);
+        }
+    }
+}
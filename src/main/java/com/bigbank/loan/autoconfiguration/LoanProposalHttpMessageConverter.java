@@ -0,0 +1,57 @@
+package com.bigbank.loan.autoconfiguration;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.bigbank.loan.model.LoanProposal;
+import com.bigbank.loan.model.LoanProposalJson;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+
+/**
+ * Writes <code>LoanProposal</code> responses with <code>LoanProposalJson</code>, ahead of the Jackson converter
+ */
+public class LoanProposalHttpMessageConverter extends AbstractHttpMessageConverter<LoanProposal>
+{
+
+    private final ObjectMapper objectMapper;
+
+    public LoanProposalHttpMessageConverter(ObjectMapper objectMapper)
+    {
+        super(MediaType.APPLICATION_JSON);
+
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz)
+    {
+        return LoanProposal.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType)
+    {
+        return false;
+    }
+
+    @Override
+    protected LoanProposal readInternal(Class<? extends LoanProposal> clazz, HttpInputMessage inputMessage)
+    {
+        throw new HttpMessageNotReadableException("LoanProposal is only written", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(LoanProposal proposal, HttpOutputMessage outputMessage) throws IOException
+    {
+        byte[] json = LoanProposalJson.write(objectMapper, proposal);
+
+        outputMessage.getHeaders().setContentLength(json.length);
+        outputMessage.getBody().write(json);
+    }
+}
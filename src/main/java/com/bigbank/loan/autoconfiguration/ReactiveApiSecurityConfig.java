@@ -0,0 +1,128 @@
+package com.bigbank.loan.autoconfiguration;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.authentication.ServerAuthenticationEntryPointFailureHandler;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.server.WebFilter;
+
+import com.bigbank.loan.service.ApiKeyRegistry;
+import com.bigbank.loan.service.ApiKeyRegistry.ApiClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+
+
+/**
+ * WebFlux counterpart of <code>ApiSecurityConfig</code>: the same API key header, the same public endpoints, a 403
+ * for a missing or wrong key and a 429 for a request over quota
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveApiSecurityConfig
+{
+
+    @Value("${http.header.name:Bigbank-Apikey}")
+    private String principalRequestHeader;
+
+    @Autowired
+    private ApiKeyRegistry apiKeyRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Bean
+    public ReactiveAuthenticationManager apiKeyAuthenticationManager()
+    {
+        return authentication -> {
+
+            ApiClient client = apiKeyRegistry.find((String) authentication.getPrincipal());
+
+            if (client == null)
+            {
+                return Mono.error(new BadCredentialsException("The API key was not found."));
+            }
+
+            return Mono.just(new PreAuthenticatedAuthenticationToken(client, null, client.getAuthorities()));
+        };
+    }
+
+    @Bean
+    public SecurityWebFilterChain apiSecurityWebFilterChain(ServerHttpSecurity httpSecurity, ReactiveAuthenticationManager apiKeyAuthenticationManager)
+    {
+        HttpStatusServerEntryPoint forbidden = new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN);
+
+        AuthenticationWebFilter filter = new AuthenticationWebFilter(apiKeyAuthenticationManager);
+
+        // a request without the header is left anonymous and rejected by the authorization rules below
+        filter.setServerAuthenticationConverter(exchange -> Mono
+                .justOrEmpty(exchange.getRequest().getHeaders().getFirst(principalRequestHeader))
+                .map(key -> new PreAuthenticatedAuthenticationToken(key, null)));
+        filter.setAuthenticationFailureHandler(new ServerAuthenticationEntryPointFailureHandler(forbidden));
+        filter.setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+
+        return httpSecurity.
+                csrf().disable().
+                httpBasic().disable().
+                formLogin().disable().
+                logout().disable().
+                securityContextRepository(NoOpServerSecurityContextRepository.getInstance()).
+                exceptionHandling().authenticationEntryPoint(forbidden).
+                and().addFilterAt(filter, SecurityWebFiltersOrder.AUTHENTICATION).
+                addFilterAfter(quotaFilter(), SecurityWebFiltersOrder.AUTHENTICATION).authorizeExchange().
+                pathMatchers(ApiSecurityConfig.PUBLIC_ENDPOINTS).permitAll().
+                pathMatchers(ApiSecurityConfig.ADMIN_ENDPOINTS).hasRole(ApiKeyRegistry.ADMIN_ROLE).
+                anyExchange().authenticated().
+                and().build();
+    }
+
+    /**
+     * Rejects requests over the quota of their partner right after authentication, before any controller runs
+     */
+    private WebFilter quotaFilter()
+    {
+        return (exchange, chain) -> ReactiveSecurityContextHolder.getContext()
+                .flatMap(context -> Mono.justOrEmpty(context.getAuthentication()))
+                .map(Authentication::getPrincipal)
+                .filter(ApiClient.class::isInstance)
+                .map(ApiClient.class::cast)
+                .flatMap(client -> {
+
+                    long waitNanos = client.tryAcquire();
+
+                    return waitNanos > 0 ? rejectOverQuota(exchange.getResponse(), client, waitNanos).thenReturn(false) : Mono.just(true);
+                })
+                .defaultIfEmpty(true)
+                .flatMap(allowed -> allowed ? chain.filter(exchange) : Mono.empty());
+    }
+
+    private Mono<Void> rejectOverQuota(ServerHttpResponse response, ApiClient client, long waitNanos)
+    {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(ApiSecurityConfig.retryAfterSeconds(waitNanos)));
+        response.getHeaders().setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+
+        return Mono.fromCallable(() -> response.bufferFactory().wrap(objectMapper.writeValueAsBytes(ApiSecurityConfig.quotaExceeded(client, waitNanos))))
+                .flatMap(body -> response.writeWith(Mono.just(body)));
+    }
+}
@@ -0,0 +1,72 @@
+package com.bigbank.loan.autoconfiguration;
+
+import java.util.Arrays;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.server.WebExceptionHandler;
+import org.zalando.problem.spring.webflux.advice.ProblemExceptionHandler;
+import org.zalando.problem.spring.webflux.advice.ProblemHandling;
+
+import com.bigbank.loan.controller.LoanBatchController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+
+/**
+ * Reactive stack, enabled by the <code>reactive</code> profile which sets <code>spring.main.web-application-type</code>
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfiguration implements WebFluxConfigurer
+{
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.valueOf(LoanBatchController.APPLICATION_NDJSON_VALUE);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Tomcat is on the classpath for the servlet stack and would otherwise be picked to serve the reactive one
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory()
+    {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Renders errors raised outside of controllers, such as unknown paths, as Problem JSON too
+     */
+    @Bean
+    @Order(-2)
+    public WebExceptionHandler problemExceptionHandler(ProblemHandling problemHandling)
+    {
+        return new ProblemExceptionHandler(objectMapper, problemHandling);
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer)
+    {
+        MimeType[] mimeTypes = {MediaType.APPLICATION_JSON, new MediaType("application", "*+json"), APPLICATION_NDJSON};
+
+        // newline-delimited JSON is read as a stream of values and written one flushed line per element
+        Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(objectMapper, mimeTypes);
+        encoder.setStreamingMediaTypes(Arrays.asList(MediaType.APPLICATION_STREAM_JSON, APPLICATION_NDJSON));
+
+        configurer.defaultCodecs().jackson2JsonEncoder(encoder);
+        configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper, mimeTypes));
+
+        // custom encoders are tried before Jackson
+        configurer.customCodecs().encoder(new LoanProposalEncoder(objectMapper));
+    }
+}
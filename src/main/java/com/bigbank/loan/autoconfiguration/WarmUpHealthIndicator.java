@@ -0,0 +1,46 @@
+package com.bigbank.loan.autoconfiguration;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+import com.bigbank.loan.service.WarmUpService;
+
+
+/**
+ * Reports the node <code>OUT_OF_SERVICE</code>, which <code>/actuator/health</code> answers with a 503, until the
+ * startup warm-up is over, so that load balancers only send traffic to a warm node. A warm-up stopped by its time
+ * limit is over too.
+ */
+@Component
+public class WarmUpHealthIndicator extends AbstractHealthIndicator
+{
+
+    @Autowired
+    private WarmUpService warmUpService;
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder)
+    {
+        WarmUpService.State state = warmUpService.getState();
+
+        if (state == WarmUpService.State.PENDING || state == WarmUpService.State.RUNNING)
+        {
+            builder.outOfService();
+        }
+        else
+        {
+            builder.up();
+        }
+
+        builder.withDetail("state", state)
+                .withDetail("iterations", warmUpService.getCompletedIterations() + "/" + warmUpService.getIterations())
+                .withDetail("quotes", warmUpService.getQuotes())
+                .withDetail("rejected", warmUpService.getFailures())
+                .withDetail("timedOut", warmUpService.isTimedOut())
+                .withDetail("durationMs", TimeUnit.NANOSECONDS.toMillis(warmUpService.getDurationNanos()));
+    }
+}
@@ -0,0 +1,28 @@
+package com.bigbank.loan.controller;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.bigbank.loan.service.MarketDataSource;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+
+public abstract class AbstractReactiveController extends AbstractController
+{
+    @Autowired
+    private MarketDataSource marketDataSource;
+
+    /**
+     * Calls a service on the event loop when its market is loaded, and on the bounded elastic pool when the market
+     * has to be loaded first, since parsing and sorting its file blocks for as long as the file is large
+     */
+    protected <T> Mono<T> onMarket(String market, Callable<T> call)
+    {
+        Mono<T> result = Mono.fromCallable(call);
+
+        return marketDataSource.isLoaded(market) ? result : result.subscribeOn(Schedulers.boundedElastic());
+    }
+}
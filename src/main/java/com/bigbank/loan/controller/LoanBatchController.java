@@ -0,0 +1,30 @@
+package com.bigbank.loan.controller;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.bigbank.loan.service.LoanBatchService;
+
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LoanBatchController extends AbstractController
+{
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    @Autowired
+    private LoanBatchService loanBatchService;
+
+    @PostMapping(value = "/loan/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE}, produces = APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody calculateLoans(HttpServletRequest request)
+    {
+        // the body is read while the response is written, nothing is collected up front
+        return output -> loanBatchService.calculate(request.getInputStream(), output);
+    }
+}
@@ -1,26 +1,44 @@
 package com.bigbank.loan.controller;
 
+import java.security.Principal;
+
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.bigbank.loan.model.LoanProposal;
 import com.bigbank.loan.model.LoanSubmission;
+import com.bigbank.loan.service.IdempotencyService;
 import com.bigbank.loan.service.LoanService;
 
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class LoanCalculatorController extends AbstractController
 {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     @Autowired
     private LoanService loanService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping("/loan")
-    public LoanProposal calculateLoan(@Valid @RequestBody LoanSubmission submission)
+    public LoanProposal calculateLoan(@Valid @RequestBody LoanSubmission submission,
+                                      @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                      Principal principal)
     {
-        return loanService.calculate(submission);
+        if (idempotencyKey == null)
+        {
+            return loanService.calculate(submission);
+        }
+
+        return idempotencyService.calculate(principal == null ? "" : principal.getName(), idempotencyKey, submission);
     }
 }
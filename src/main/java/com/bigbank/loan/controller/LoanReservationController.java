@@ -0,0 +1,41 @@
+package com.bigbank.loan.controller;
+
+import javax.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bigbank.loan.model.LoanReservation;
+import com.bigbank.loan.model.LoanSubmission;
+import com.bigbank.loan.service.LoanReservationService;
+
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LoanReservationController extends AbstractController
+{
+    @Autowired
+    private LoanReservationService loanReservationService;
+
+    @PostMapping("/loan/accept")
+    public LoanReservation acceptLoan(@Valid @RequestBody LoanSubmission submission)
+    {
+        return loanReservationService.accept(submission);
+    }
+
+    @PostMapping("/loan/reservation/{reservationId}/commit")
+    public LoanReservation commitLoan(@PathVariable String reservationId)
+    {
+        return loanReservationService.commit(reservationId);
+    }
+
+    @PostMapping("/loan/reservation/{reservationId}/release")
+    public LoanReservation releaseLoan(@PathVariable String reservationId)
+    {
+        return loanReservationService.release(reservationId);
+    }
+}
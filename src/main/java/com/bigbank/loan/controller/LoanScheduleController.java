@@ -0,0 +1,39 @@
+package com.bigbank.loan.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.bigbank.loan.model.AmortizationScheduleWriter;
+import com.bigbank.loan.service.LoanScheduleService;
+
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LoanScheduleController extends AbstractController
+{
+    @Autowired
+    private LoanScheduleService loanScheduleService;
+
+    @GetMapping(value = "/loan/schedule", produces = {MediaType.APPLICATION_JSON_VALUE, AmortizationScheduleWriter.TEXT_CSV_VALUE})
+    public ResponseEntity<StreamingResponseBody> getSchedule(@RequestParam String market,
+                                                             @RequestParam Integer amount,
+                                                             @RequestParam Integer term,
+                                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+    {
+        AmortizationScheduleWriter schedule = new AmortizationScheduleWriter(loanScheduleService.getSchedule(market, amount, term),
+                AmortizationScheduleWriter.isCsv(accept));
+
+        // the rows are computed while the response is written, nothing is collected up front
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(schedule.getContentType()))
+                .body(output -> loanScheduleService.write(schedule, output));
+    }
+}
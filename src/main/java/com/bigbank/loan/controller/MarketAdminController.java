@@ -0,0 +1,53 @@
+package com.bigbank.loan.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bigbank.loan.engine.quote.Lender;
+import com.bigbank.loan.model.AmortizationScheduleWriter;
+import com.bigbank.loan.model.MarketVersion;
+import com.bigbank.loan.service.MarketAdminService;
+
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MarketAdminController extends AbstractController
+{
+    static final String LENDERS_PATH = "/admin/market/{market}/lenders";
+
+    @Autowired
+    private MarketAdminService marketAdminService;
+
+    @GetMapping(LENDERS_PATH)
+    public MarketVersion getVersion(@PathVariable String market)
+    {
+        return marketAdminService.getVersion(market);
+    }
+
+    @PutMapping(value = LENDERS_PATH, consumes = AmortizationScheduleWriter.TEXT_CSV_VALUE)
+    public MarketVersion putCsv(@PathVariable String market, @RequestBody byte[] csv)
+    {
+        return marketAdminService.publishCsv(market, csv);
+    }
+
+    @PutMapping(value = LENDERS_PATH, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public MarketVersion putJson(@PathVariable String market, @RequestBody List<Lender> lenders)
+    {
+        return marketAdminService.publish(market, lenders);
+    }
+
+    @DeleteMapping(LENDERS_PATH)
+    public MarketVersion withdraw(@PathVariable String market)
+    {
+        return marketAdminService.withdraw(market);
+    }
+}
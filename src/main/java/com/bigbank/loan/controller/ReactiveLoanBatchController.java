@@ -0,0 +1,32 @@
+package com.bigbank.loan.controller;
+
+import static com.bigbank.loan.controller.LoanBatchController.APPLICATION_NDJSON_VALUE;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bigbank.loan.model.LoanBatchResult;
+import com.bigbank.loan.service.LoanBatchService;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import reactor.core.publisher.Flux;
+
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveLoanBatchController extends AbstractController
+{
+    @Autowired
+    private LoanBatchService loanBatchService;
+
+    @PostMapping(value = "/loan/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE}, produces = APPLICATION_NDJSON_VALUE)
+    public Flux<LoanBatchResult> calculateLoans(@RequestBody Flux<JsonNode> submissions)
+    {
+        // the array elements or lines are decoded as they arrive and each result is flushed as its own line
+        return loanBatchService.calculate(submissions);
+    }
+}
@@ -0,0 +1,47 @@
+package com.bigbank.loan.controller;
+
+import static com.bigbank.loan.controller.LoanCalculatorController.IDEMPOTENCY_KEY_HEADER;
+
+import java.security.Principal;
+
+import javax.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bigbank.loan.model.LoanProposal;
+import com.bigbank.loan.model.LoanSubmission;
+import com.bigbank.loan.service.IdempotencyService;
+import com.bigbank.loan.service.LoanService;
+
+import reactor.core.publisher.Mono;
+
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveLoanCalculatorController extends AbstractReactiveController
+{
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @PostMapping("/loan")
+    public Mono<LoanProposal> calculateLoan(@Valid @RequestBody LoanSubmission submission,
+                                            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                            Principal principal)
+    {
+        if (idempotencyKey == null)
+        {
+            return onMarket(submission.getMarket(), () -> loanService.calculate(submission));
+        }
+
+        // a retry waits for the first request of its key, which is off the event loop while it loads the market
+        return onMarket(submission.getMarket(), () -> idempotencyService.calculate(principal == null ? "" : principal.getName(), idempotencyKey, submission));
+    }
+}
@@ -0,0 +1,43 @@
+package com.bigbank.loan.controller;
+
+import javax.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bigbank.loan.model.LoanReservation;
+import com.bigbank.loan.model.LoanSubmission;
+import com.bigbank.loan.service.LoanReservationService;
+
+import reactor.core.publisher.Mono;
+
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveLoanReservationController extends AbstractReactiveController
+{
+    @Autowired
+    private LoanReservationService loanReservationService;
+
+    @PostMapping("/loan/accept")
+    public Mono<LoanReservation> acceptLoan(@Valid @RequestBody LoanSubmission submission)
+    {
+        return onMarket(submission.getMarket(), () -> loanReservationService.accept(submission));
+    }
+
+    @PostMapping("/loan/reservation/{reservationId}/commit")
+    public LoanReservation commitLoan(@PathVariable String reservationId)
+    {
+        return loanReservationService.commit(reservationId);
+    }
+
+    @PostMapping("/loan/reservation/{reservationId}/release")
+    public LoanReservation releaseLoan(@PathVariable String reservationId)
+    {
+        return loanReservationService.release(reservationId);
+    }
+}
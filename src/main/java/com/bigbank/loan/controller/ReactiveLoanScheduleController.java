@@ -0,0 +1,41 @@
+package com.bigbank.loan.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bigbank.loan.model.AmortizationScheduleWriter;
+import com.bigbank.loan.service.LoanScheduleService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveLoanScheduleController extends AbstractReactiveController
+{
+    @Autowired
+    private LoanScheduleService loanScheduleService;
+
+    @GetMapping(value = "/loan/schedule", produces = {MediaType.APPLICATION_JSON_VALUE, AmortizationScheduleWriter.TEXT_CSV_VALUE})
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getSchedule(@RequestParam String market,
+                                                              @RequestParam Integer amount,
+                                                              @RequestParam Integer term,
+                                                              @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+    {
+        return onMarket(market, () -> new AmortizationScheduleWriter(loanScheduleService.getSchedule(market, amount, term), AmortizationScheduleWriter.isCsv(accept)))
+                // buffers rather than rows, since Jackson would collect a Flux of rows into a list before writing a JSON array
+                .map(schedule -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(schedule.getContentType()))
+                        .body(loanScheduleService.write(schedule, new DefaultDataBufferFactory())));
+    }
+}
@@ -0,0 +1,62 @@
+package com.bigbank.loan.controller;
+
+import static com.bigbank.loan.controller.MarketAdminController.LENDERS_PATH;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bigbank.loan.engine.quote.Lender;
+import com.bigbank.loan.model.AmortizationScheduleWriter;
+import com.bigbank.loan.model.MarketVersion;
+import com.bigbank.loan.service.MarketAdminService;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveMarketAdminController extends AbstractReactiveController
+{
+    @Autowired
+    private MarketAdminService marketAdminService;
+
+    @GetMapping(LENDERS_PATH)
+    public Mono<MarketVersion> getVersion(@PathVariable String market)
+    {
+        return onMarket(market, () -> marketAdminService.getVersion(market));
+    }
+
+    @PutMapping(value = LENDERS_PATH, consumes = AmortizationScheduleWriter.TEXT_CSV_VALUE)
+    public Mono<MarketVersion> putCsv(@PathVariable String market, @RequestBody Mono<byte[]> csv)
+    {
+        // building the book and its quote table takes a while, it is kept off the event loop
+        return csv.defaultIfEmpty(new byte[0])
+                .publishOn(Schedulers.boundedElastic())
+                .map(body -> marketAdminService.publishCsv(market, body));
+    }
+
+    @PutMapping(value = LENDERS_PATH, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<MarketVersion> putJson(@PathVariable String market, @RequestBody Mono<List<Lender>> lenders)
+    {
+        return lenders
+                .publishOn(Schedulers.boundedElastic())
+                .map(body -> marketAdminService.publish(market, body));
+    }
+
+    @DeleteMapping(LENDERS_PATH)
+    public Mono<MarketVersion> withdraw(@PathVariable String market)
+    {
+        return Mono.fromCallable(() -> marketAdminService.withdraw(market))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
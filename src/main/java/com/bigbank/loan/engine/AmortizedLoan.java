@@ -3,7 +3,8 @@ package com.bigbank.loan.engine;
 import static java.math.RoundingMode.HALF_UP;
 
 import java.math.BigDecimal;
-import java.util.function.Function;
+
+import com.bigbank.loan.jfr.RateSolverEvent;
 
 
 /**
@@ -12,11 +13,6 @@ import java.util.function.Function;
 public final class AmortizedLoan
 {
 
-    /**
-     * Used in <code>newtonRaphsonMethod</code> to progress towards zero
-     */
-    private static final double EPSILON = 0.00001;
-
     /**
      * The scale used in all BigDecimal calculations
      */
@@ -30,6 +26,18 @@ public final class AmortizedLoan
      * @return an approximation of the annual interest rate in decimal format (i.e. 0.1 = 10%)
      */
     public static double getApproximateAnnualInterestRate(final double principal, final int term, final double monthlyPayment) {
+        return getApproximateAnnualInterestRate(principal, term, monthlyPayment, null);
+    }
+
+    /**
+     * Calculates an approximate annual interest rate using only the principal, term and monthly repayment
+     * @param principal the initial loan amount
+     * @param term number of repayment terms
+     * @param monthlyPayment amount of repayment per term
+     * @param event the Flight Recorder event given the work done by the rate solver, or <code>null</code>
+     * @return an approximation of the annual interest rate in decimal format (i.e. 0.1 = 10%)
+     */
+    public static double getApproximateAnnualInterestRate(final double principal, final int term, final double monthlyPayment, final RateSolverEvent event) {
         if (principal <= 0) {
             throw new IllegalArgumentException("Principal must be positive");
         } else if (monthlyPayment < principal / term) {
@@ -38,22 +46,8 @@ public final class AmortizedLoan
             throw new IllegalArgumentException("Term must be positive");
         }
 
-        // a decent guess at the interest rate is to just assume entire monthly payment is interest
-        final double guessedMonthlyInterestRate = monthlyPayment / principal;
-
-        // each month, the new amount owed is calculated by multiplying (the amount currently owed (1) + guessedMonthlyInterestRate)
-        final double guessedMonthlyMultiplier = 1 + guessedMonthlyInterestRate;
-
-        // use Newton-Raphson method to estimate the monthly multiplier
-        final double estimatedMonthlyMultiplier = newtonRaphsonMethod(
-                guessedMonthlyMultiplier,
-
-                // this is the function that we want to find roots of
-                m -> (principal + monthlyPayment) * Math.pow(m, term) - principal * Math.pow(m, term + 1) - monthlyPayment,
-
-                // this is the derivative of the above
-                m -> (principal + monthlyPayment) * term * Math.pow(m, term - 1) - principal * (term + 1) * Math.pow(m, term)
-        );
+        // each month, the new amount owed is calculated by multiplying (the amount currently owed (1) + monthlyInterestRate)
+        final double estimatedMonthlyMultiplier = RateSolver.solveMonthlyMultiplier(principal, term, monthlyPayment, event);
 
         final double estimatedMonthlyInterestRate = estimatedMonthlyMultiplier - 1;
 
@@ -61,25 +55,6 @@ public final class AmortizedLoan
         return 12 * estimatedMonthlyInterestRate;
     }
 
-    /**
-     * Uses Newton-Raphson method to find an approximation of a root, given a function and its derivative
-     * @param guess the initial guess of the root
-     * @param f the function that tends to zero
-     * @param fPrime the derivative function of <code>f</code>
-     * @return an approximation of the root
-     */
-    private static double newtonRaphsonMethod(final double guess, final Function<Double, Double> f, final Function<Double, Double> fPrime) {
-        double current = guess;
-
-        // only iterate a maximum of 1000 times, it should only iterate more than that if the interest rate is very high
-        // but then we don't need that much accuracy
-        for (int i = 0; i < 1000 && Math.abs(f.apply(current)) > EPSILON; i++) {
-            current = current - f.apply(current) / fPrime.apply(current);
-        }
-
-        return current;
-    }
-
     /**
      * Calculates the monthly repayment required using amortized interest
      * @param principal the initial loan amount
@@ -95,12 +70,40 @@ public final class AmortizedLoan
             throw new IllegalArgumentException("Annual interest rate must be non-negative");
         } else if (interestRateCompareTo0 == 0) {
             // interest rate is 0
-            return principal.divide(new BigDecimal(numberOfPaymentPeriods), SCALE, HALF_UP);
+            return getInterestFreeMonthlyRepayment(principal, numberOfPaymentPeriods);
         } else if (numberOfPaymentPeriods <= 0) {
             throw new IllegalArgumentException("Number of payment periods must be positive");
         }
 
-        final BigDecimal monthlyInterestRate = annualInterestRate.divide(new BigDecimal(12), SCALE, HALF_UP);
+        final BigDecimal monthlyInterestRate = getMonthlyInterestRate(annualInterestRate);
+
+        return principal.multiply(monthlyInterestRate).divide(getDiscountComplement(monthlyInterestRate, numberOfPaymentPeriods), SCALE, HALF_UP);
+    }
+
+    /**
+     * Converts an annual interest rate to the monthly interest rate used by the repayment calculation
+     * @param annualInterestRate the annual interest rate in decimal form (i.e. 0.1 = 10%)
+     * @return the monthly interest rate with <code>SCALE</code> decimal places
+     */
+    public static BigDecimal getMonthlyInterestRate(final BigDecimal annualInterestRate) {
+        if (annualInterestRate.signum() < 0) {
+            throw new IllegalArgumentException("Annual interest rate must be non-negative");
+        }
+
+        return annualInterestRate.divide(new BigDecimal(12), SCALE, HALF_UP);
+    }
+
+    /**
+     * Calculates <code>1 - 1/(1+r)^n</code>, the denominator of the repayment formula, which only depends on the rate
+     * and the term
+     * @param monthlyInterestRate the monthly interest rate, see <code>getMonthlyInterestRate</code>
+     * @param numberOfPaymentPeriods number of repayment periods
+     * @return the denominator with <code>SCALE</code> decimal places
+     */
+    public static BigDecimal getDiscountComplement(final BigDecimal monthlyInterestRate, final int numberOfPaymentPeriods) {
+        if (numberOfPaymentPeriods <= 0) {
+            throw new IllegalArgumentException("Number of payment periods must be positive");
+        }
 
         // c = (P * r) / (1-(1/(1+r)^n))
         // where:
@@ -109,15 +112,32 @@ public final class AmortizedLoan
         // r = monthly interest rate
         // n = number of payment periods
 
-        return principal.multiply(monthlyInterestRate)
-                .divide(
-                        BigDecimal.ONE.subtract(
-                                BigDecimal.ONE.divide(
-                                        BigDecimal.ONE.add(monthlyInterestRate).pow(numberOfPaymentPeriods),
-                                        SCALE, HALF_UP
-                                )
-                        ),
+        return BigDecimal.ONE.subtract(
+                BigDecimal.ONE.divide(
+                        BigDecimal.ONE.add(monthlyInterestRate).pow(numberOfPaymentPeriods),
                         SCALE, HALF_UP
-                );
+                )
+        );
+    }
+
+    /**
+     * Calculates the monthly repayment from factors computed once per rate and term, giving the same result as
+     * <code>getMonthlyRepayment(principal, annualInterestRate, numberOfPaymentPeriods)</code>
+     * @param principalTimesRate the initial loan amount multiplied by the monthly interest rate
+     * @param discountComplement <code>getDiscountComplement</code> of the same rate and term
+     * @return the repayment required to repay capital and interest every month
+     */
+    public static BigDecimal getMonthlyRepayment(final BigDecimal principalTimesRate, final BigDecimal discountComplement) {
+        return principalTimesRate.divide(discountComplement, SCALE, HALF_UP);
+    }
+
+    /**
+     * Calculates the monthly repayment of a loan without interest
+     * @param principal the initial loan amount
+     * @param numberOfPaymentPeriods number of repayment periods
+     * @return the repayment required to repay the capital every month
+     */
+    public static BigDecimal getInterestFreeMonthlyRepayment(final BigDecimal principal, final int numberOfPaymentPeriods) {
+        return principal.divide(new BigDecimal(numberOfPaymentPeriods), SCALE, HALF_UP);
     }
 }
@@ -0,0 +1,109 @@
+package com.bigbank.loan.engine;
+
+import static java.math.RoundingMode.HALF_UP;
+
+import java.math.BigDecimal;
+
+
+/**
+ * Utility class to calculate amortized loan repayments in scaled <code>long</code> arithmetic. Values are expressed in
+ * units of <code>10^-SCALE</code> and every intermediate result is rounded exactly as
+ * <code>AmortizedLoan.getMonthlyRepayment</code> rounds its <code>BigDecimal</code> values, so both give the same
+ * repayment to the last digit.
+ */
+public final class FixedPointAmortizedLoan
+{
+
+    /**
+     * The scale of every value, the same as the one used by <code>AmortizedLoan</code>
+     */
+    public static final int SCALE = 10;
+
+    /**
+     * The value of 1 in units of <code>10^-SCALE</code>
+     */
+    public static final long ONE = 10_000_000_000L;
+
+    /**
+     * <code>ONE</code> is applied as two steps of this factor so that remainders never overflow
+     */
+    private static final long HALF_SCALE_FACTOR = 100_000L;
+
+    private FixedPointAmortizedLoan() {
+    }
+
+    /**
+     * Converts an annual interest rate to the monthly interest rate used by the repayment calculation
+     * @param annualInterestRate the annual interest rate in decimal form (i.e. 0.1 = 10%)
+     * @return the monthly interest rate in units of <code>10^-SCALE</code>
+     */
+    public static long getMonthlyInterestRate(final BigDecimal annualInterestRate) {
+        if (annualInterestRate.signum() < 0) {
+            throw new IllegalArgumentException("Annual interest rate must be non-negative");
+        }
+
+        return annualInterestRate.divide(new BigDecimal(12), SCALE, HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Calculates <code>1 - 1/(1+r)^n</code>, the denominator of the repayment formula. This is the only part that
+     * needs arbitrary precision, it only depends on the rate and the term so it is meant to be computed once per rate.
+     * @param monthlyInterestRate the monthly interest rate in units of <code>10^-SCALE</code>
+     * @param numberOfPaymentPeriods number of repayment periods
+     * @return the denominator in units of <code>10^-SCALE</code>
+     */
+    public static long getDiscountComplement(final long monthlyInterestRate, final int numberOfPaymentPeriods) {
+        if (numberOfPaymentPeriods <= 0) {
+            throw new IllegalArgumentException("Number of payment periods must be positive");
+        }
+
+        final BigDecimal discount = BigDecimal.ONE.divide(
+                BigDecimal.ONE.add(BigDecimal.valueOf(monthlyInterestRate, SCALE)).pow(numberOfPaymentPeriods),
+                SCALE, HALF_UP
+        );
+
+        return ONE - discount.unscaledValue().longValueExact();
+    }
+
+    /**
+     * Calculates the monthly repayment required using amortized interest, without allocating
+     * @param principal the initial loan amount
+     * @param monthlyInterestRate the monthly interest rate in units of <code>10^-SCALE</code>
+     * @param discountComplement <code>getDiscountComplement</code> of the same rate and term
+     * @param numberOfPaymentPeriods number of repayment periods
+     * @return the repayment required to repay capital and interest every month in units of <code>10^-SCALE</code>
+     * @throws ArithmeticException thrown if the repayment does not fit in a <code>long</code>
+     */
+    public static long getMonthlyRepayment(final long principal, final long monthlyInterestRate, final long discountComplement, final int numberOfPaymentPeriods) {
+        if (monthlyInterestRate == 0) {
+            // c = P / n
+            return divide(principal, numberOfPaymentPeriods);
+        }
+
+        // c = (P * r) / (1-(1/(1+r)^n))
+        // P * r is already in units, so the quotient is scaled once more to stay in units
+        return divide(Math.multiplyExact(principal, monthlyInterestRate), discountComplement);
+    }
+
+    /**
+     * Divides <code>dividend * ONE</code> by <code>divisor</code> with <code>HALF_UP</code> rounding, as
+     * <code>BigDecimal.divide(divisor, SCALE, HALF_UP)</code> does for positive values
+     * @param dividend a non-negative dividend
+     * @param divisor a positive divisor not greater than <code>ONE</code>
+     * @return the rounded quotient in units of <code>10^-SCALE</code>
+     */
+    private static long divide(final long dividend, final long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+
+        // long division in two base 10^5 digits, remainder * 10^5 stays below 10^15
+        for (int i = 0; i < 2; i++) {
+            remainder *= HALF_SCALE_FACTOR;
+
+            quotient = Math.addExact(Math.multiplyExact(quotient, HALF_SCALE_FACTOR), remainder / divisor);
+            remainder %= divisor;
+        }
+
+        return remainder * 2 >= divisor ? quotient + 1 : quotient;
+    }
+}
@@ -0,0 +1,17 @@
+package com.bigbank.loan.engine;
+
+/**
+ * The arithmetic used to compute monthly repayments
+ */
+public enum NumericEngine {
+    /**
+     * <code>BigDecimal</code> arithmetic through <code>AmortizedLoan</code>
+     */
+    BIG_DECIMAL,
+
+    /**
+     * scaled <code>long</code> arithmetic through <code>FixedPointAmortizedLoan</code>, giving the same results as
+     * <code>BIG_DECIMAL</code> without allocating per lender
+     */
+    FIXED_POINT
+}
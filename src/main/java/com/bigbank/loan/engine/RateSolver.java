@@ -0,0 +1,146 @@
+package com.bigbank.loan.engine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.bigbank.loan.jfr.RateSolverEvent;
+
+
+/**
+ * Solves the amortization equation for the monthly interest multiplier, using Halley's method safeguarded by a
+ * bracketing bisection, and counts the work it does so that it can be monitored
+ */
+public final class RateSolver
+{
+
+    /**
+     * The solver stops once a step changes the multiplier by less than this, relative to the multiplier
+     */
+    private static final double STEP_TOLERANCE = 1e-12;
+
+    /**
+     * Maximum number of iterations, it should only be reached if the interest rate is very high but then we don't
+     * need that much accuracy
+     */
+    private static final int MAX_ITERATIONS = 1000;
+
+    private static final LongAdder INVOCATIONS = new LongAdder();
+
+    private static final LongAdder ITERATIONS = new LongAdder();
+
+    private static final LongAdder NON_CONVERGENCES = new LongAdder();
+
+    private RateSolver() {
+    }
+
+    /**
+     * Finds the monthly multiplier <code>m = 1 + r</code> that repays the principal in the term, that is the root
+     * greater than 1 of <code>f(m) = (P + M) * m^n - P * m^(n+1) - M</code>. <code>m = 1</code> is always a trivial root
+     * and <code>f</code> is positive between it and the solution and negative after it, which gives the bracket.
+     * @param principal the initial loan amount
+     * @param term number of repayment terms
+     * @param monthlyPayment amount of repayment per term
+     * @return an approximation of the monthly multiplier
+     */
+    public static double solveMonthlyMultiplier(final double principal, final int term, final double monthlyPayment) {
+        return solveMonthlyMultiplier(principal, term, monthlyPayment, null);
+    }
+
+    /**
+     * Finds the monthly multiplier that repays the principal in the term, reporting the work done to a Flight Recorder
+     * event
+     * @param principal the initial loan amount
+     * @param term number of repayment terms
+     * @param monthlyPayment amount of repayment per term
+     * @param event the event given the iteration count and whether the solver converged, or <code>null</code>
+     * @return an approximation of the monthly multiplier
+     */
+    public static double solveMonthlyMultiplier(final double principal, final int term, final double monthlyPayment, final RateSolverEvent event) {
+        final double principalAndPayment = principal + monthlyPayment;
+
+        // f(low) > 0 except at the trivial root, f(high) = -monthlyPayment
+        double low = 1;
+        double high = 1 + monthlyPayment / principal;
+
+        // a decent guess is to just assume entire monthly payment is interest
+        double current = high;
+
+        int iterations = 0;
+        boolean converged = false;
+
+        while (!converged && iterations < MAX_ITERATIONS) {
+            iterations++;
+
+            // every power of the step is derived from a single call to pow
+            final double powerMinusOne = Math.pow(current, term - 1);
+            final double power = powerMinusOne * current;
+
+            final double f = principalAndPayment * power - principal * power * current - monthlyPayment;
+
+            if (f == 0) {
+                converged = true;
+
+                continue;
+            }
+
+            if (f > 0) {
+                low = current;
+            } else {
+                high = current;
+            }
+
+            final double fPrime = principalAndPayment * term * powerMinusOne - principal * (term + 1) * power;
+            final double fSecond = (principalAndPayment * (term - 1) * powerMinusOne / current - principal * (term + 1) * powerMinusOne) * term;
+
+            double next = current - 2 * f * fPrime / (2 * fPrime * fPrime - f * fSecond);
+
+            // fall back to bisection whenever the step leaves the bracket, including a NaN step
+            if (!(next > low && next < high)) {
+                next = (low + high) / 2;
+            }
+
+            // Halley converges cubically so a tiny step means the root is found, this also stops large powers where
+            // rounding keeps f away from zero
+            converged = Math.abs(next - current) <= STEP_TOLERANCE * next;
+
+            current = next;
+        }
+
+        INVOCATIONS.increment();
+        ITERATIONS.add(iterations);
+
+        if (!converged) {
+            NON_CONVERGENCES.increment();
+        }
+
+        if (event != null) {
+            event.setIterations(iterations);
+            event.setConverged(converged);
+        }
+
+        return current;
+    }
+
+    /**
+     * Gets the number of times the solver ran since the application started
+     * @return the number of times the solver ran
+     */
+    public static long getInvocationCount() {
+        return INVOCATIONS.sum();
+    }
+
+    /**
+     * Gets the number of iterations run by all solver invocations
+     * @return the total number of iterations
+     */
+    public static long getIterationCount() {
+        return ITERATIONS.sum();
+    }
+
+    /**
+     * Gets the number of solver invocations that stopped at the maximum number of iterations without converging
+     * @return the number of invocations that did not converge
+     */
+    public static long getNonConvergenceCount() {
+        return NON_CONVERGENCES.sum();
+    }
+}
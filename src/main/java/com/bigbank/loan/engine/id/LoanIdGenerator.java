@@ -0,0 +1,14 @@
+package com.bigbank.loan.engine.id;
+
+
+/**
+ * Source of the ids given to loan proposals and reservations
+ */
+@FunctionalInterface
+public interface LoanIdGenerator {
+    /**
+     * Generates a new id, safe to call from any thread
+     * @return an id never returned before by this generator
+     */
+    String nextId();
+}
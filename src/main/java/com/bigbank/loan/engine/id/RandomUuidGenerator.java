@@ -0,0 +1,17 @@
+package com.bigbank.loan.engine.id;
+
+import java.util.UUID;
+
+
+/**
+ * Random version 4 UUIDs, drawn from the shared <code>SecureRandom</code> of <code>UUID</code>
+ */
+public final class RandomUuidGenerator implements LoanIdGenerator {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,233 @@
+package com.bigbank.loan.engine.id;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Time-ordered 128-bit ids written as 26 Crockford base32 characters, like a ULID: 48 bits of milliseconds since the
+ * epoch, a 16-bit node id, a 24-bit thread slot and a 40-bit per-thread sequence. Each thread owns its slot and
+ * sequence, so generating an id takes no lock, no CAS and no shared random source.
+ * <p>
+ * The first 10 characters are the timestamp, so ids sort by creation time to the millisecond across threads and
+ * nodes, and strictly in creation order within a thread.
+ */
+public final class UlidGenerator implements LoanIdGenerator {
+    /**
+     * number of characters of an id
+     */
+    public static final int LENGTH = 26;
+
+    /**
+     * largest node id
+     */
+    public static final int MAX_NODE = 0xFFFF;
+
+    /**
+     * Crockford base32 digits, in ASCII order so ids sort like the numbers they encode
+     */
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    /**
+     * number of characters holding the timestamp
+     */
+    private static final int TIMESTAMP_LENGTH = 10;
+
+    /**
+     * number of bits of the node id
+     */
+    private static final int NODE_BITS = 16;
+
+    /**
+     * number of bits of the thread slot
+     */
+    private static final int SLOT_BITS = 24;
+
+    /**
+     * number of bits of the per-thread sequence
+     */
+    private static final int SEQUENCE_BITS = 40;
+
+    /**
+     * the node id in every id
+     */
+    private final int node;
+
+    /**
+     * the time source in milliseconds since the epoch
+     */
+    private final LongSupplier clock;
+
+    /**
+     * the next thread slot to hand out
+     */
+    private final AtomicInteger slots = new AtomicInteger();
+
+    /**
+     * the state of each thread, created on its first id
+     */
+    private final ThreadLocal<Sequence> sequences = ThreadLocal.withInitial(this::newSequence);
+
+    /**
+     * Constructs a generator on the system clock
+     * @param node the id of this node, between <code>0</code> and <code>MAX_NODE</code>, unique among the nodes
+     *             generating ids at the same time
+     */
+    public UlidGenerator(final int node) {
+        this(node, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructs a generator
+     * @param node the id of this node, between <code>0</code> and <code>MAX_NODE</code>
+     * @param clock the time source in milliseconds since the epoch
+     * @throws IllegalArgumentException thrown if the node id is out of range
+     */
+    public UlidGenerator(final int node, final LongSupplier clock) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE + ": " + node);
+        }
+
+        this.node = node;
+        this.clock = clock;
+    }
+
+    /**
+     * Derives a node id from the process id and host name, for deployments that do not configure one. Two processes
+     * may derive the same id, which only matters if they also get the same thread slot, sequence and millisecond.
+     * @return a node id between <code>0</code> and <code>MAX_NODE</code>
+     */
+    public static int defaultNode() {
+        // pid@hostname on the usual JVMs
+        final String runtimeName = ManagementFactory.getRuntimeMXBean().getName();
+
+        final int hash = runtimeName.hashCode();
+
+        return (hash ^ hash >>> NODE_BITS) & MAX_NODE;
+    }
+
+    /**
+     * Reads the creation time of an id
+     * @param id an id of this generator
+     * @return the time it was generated at, in milliseconds since the epoch
+     * @throws IllegalArgumentException thrown if the id is not made of base32 digits
+     */
+    public static long getTimestamp(final String id) {
+        long timestamp = 0;
+
+        for (int i = 0; i < TIMESTAMP_LENGTH; i++) {
+            final int digit = i < id.length() ? indexOf(id.charAt(i)) : -1;
+
+            if (digit < 0) {
+                throw new IllegalArgumentException("Not a base32 id: " + id);
+            }
+
+            timestamp = timestamp << 5 | digit;
+        }
+
+        return timestamp;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String nextId() {
+        final Sequence sequence = sequences.get();
+
+        // a clock stepping back does not break the order of the ids of a thread
+        final long time = Math.max(clock.getAsLong(), sequence.lastMillis);
+
+        sequence.lastMillis = time;
+
+        final long high = time << NODE_BITS | node;
+        final long low = sequence.slot << SEQUENCE_BITS | sequence.next++ & (1L << SEQUENCE_BITS) - 1;
+
+        return encode(high, low);
+    }
+
+    /**
+     * Creates the state of the calling thread
+     * @return a sequence with the next free slot
+     */
+    private Sequence newSequence() {
+        final long slot = slots.getAndIncrement() & (1L << SLOT_BITS) - 1;
+
+        // a random start keeps ids apart if a restarted node reuses slots within the same millisecond, and leaves
+        // 2^39 ids before the sequence wraps
+        return new Sequence(slot, ThreadLocalRandom.current().nextLong(1L << SEQUENCE_BITS - 1));
+    }
+
+    /**
+     * Writes 128 bits as 26 base32 digits, most significant first
+     * @param high the upper 64 bits
+     * @param low the lower 64 bits
+     * @return the digits
+     */
+    private static String encode(long high, long low) {
+        final char[] chars = new char[LENGTH];
+
+        // the 12 last digits hold 60 bits of low, the next one its 4 last bits and 1 bit of high
+        for (int i = LENGTH - 1; i > 13; i--) {
+            chars[i] = ALPHABET[(int) (low & 31)];
+            low >>>= 5;
+        }
+
+        chars[13] = ALPHABET[(int) (low & 15 | (high & 1) << 4)];
+        high >>>= 1;
+
+        for (int i = 12; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (high & 31)];
+            high >>>= 5;
+        }
+
+        return new String(chars);
+    }
+
+    /**
+     * Finds the value of a base32 digit
+     * @param digit an upper case digit
+     * @return its value, or <code>-1</code> if it is not a digit
+     */
+    private static int indexOf(final char digit) {
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == digit) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * State of one thread, only ever touched by that thread
+     */
+    private static final class Sequence {
+        /**
+         * the thread slot, shifted into the lower half of the ids
+         */
+        private final long slot;
+
+        /**
+         * the next sequence number
+         */
+        private long next;
+
+        /**
+         * the time of the last id, in milliseconds since the epoch
+         */
+        private long lastMillis;
+
+        /**
+         * Constructs the state of a thread
+         * @param slot the thread slot
+         * @param next the first sequence number
+         */
+        private Sequence(final long slot, final long next) {
+            this.slot = slot;
+            this.next = next;
+        }
+    }
+}
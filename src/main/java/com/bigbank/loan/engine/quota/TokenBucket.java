@@ -0,0 +1,83 @@
+package com.bigbank.loan.engine.quota;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Lock-free token bucket, kept as the time at which the bucket would be full again (the generic cell rate algorithm):
+ * taking a token pushes that time one refill interval forward, and is refused when it would end up more than the
+ * bucket capacity ahead of now. The whole state is one <code>AtomicLong</code> updated by CAS.
+ */
+public final class TokenBucket {
+    /**
+     * nanoseconds for one token to come back
+     */
+    private final long intervalNanos;
+
+    /**
+     * nanoseconds for an empty bucket to fill up
+     */
+    private final long capacityNanos;
+
+    /**
+     * the time source in nanoseconds
+     */
+    private final LongSupplier nanoClock;
+
+    /**
+     * the time at which the bucket is full, in the past while it is
+     */
+    private final AtomicLong fullAt;
+
+    /**
+     * Constructs a full bucket on the system clock
+     * @param tokensPerSecond the refill rate
+     * @param capacity the number of tokens the bucket holds, the largest burst it allows
+     */
+    public TokenBucket(final double tokensPerSecond, final int capacity) {
+        this(tokensPerSecond, capacity, System::nanoTime);
+    }
+
+    /**
+     * Constructs a full bucket
+     * @param tokensPerSecond the refill rate
+     * @param capacity the number of tokens the bucket holds, the largest burst it allows
+     * @param nanoClock the time source in nanoseconds
+     * @throws IllegalArgumentException thrown if the rate or the capacity is not positive
+     */
+    public TokenBucket(final double tokensPerSecond, final int capacity, final LongSupplier nanoClock) {
+        if (!(tokensPerSecond > 0) || capacity <= 0) {
+            throw new IllegalArgumentException("Rate and capacity must be positive: " + tokensPerSecond + ", " + capacity);
+        }
+
+        this.intervalNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / tokensPerSecond));
+        this.capacityNanos = intervalNanos * capacity;
+        this.nanoClock = nanoClock;
+        this.fullAt = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Takes a token if one is available
+     * @return <code>0</code> if a token was taken, otherwise the nanoseconds until one will be
+     */
+    public long tryAcquire() {
+        while (true) {
+            final long now = nanoClock.getAsLong();
+            final long current = fullAt.get();
+
+            // a bucket full since long ago holds no more than its capacity
+            final long next = (current - now < 0 ? now : current) + intervalNanos;
+            final long wait = next - now - capacityNanos;
+
+            if (wait > 0) {
+                return wait;
+            }
+
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
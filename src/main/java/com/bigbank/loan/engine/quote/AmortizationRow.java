@@ -0,0 +1,105 @@
+package com.bigbank.loan.engine.quote;
+
+import java.math.BigDecimal;
+
+
+/**
+ * One month of an amortization schedule, amounts in pounds sterling rounded to the penny
+ */
+public final class AmortizationRow {
+    /**
+     * the month of the repayment, starting at 1
+     */
+    private final int month;
+
+    /**
+     * the amount repaid this month
+     */
+    private final BigDecimal payment;
+
+    /**
+     * the part of the payment that pays interest
+     */
+    private final BigDecimal interest;
+
+    /**
+     * the part of the payment that repays capital
+     */
+    private final BigDecimal principal;
+
+    /**
+     * the capital still owed after the payment
+     */
+    private final BigDecimal balance;
+
+    /**
+     * Constructs a row of a schedule
+     * @param month the month of the repayment, starting at 1
+     * @param payment the amount repaid this month
+     * @param interest the part of the payment that pays interest
+     * @param principal the part of the payment that repays capital
+     * @param balance the capital still owed after the payment
+     */
+    public AmortizationRow(final int month, final BigDecimal payment, final BigDecimal interest, final BigDecimal principal, final BigDecimal balance) {
+        this.month = month;
+        this.payment = payment;
+        this.interest = interest;
+        this.principal = principal;
+        this.balance = balance;
+    }
+
+    /**
+     * Gets the month of the repayment
+     * @return the month of the repayment, starting at 1
+     */
+    public int getMonth() {
+        return month;
+    }
+
+    /**
+     * Gets the amount repaid this month
+     * @return the amount repaid this month
+     */
+    public BigDecimal getPayment() {
+        return payment;
+    }
+
+    /**
+     * Gets the part of the payment that pays interest
+     * @return the part of the payment that pays interest
+     */
+    public BigDecimal getInterest() {
+        return interest;
+    }
+
+    /**
+     * Gets the part of the payment that repays capital
+     * @return the part of the payment that repays capital
+     */
+    public BigDecimal getPrincipal() {
+        return principal;
+    }
+
+    /**
+     * Gets the capital still owed after the payment
+     * @return the capital still owed after the payment
+     */
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    /**
+     * Generated toString method
+     * @return string representation of this object, for testing purposes.
+     */
+    @Override
+    public String toString() {
+        return "AmortizationRow{" +
+                "month=" + month +
+                ", payment=" + payment +
+                ", interest=" + interest +
+                ", principal=" + principal +
+                ", balance=" + balance +
+                '}';
+    }
+}
@@ -0,0 +1,132 @@
+package com.bigbank.loan.engine.quote;
+
+import static java.math.RoundingMode.HALF_UP;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+
+/**
+ * Month by month repayments of a quote, computed one row at a time so that a schedule takes the same memory whatever
+ * its term. Every payment but the last one is the rounded monthly repayment of the quote, the last one settles the
+ * pennies so that the payments add up to the total repayment of the quote and the balance ends at zero.
+ * <p>
+ * The interest of a month is the interest of each tranche of the loan at its own rate, a tranche being the part of
+ * the loan lent at one of the rates of the lenders. Tranche balances follow their exact, not rounded, repayments.
+ */
+public final class AmortizationSchedule implements Iterator<AmortizationRow> {
+    /**
+     * Decimal places of the tranche balances, as used by the repayment calculations
+     */
+    private static final int SCALE = 10;
+
+    /**
+     * Decimal places of the amounts of the rows
+     */
+    private static final int PENNY_SCALE = 2;
+
+    /**
+     * the quote the schedule repays
+     */
+    private final LoanQuote quote;
+
+    /**
+     * monthly interest rate of each tranche
+     */
+    private final BigDecimal[] monthlyInterestRates;
+
+    /**
+     * exact monthly repayment of each tranche
+     */
+    private final BigDecimal[] trancheRepayments;
+
+    /**
+     * capital still owed on each tranche
+     */
+    private final BigDecimal[] trancheBalances;
+
+    /**
+     * the payment of the last month, which settles the pennies left by rounding the other payments
+     */
+    private final BigDecimal finalPayment;
+
+    /**
+     * capital still owed by the borrower, to the penny
+     */
+    private BigDecimal balance;
+
+    /**
+     * the month of the last row returned
+     */
+    private int month;
+
+    /**
+     * Constructs the schedule of a quote
+     * @param quote the quote to repay
+     * @param principals the amount lent in each tranche
+     * @param monthlyInterestRates the monthly interest rate of each tranche
+     * @param trancheRepayments the exact monthly repayment of each tranche, adding up to the monthly repayment of the
+     *                          quote before rounding
+     */
+    AmortizationSchedule(final LoanQuote quote, final BigDecimal[] principals, final BigDecimal[] monthlyInterestRates, final BigDecimal[] trancheRepayments) {
+        this.quote = quote;
+        this.monthlyInterestRates = monthlyInterestRates;
+        this.trancheRepayments = trancheRepayments;
+        this.trancheBalances = principals.clone();
+        this.balance = new BigDecimal(quote.getLoanAmount()).setScale(PENNY_SCALE);
+
+        // totalRepayment is rounded up from the exact monthly repayment, the last payment makes up the difference
+        this.finalPayment = quote.getTotalRepayment().subtract(quote.getMonthlyRepayment().multiply(new BigDecimal(quote.getRepaymentMonths() - 1)));
+    }
+
+    /**
+     * Gets the quote the schedule repays
+     * @return the quote with the monthly and total repayments of the schedule
+     */
+    public LoanQuote getQuote() {
+        return quote;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return month < quote.getRepaymentMonths();
+    }
+
+    @Override
+    public AmortizationRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        month++;
+
+        BigDecimal exactInterest = BigDecimal.ZERO;
+
+        for (int i = 0; i < trancheBalances.length; i++) {
+            final BigDecimal trancheInterest = trancheBalances[i].multiply(monthlyInterestRates[i]).setScale(SCALE, HALF_UP);
+
+            exactInterest = exactInterest.add(trancheInterest);
+            trancheBalances[i] = trancheBalances[i].add(trancheInterest).subtract(trancheRepayments[i]);
+        }
+
+        final BigDecimal payment;
+        final BigDecimal interest;
+        final BigDecimal principal;
+
+        if (month == quote.getRepaymentMonths()) {
+            // the last payment clears whatever capital is left
+            payment = finalPayment;
+            principal = balance;
+            interest = payment.subtract(principal);
+        } else {
+            payment = quote.getMonthlyRepayment();
+            interest = exactInterest.setScale(PENNY_SCALE, HALF_UP);
+            principal = payment.subtract(interest);
+        }
+
+        balance = balance.subtract(principal);
+
+        return new AmortizationRow(month, payment, interest, principal, balance);
+    }
+}
@@ -0,0 +1,244 @@
+package com.bigbank.loan.engine.quote;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.bigbank.loan.engine.AmortizedLoan;
+import com.bigbank.loan.engine.FixedPointAmortizedLoan;
+
+
+/**
+ * Repayment formula factors of every distinct rate of a lender book, per term. The factors of the standard terms are
+ * computed with the book and those of any other term the first time it is quoted, so a repayment only takes a
+ * multiply and a divide instead of a power and two divides.
+ */
+public final class AnnuityFactors {
+    /**
+     * Longest term the factors can be computed for, in months
+     */
+    public static final int MAX_TERM = 360;
+
+    /**
+     * Terms whose factors are computed with the book, in months
+     */
+    public static final List<Integer> STANDARD_TERMS = Collections.unmodifiableList(Arrays.asList(12, 24, 36, 48, 60));
+
+    /**
+     * Estimated size of a factor: a compact <code>BigDecimal</code> and its fixed-point <code>long</code>
+     */
+    private static final int ESTIMATED_FACTOR_BYTES = 40 + 8 + 8;
+
+    /**
+     * monthly interest rate of each distinct rate of the book, indexed by rate id
+     */
+    private final BigDecimal[] monthlyInterestRates;
+
+    /**
+     * monthly interest rate of each distinct rate of the book in <code>FixedPointAmortizedLoan</code> units, indexed
+     * by rate id
+     */
+    private final long[] fixedPointMonthlyInterestRates;
+
+    /**
+     * factors of the terms quoted so far, indexed by term in months
+     */
+    private final AtomicReferenceArray<TermFactors> terms = new AtomicReferenceArray<>(MAX_TERM + 1);
+
+    /**
+     * number of terms whose factors are computed
+     */
+    private final AtomicInteger termCount = new AtomicInteger();
+
+    /**
+     * lookups of a term whose factors were already computed
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * lookups of a term whose factors had to be computed
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Computes the factors of the standard terms for every distinct rate
+     * @param rates the distinct annual interest rates of a book, indexed by rate id
+     */
+    public AnnuityFactors(final BigDecimal[] rates) {
+        this.monthlyInterestRates = new BigDecimal[rates.length];
+        this.fixedPointMonthlyInterestRates = new long[rates.length];
+
+        for (int i = 0; i < rates.length; i++) {
+            monthlyInterestRates[i] = AmortizedLoan.getMonthlyInterestRate(rates[i]);
+            fixedPointMonthlyInterestRates[i] = FixedPointAmortizedLoan.getMonthlyInterestRate(rates[i]);
+        }
+
+        for (final int term : STANDARD_TERMS) {
+            terms.set(term, new TermFactors(term));
+            termCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the number of distinct rates
+     * @return the number of distinct rates of the book
+     */
+    public int getRateCount() {
+        return monthlyInterestRates.length;
+    }
+
+    /**
+     * Gets the monthly interest rate of a distinct rate
+     * @param rateId the id of the rate in the book
+     * @return the monthly interest rate with <code>AmortizedLoan</code> scale
+     */
+    public BigDecimal getMonthlyInterestRate(final int rateId) {
+        return monthlyInterestRates[rateId];
+    }
+
+    /**
+     * Gets the monthly interest rate of a distinct rate in fixed-point
+     * @param rateId the id of the rate in the book
+     * @return the monthly interest rate in <code>FixedPointAmortizedLoan</code> units
+     */
+    public long getFixedPointMonthlyInterestRate(final int rateId) {
+        return fixedPointMonthlyInterestRates[rateId];
+    }
+
+    /**
+     * Gets the factors of every distinct rate for a term, computing them on first use
+     * @param term number of repayment months, between 1 and <code>MAX_TERM</code>
+     * @return the factors of the term
+     */
+    public TermFactors getTerm(final int term) {
+        if (term <= 0 || term > MAX_TERM) {
+            throw new IllegalArgumentException("Term must be between 1 and " + MAX_TERM + " months");
+        }
+
+        TermFactors factors = terms.get(term);
+
+        if (factors != null) {
+            hits.increment();
+
+            return factors;
+        }
+
+        misses.increment();
+
+        // concurrent first uses may both compute the same factors, the first one published is kept
+        factors = new TermFactors(term);
+
+        if (terms.compareAndSet(term, null, factors)) {
+            termCount.incrementAndGet();
+
+            return factors;
+        }
+
+        return terms.get(term);
+    }
+
+    /**
+     * Gets the number of factors held, one per distinct rate and computed term
+     * @return the number of distinct rate and term entries
+     */
+    public long getEntryCount() {
+        return (long) monthlyInterestRates.length * termCount.get();
+    }
+
+    /**
+     * Gets the number of term lookups that found the factors already computed
+     * @return the number of hits since the book was loaded
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of term lookups that had to compute the factors
+     * @return the number of misses since the book was loaded
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Estimates the heap retained by the factors
+     * @return the estimated size in bytes
+     */
+    public long getFootprintBytes() {
+        return 16 + 4L * (MAX_TERM + 1) + (long) ESTIMATED_FACTOR_BYTES * (monthlyInterestRates.length + getEntryCount());
+    }
+
+    /**
+     * Denominators of the repayment formula of every distinct rate for one term
+     */
+    public final class TermFactors {
+        /**
+         * number of repayment months
+         */
+        private final int term;
+
+        /**
+         * <code>1 - 1/(1+r)^n</code> of each distinct rate, indexed by rate id
+         */
+        private final BigDecimal[] discountComplements;
+
+        /**
+         * <code>1 - 1/(1+r)^n</code> of each distinct rate in <code>FixedPointAmortizedLoan</code> units, indexed by
+         * rate id
+         */
+        private final long[] fixedPointDiscountComplements;
+
+        private TermFactors(final int term) {
+            this.term = term;
+            this.discountComplements = new BigDecimal[monthlyInterestRates.length];
+            this.fixedPointDiscountComplements = new long[monthlyInterestRates.length];
+
+            for (int i = 0; i < monthlyInterestRates.length; i++) {
+                discountComplements[i] = AmortizedLoan.getDiscountComplement(monthlyInterestRates[i], term);
+
+                // both are rounded to the same scale, the power is only computed once
+                fixedPointDiscountComplements[i] = discountComplements[i].setScale(FixedPointAmortizedLoan.SCALE).unscaledValue().longValueExact();
+            }
+        }
+
+        /**
+         * Gets the number of repayment months
+         * @return the term of the factors in months
+         */
+        public int getTerm() {
+            return term;
+        }
+
+        /**
+         * Calculates the monthly repayment of part of a loan lent at one of the distinct rates
+         * @param rateId the id of the rate in the book
+         * @param principal the amount lent at this rate
+         * @param principalTimesRate <code>principal</code> multiplied by the monthly interest rate, shared by every term
+         * @return the repayment required to repay capital and interest every month, as
+         * <code>AmortizedLoan.getMonthlyRepayment</code> computes it
+         */
+        public BigDecimal getMonthlyRepayment(final int rateId, final BigDecimal principal, final BigDecimal principalTimesRate) {
+            if (monthlyInterestRates[rateId].signum() == 0) {
+                return AmortizedLoan.getInterestFreeMonthlyRepayment(principal, term);
+            }
+
+            return AmortizedLoan.getMonthlyRepayment(principalTimesRate, discountComplements[rateId]);
+        }
+
+        /**
+         * Calculates the monthly repayment of part of a loan lent at one of the distinct rates in fixed-point
+         * @param rateId the id of the rate in the book
+         * @param principal the amount lent at this rate
+         * @return the repayment in <code>FixedPointAmortizedLoan</code> units
+         * @throws ArithmeticException thrown if the repayment does not fit in a <code>long</code>
+         */
+        public long getFixedPointMonthlyRepayment(final int rateId, final long principal) {
+            return FixedPointAmortizedLoan.getMonthlyRepayment(principal, fixedPointMonthlyInterestRates[rateId], fixedPointDiscountComplements[rateId], term);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.bigbank.loan.engine.quote;
+
+/**
+ * How a loan is split across the sorted lenders: every lender before <code>lastLenderIndex</code> lends its whole
+ * available amount and the lender at <code>lastLenderIndex</code> lends <code>lastLenderAmount</code>
+ */
+public final class LenderAllocation {
+    /**
+     * index in the sorted lenders of the last lender used by the loan
+     */
+    private final int lastLenderIndex;
+
+    /**
+     * the amount lent by the last lender, at most its available amount
+     */
+    private final int lastLenderAmount;
+
+    /**
+     * Constructs an allocation ending at the specified lender
+     * @param lastLenderIndex index in the sorted lenders of the last lender used by the loan
+     * @param lastLenderAmount the amount lent by the last lender, at most its available amount
+     */
+    public LenderAllocation(final int lastLenderIndex, final int lastLenderAmount) {
+        this.lastLenderIndex = lastLenderIndex;
+        this.lastLenderAmount = lastLenderAmount;
+    }
+
+    /**
+     * Gets the index in the sorted lenders of the last lender used by the loan
+     * @return index in the sorted lenders of the last lender used by the loan
+     */
+    public int getLastLenderIndex() {
+        return lastLenderIndex;
+    }
+
+    /**
+     * Gets the amount lent by the last lender
+     * @return the amount lent by the last lender, at most its available amount
+     */
+    public int getLastLenderAmount() {
+        return lastLenderAmount;
+    }
+
+    /**
+     * Gets the number of lenders used by the loan
+     * @return the number of lenders used by the loan
+     */
+    public int getLenderCount() {
+        return lastLenderIndex + 1;
+    }
+
+    /**
+     * Generated toString method
+     * @return string representation of this object, for testing purposes.
+     */
+    @Override
+    public String toString() {
+        return "LenderAllocation{" +
+                "lastLenderIndex=" + lastLenderIndex +
+                ", lastLenderAmount=" + lastLenderAmount +
+                '}';
+    }
+}
@@ -0,0 +1,374 @@
+package com.bigbank.loan.engine.quote;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+
+/**
+ * Immutable lender book sorted by rate in ascending order, then by amount in descending order, stored as a structure
+ * of arrays. A lender costs an <code>int</code> amount, an <code>int</code> rate id, a <code>long</code> running total
+ * and an <code>int</code> name offset, plus its UTF-8 name bytes; rates are held once per distinct value.
+ */
+public final class LenderBook {
+    /**
+     * number of lenders in the book
+     */
+    private final int size;
+
+    /**
+     * the amount available from each lender in pounds sterling
+     */
+    private final int[] amounts;
+
+    /**
+     * the index in <code>rates</code> of the rate of each lender
+     */
+    private final int[] rateIds;
+
+    /**
+     * the distinct annual interest rates in ascending order, unscaled with <code>LenderColumns.RATE_SCALE</code>
+     * decimal places
+     */
+    private final long[] rates;
+
+    /**
+     * the distinct annual interest rates as decimals, in the same order as <code>rates</code>
+     */
+    private final BigDecimal[] rateDecimals;
+
+    /**
+     * <code>cumulativeAmounts[i]</code> is the total amount available from lenders <code>0..i</code>
+     */
+    private final long[] cumulativeAmounts;
+
+    /**
+     * the UTF-8 names of all the lenders, one after the other
+     */
+    private final byte[] nameBytes;
+
+    /**
+     * <code>nameOffsets[i]</code> is where the name of lender <code>i</code> starts in <code>nameBytes</code>, it
+     * ends where the name of lender <code>i + 1</code> starts
+     */
+    private final int[] nameOffsets;
+
+    /**
+     * repayment formula factors of the distinct rates, computed once per book
+     */
+    private final AnnuityFactors annuityFactors;
+
+    /**
+     * Constructs a book from arrays already sorted
+     * @param amounts the amount available from each lender
+     * @param rateIds the index in <code>rates</code> of the rate of each lender
+     * @param rates the distinct rates in ascending order
+     * @param nameBytes the UTF-8 names of all the lenders, one after the other
+     * @param nameOffsets where each name starts in <code>nameBytes</code>, followed by the end of the last name
+     */
+    private LenderBook(final int[] amounts, final int[] rateIds, final long[] rates, final byte[] nameBytes, final int[] nameOffsets) {
+        this.size = amounts.length;
+        this.amounts = amounts;
+        this.rateIds = rateIds;
+        this.rates = rates;
+        this.nameBytes = nameBytes;
+        this.nameOffsets = nameOffsets;
+
+        this.rateDecimals = new BigDecimal[rates.length];
+
+        for (int i = 0; i < rates.length; i++) {
+            rateDecimals[i] = LenderColumns.toDecimal(rates[i]);
+        }
+
+        this.annuityFactors = new AnnuityFactors(rateDecimals);
+
+        this.cumulativeAmounts = new long[size];
+
+        long available = 0;
+
+        for (int i = 0; i < size; i++) {
+            available += amounts[i];
+
+            cumulativeAmounts[i] = available;
+        }
+    }
+
+    /**
+     * Creates a sorted book from lenders in file order. Lenders with the same rate and amount keep their file order.
+     * @param columns the lenders, not modified
+     * @return the sorted book
+     */
+    public static LenderBook of(final LenderColumns columns) {
+        final int size = columns.size();
+
+        // distinct rates, ascending
+        long[] rates = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            rates[i] = columns.getRate(i);
+        }
+
+        Arrays.sort(rates);
+
+        int rateCount = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (rateCount == 0 || rates[rateCount - 1] != rates[i]) {
+                rates[rateCount++] = rates[i];
+            }
+        }
+
+        rates = Arrays.copyOf(rates, rateCount);
+
+        // counting sort by rate id keeps the file order within each rate
+        final int[] fileRateIds = new int[size];
+        final int[] rateStarts = new int[rateCount + 1];
+
+        for (int i = 0; i < size; i++) {
+            fileRateIds[i] = Arrays.binarySearch(rates, columns.getRate(i));
+
+            rateStarts[fileRateIds[i] + 1]++;
+        }
+
+        for (int i = 0; i < rateCount; i++) {
+            rateStarts[i + 1] += rateStarts[i];
+        }
+
+        final int[] order = new int[size];
+        final int[] next = Arrays.copyOf(rateStarts, rateCount);
+
+        for (int i = 0; i < size; i++) {
+            order[next[fileRateIds[i]]++] = i;
+        }
+
+        // then by amount descending within each rate, the file position breaking ties
+        final long[] keys = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) Integer.MAX_VALUE - columns.getAmount(order[i])) << 31 | order[i];
+        }
+
+        for (int i = 0; i < rateCount; i++) {
+            Arrays.sort(keys, rateStarts[i], rateStarts[i + 1]);
+        }
+
+        final int[] amounts = new int[size];
+        final int[] rateIds = new int[size];
+        final int[] nameOffsets = new int[size + 1];
+        final byte[] nameBytes = new byte[columns.getNameOffset(size)];
+
+        final byte[] fileNameBytes = columns.getNameBytes();
+
+        for (int i = 0; i < size; i++) {
+            final int fileIndex = (int) (keys[i] & Integer.MAX_VALUE);
+            final int nameStart = columns.getNameOffset(fileIndex);
+            final int nameLength = columns.getNameOffset(fileIndex + 1) - nameStart;
+
+            amounts[i] = columns.getAmount(fileIndex);
+            rateIds[i] = fileRateIds[fileIndex];
+
+            System.arraycopy(fileNameBytes, nameStart, nameBytes, nameOffsets[i], nameLength);
+
+            nameOffsets[i + 1] = nameOffsets[i] + nameLength;
+        }
+
+        return new LenderBook(amounts, rateIds, rates, nameBytes, nameOffsets);
+    }
+
+    /**
+     * Creates a book from columns already sorted and checked, for example by a snapshot
+     * @param amounts the amount available from each lender
+     * @param rateIds the index in <code>rates</code> of the rate of each lender
+     * @param rates the distinct rates in ascending order
+     * @param nameBytes the UTF-8 names of all the lenders, one after the other
+     * @param nameOffsets where each name starts in <code>nameBytes</code>, followed by the end of the last name
+     * @return the book, sharing the arrays
+     */
+    static LenderBook ofSorted(final int[] amounts, final int[] rateIds, final long[] rates, final byte[] nameBytes, final int[] nameOffsets) {
+        return new LenderBook(amounts, rateIds, rates, nameBytes, nameOffsets);
+    }
+
+    /**
+     * Creates a sorted book from lender beans
+     * @param lenders the lenders, not modified
+     * @return the sorted book
+     * @throws IllegalArgumentException thrown if a rate has more than <code>LenderColumns.RATE_SCALE</code> decimal places
+     */
+    public static LenderBook of(final Collection<Lender> lenders) {
+        final LenderColumns columns = new LenderColumns();
+
+        for (final Lender lender : lenders) {
+            columns.add(lender.getName(), LenderColumns.toUnscaled(lender.getRate()), lender.getAmount());
+        }
+
+        return of(columns);
+    }
+
+    /**
+     * Gets the number of lenders in the book
+     * @return the number of lenders
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the amount available from a lender
+     * @param index the index of the lender in rate order
+     * @return the amount available in pounds sterling
+     */
+    public int getAmount(final int index) {
+        return amounts[index];
+    }
+
+    /**
+     * Gets the total amount available from a lender and all the cheaper lenders before it
+     * @param index the index of the lender in rate order
+     * @return the amount available from lenders <code>0..index</code> in pounds sterling
+     */
+    public long getCumulativeAmount(final int index) {
+        return cumulativeAmounts[index];
+    }
+
+    /**
+     * Gets the total amount available from all the lenders
+     * @return the amount available in pounds sterling
+     */
+    public long getTotalAmount() {
+        return size == 0 ? 0 : cumulativeAmounts[size - 1];
+    }
+
+    /**
+     * Gets the id of the rate of a lender, lenders with the same rate share the same id
+     * @param index the index of the lender in rate order
+     * @return an id between <code>0</code> and <code>getRateCount() - 1</code>, ascending with the rate
+     */
+    public int getRateId(final int index) {
+        return rateIds[index];
+    }
+
+    /**
+     * Gets the number of distinct rates in the book
+     * @return the number of distinct rates
+     */
+    public int getRateCount() {
+        return rates.length;
+    }
+
+    /**
+     * Gets a distinct rate of the book
+     * @param rateId the id of the rate
+     * @return the annual interest rate as a decimal without trailing zeroes
+     */
+    public BigDecimal getRateById(final int rateId) {
+        return rateDecimals[rateId];
+    }
+
+    /**
+     * Gets a distinct rate of the book
+     * @param rateId the id of the rate
+     * @return the annual interest rate unscaled with <code>LenderColumns.RATE_SCALE</code> decimal places
+     */
+    long getUnscaledRateById(final int rateId) {
+        return rates[rateId];
+    }
+
+    /**
+     * Gets the repayment formula factors of the distinct rates of the book
+     * @return the factors, shared by every calculator of the book
+     */
+    public AnnuityFactors getAnnuityFactors() {
+        return annuityFactors;
+    }
+
+    /**
+     * Gets the annual interest rate of a lender
+     * @param index the index of the lender in rate order
+     * @return the rate unscaled with <code>LenderColumns.RATE_SCALE</code> decimal places
+     */
+    public long getRate(final int index) {
+        return rates[rateIds[index]];
+    }
+
+    /**
+     * Gets the annual interest rate of a lender as a decimal
+     * @param index the index of the lender in rate order
+     * @return the rate without trailing zeroes
+     */
+    public BigDecimal getRateDecimal(final int index) {
+        return rateDecimals[rateIds[index]];
+    }
+
+    /**
+     * Gets the name of a lender
+     * @param index the index of the lender in rate order
+     * @return the name, decoded on every call
+     */
+    public String getName(final int index) {
+        return new String(nameBytes, nameOffsets[index], nameOffsets[index + 1] - nameOffsets[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the arena holding the names of all the lenders
+     * @return the names, lender <code>i</code> starting at <code>getNameOffset(i)</code>
+     */
+    byte[] getNameBytes() {
+        return nameBytes;
+    }
+
+    /**
+     * Gets where the name of a lender starts in <code>getNameBytes()</code>
+     * @param index the index of the lender in rate order, or <code>size()</code> for the end of the last name
+     * @return the offset of the name
+     */
+    int getNameOffset(final int index) {
+        return nameOffsets[index];
+    }
+
+    /**
+     * Creates a <code>Lender</code> bean for a lender
+     * @param index the index of the lender in rate order
+     * @return a new lender
+     */
+    public Lender getLender(final int index) {
+        return new Lender(getName(index), getRateDecimal(index), amounts[index]);
+    }
+
+    /**
+     * Views the book as a list of lenders, creating a <code>Lender</code> on every access
+     * @return an unmodifiable list in rate order
+     */
+    public List<Lender> asList() {
+        return new AbstractList<Lender>() {
+            @Override
+            public Lender get(final int index) {
+                return getLender(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Estimates the heap retained by the book, array headers included
+     * @return the estimated size in bytes
+     */
+    public long getFootprintBytes() {
+        final long arrayHeader = 16;
+
+        return 5 * arrayHeader
+                + 4L * amounts.length
+                + 4L * rateIds.length
+                + 8L * cumulativeAmounts.length
+                + 4L * nameOffsets.length
+                + nameBytes.length
+                + arrayHeader + (8L + 40) * rates.length
+                + annuityFactors.getFootprintBytes();
+    }
+}
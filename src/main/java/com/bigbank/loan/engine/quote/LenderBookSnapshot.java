@@ -0,0 +1,240 @@
+package com.bigbank.loan.engine.quote;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import com.bigbank.loan.excetpion.InvalidMarketData;
+
+
+/**
+ * Binary snapshot of a <code>LenderBook</code>, already sorted, so a market can be loaded without parsing or sorting.
+ * <p>
+ * Layout, big-endian: the <code>MAGIC</code> and <code>FORMAT_VERSION</code> ints, the creation time as a long, the
+ * lender count, the distinct rate count and the name arena length as ints, then the distinct rates as longs, the
+ * amounts, rate ids and name offsets as ints, the name arena, and a CRC32 of everything before it as an int.
+ */
+public final class LenderBookSnapshot {
+    /**
+     * first bytes of every snapshot, <code>LBKS</code> in ASCII
+     */
+    static final int MAGIC = 0x4C424B53;
+
+    /**
+     * version of the layout written by this class, bumped on any incompatible change
+     */
+    static final int FORMAT_VERSION = 1;
+
+    /**
+     * size in bytes of the header before the columns
+     */
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4 + 4;
+
+    /**
+     * size in bytes of the checksum after the columns
+     */
+    private static final int CHECKSUM_BYTES = 4;
+
+    /**
+     * Utility class
+     */
+    private LenderBookSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of a book. The file is written next to the target and moved in place, so a reader never sees
+     * a partial snapshot.
+     * @param book the book to write
+     * @param target the snapshot file, replaced if it exists
+     * @throws IOException thrown if the file cannot be written
+     */
+    public static void write(final LenderBook book, final Path target) throws IOException {
+        final Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (OutputStream file = Files.newOutputStream(temporary)) {
+            final CRC32 checksum = new CRC32();
+            final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, checksum)));
+
+            final int size = book.size();
+            final byte[] nameBytes = book.getNameBytes();
+
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeLong(System.currentTimeMillis());
+            output.writeInt(size);
+            output.writeInt(book.getRateCount());
+            output.writeInt(nameBytes.length);
+
+            for (int i = 0; i < book.getRateCount(); i++) {
+                output.writeLong(book.getUnscaledRateById(i));
+            }
+
+            for (int i = 0; i < size; i++) {
+                output.writeInt(book.getAmount(i));
+            }
+
+            for (int i = 0; i < size; i++) {
+                output.writeInt(book.getRateId(i));
+            }
+
+            for (int i = 0; i <= size; i++) {
+                output.writeInt(book.getNameOffset(i));
+            }
+
+            output.write(nameBytes);
+            output.flush();
+
+            // the checksum covers everything written so far, it is not part of itself
+            new DataOutputStream(file).writeInt((int) checksum.getValue());
+        }
+
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot by memory-mapping it and copying its columns in bulk
+     * @param source the snapshot file
+     * @return the book, sorted as it was written
+     * @throws IOException thrown if the file cannot be read
+     * @throws InvalidMarketData thrown if the file is not a snapshot of a supported version, is truncated, fails its
+     * checksum or does not hold a sorted book
+     */
+    public static LenderBook read(final Path source) throws IOException {
+        final MappedByteBuffer buffer;
+
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            // the mapping outlives the channel and is released when the buffer is collected
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        return read(buffer, source.toString());
+    }
+
+    /**
+     * Reads a snapshot held in a buffer
+     * @param buffer the snapshot, from its position to its limit
+     * @param source where the snapshot comes from, for error messages
+     * @return the book, sorted as it was written
+     * @throws InvalidMarketData thrown if the buffer is not a snapshot of a supported version, is truncated, fails its
+     * checksum or does not hold a sorted book
+     */
+    static LenderBook read(final ByteBuffer buffer, final String source) {
+        final int length = buffer.remaining();
+
+        if (length < HEADER_BYTES + CHECKSUM_BYTES || buffer.getInt(buffer.position()) != MAGIC) {
+            throw malformed(source, "not a lender book snapshot");
+        }
+
+        final ByteBuffer content = buffer.slice();
+
+        final int formatVersion = content.getInt(4);
+
+        if (formatVersion != FORMAT_VERSION) {
+            throw malformed(source, "format version " + formatVersion + " is not supported, expected " + FORMAT_VERSION);
+        }
+
+        final CRC32 checksum = new CRC32();
+        final ByteBuffer checked = content.duplicate();
+
+        // position and limit are called on Buffer: compiled on JDK 9+ for Java 8, the covariant ByteBuffer overrides
+        // would be linked and not be found on a Java 8 runtime
+        ((Buffer) checked).limit(length - CHECKSUM_BYTES);
+        checksum.update(checked);
+
+        if ((int) checksum.getValue() != content.getInt(length - CHECKSUM_BYTES)) {
+            throw malformed(source, "checksum mismatch");
+        }
+
+        ((Buffer) content).position(16);
+
+        final int size = content.getInt();
+        final int rateCount = content.getInt();
+        final int nameBytesLength = content.getInt();
+
+        final long expectedLength = HEADER_BYTES + 8L * rateCount + 4L * size * 3 + 4 + nameBytesLength + CHECKSUM_BYTES;
+
+        if (size < 0 || rateCount < 0 || nameBytesLength < 0 || expectedLength != length) {
+            throw malformed(source, "section lengths do not match the file length");
+        }
+
+        final long[] rates = new long[rateCount];
+        final int[] amounts = new int[size];
+        final int[] rateIds = new int[size];
+        final int[] nameOffsets = new int[size + 1];
+        final byte[] nameBytes = new byte[nameBytesLength];
+
+        content.asLongBuffer().get(rates);
+        ((Buffer) content).position(content.position() + 8 * rateCount);
+
+        content.asIntBuffer().get(amounts);
+        ((Buffer) content).position(content.position() + 4 * size);
+
+        content.asIntBuffer().get(rateIds);
+        ((Buffer) content).position(content.position() + 4 * size);
+
+        content.asIntBuffer().get(nameOffsets);
+        ((Buffer) content).position(content.position() + 4 * (size + 1));
+
+        content.get(nameBytes);
+
+        checkSorted(source, amounts, rateIds, rates, nameBytes, nameOffsets);
+
+        return LenderBook.ofSorted(amounts, rateIds, rates, nameBytes, nameOffsets);
+    }
+
+    /**
+     * Checks that the columns of a snapshot hold a book sorted the way <code>LenderBook</code> sorts it, so a
+     * snapshot written by another tool cannot break the calculator
+     * @param source where the snapshot comes from, for error messages
+     * @param amounts the amount available from each lender
+     * @param rateIds the index in <code>rates</code> of the rate of each lender
+     * @param rates the distinct rates
+     * @param nameBytes the name arena
+     * @param nameOffsets where each name starts in <code>nameBytes</code>, followed by the end of the last name
+     */
+    private static void checkSorted(final String source, final int[] amounts, final int[] rateIds, final long[] rates,
+                                    final byte[] nameBytes, final int[] nameOffsets) {
+        for (int i = 1; i < rates.length; i++) {
+            if (rates[i - 1] >= rates[i]) {
+                throw malformed(source, "rates are not distinct and ascending");
+            }
+        }
+
+        if (nameOffsets[0] != 0 || nameOffsets[amounts.length] != nameBytes.length) {
+            throw malformed(source, "names do not fill the name arena");
+        }
+
+        for (int i = 0; i < amounts.length; i++) {
+            final int rateId = rateIds[i];
+
+            if (rateId < 0 || rateId >= rates.length || amounts[i] < 0 || nameOffsets[i] > nameOffsets[i + 1]) {
+                throw malformed(source, "lender " + i + " is out of range");
+            }
+
+            if (i > 0 && (rateIds[i - 1] > rateId || rateIds[i - 1] == rateId && amounts[i - 1] < amounts[i])) {
+                throw malformed(source, "lender " + i + " is out of order");
+            }
+        }
+    }
+
+    /**
+     * Creates the exception reporting an unusable snapshot
+     * @param source where the snapshot comes from
+     * @param reason what is wrong with it
+     * @return the exception to throw
+     */
+    private static InvalidMarketData malformed(final String source, final String reason) {
+        return new InvalidMarketData("Malformed market snapshot " + source + ": " + reason);
+    }
+}
@@ -0,0 +1,195 @@
+package com.bigbank.loan.engine.quote;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Lenders of a market file held column by column in primitive arrays, in file order. Names are kept as UTF-8 bytes
+ * in a single arena, so a lender costs no object at all.
+ */
+public final class LenderColumns {
+    /**
+     * number of decimal places of the rates held in <code>rates</code>
+     */
+    public static final int RATE_SCALE = 9;
+
+    /**
+     * initial capacity of the columns, they double when full
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * the UTF-8 names of all the lenders, one after the other
+     */
+    private byte[] nameBytes = new byte[INITIAL_CAPACITY * 8];
+
+    /**
+     * <code>nameOffsets[i]</code> is where the name of lender <code>i</code> starts in <code>nameBytes</code>, it
+     * ends where the name of lender <code>i + 1</code> starts
+     */
+    private int[] nameOffsets = new int[INITIAL_CAPACITY + 1];
+
+    /**
+     * the annual interest rate of each lender as an unscaled value with <code>RATE_SCALE</code> decimal places
+     */
+    private long[] rates = new long[INITIAL_CAPACITY];
+
+    /**
+     * the amount available from each lender in pounds sterling
+     */
+    private int[] amounts = new int[INITIAL_CAPACITY];
+
+    /**
+     * number of lenders held
+     */
+    private int size;
+
+    /**
+     * Appends a lender
+     * @param name the name of the lender
+     * @param rate the annual interest rate as an unscaled value with <code>RATE_SCALE</code> decimal places
+     * @param amount the amount available from the lender in pounds sterling
+     */
+    public void add(final String name, final long rate, final int amount) {
+        final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+
+        add(bytes, bytes.length, rate, amount);
+    }
+
+    /**
+     * Appends a lender whose name is already encoded
+     * @param name buffer holding the UTF-8 name of the lender from index <code>0</code>
+     * @param nameLength number of bytes of the name
+     * @param rate the annual interest rate as an unscaled value with <code>RATE_SCALE</code> decimal places
+     * @param amount the amount available from the lender in pounds sterling
+     */
+    void add(final byte[] name, final int nameLength, final long rate, final int amount) {
+        if (size == rates.length) {
+            final int capacity = size * 2;
+
+            nameOffsets = Arrays.copyOf(nameOffsets, capacity + 1);
+            rates = Arrays.copyOf(rates, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+        }
+
+        final int nameOffset = nameOffsets[size];
+
+        if (nameOffset + nameLength > nameBytes.length) {
+            nameBytes = Arrays.copyOf(nameBytes, Math.max(nameBytes.length * 2, nameOffset + nameLength));
+        }
+
+        System.arraycopy(name, 0, nameBytes, nameOffset, nameLength);
+
+        nameOffsets[size + 1] = nameOffset + nameLength;
+        rates[size] = rate;
+        amounts[size] = amount;
+
+        size++;
+    }
+
+    /**
+     * Gets the number of lenders held
+     * @return the number of lenders held
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the name of a lender
+     * @param index the position of the lender in the file, from <code>0</code>
+     * @return the name of the lender
+     */
+    public String getName(final int index) {
+        return new String(nameBytes, nameOffsets[index], nameOffsets[index + 1] - nameOffsets[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the annual interest rate of a lender
+     * @param index the position of the lender in the file, from <code>0</code>
+     * @return the rate as an unscaled value with <code>RATE_SCALE</code> decimal places
+     */
+    public long getRate(final int index) {
+        return rates[index];
+    }
+
+    /**
+     * Gets the amount available from a lender
+     * @param index the position of the lender in the file, from <code>0</code>
+     * @return the amount available in pounds sterling
+     */
+    public int getAmount(final int index) {
+        return amounts[index];
+    }
+
+    /**
+     * Converts the annual interest rate of a lender back to a decimal
+     * @param index the position of the lender in the file, from <code>0</code>
+     * @return the rate without trailing zeroes
+     */
+    public BigDecimal getRateDecimal(final int index) {
+        return toDecimal(rates[index]);
+    }
+
+    /**
+     * Creates a <code>Lender</code> bean for each lender, in file order
+     * @return a new mutable list of lenders
+     */
+    public List<Lender> toLenders() {
+        final List<Lender> lenders = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            lenders.add(new Lender(getName(i), getRateDecimal(i), amounts[i]));
+        }
+
+        return lenders;
+    }
+
+    /**
+     * Gets the arena holding the names of all the lenders
+     * @return the names, lender <code>i</code> starting at <code>getNameOffset(i)</code>
+     */
+    byte[] getNameBytes() {
+        return nameBytes;
+    }
+
+    /**
+     * Gets where the name of a lender starts in <code>getNameBytes()</code>
+     * @param index the position of the lender in the file, from <code>0</code>, or <code>size()</code> for the end of
+     *              the last name
+     * @return the offset of the name
+     */
+    int getNameOffset(final int index) {
+        return nameOffsets[index];
+    }
+
+    /**
+     * Converts a rate to a decimal
+     * @param rate the rate as an unscaled value with <code>RATE_SCALE</code> decimal places
+     * @return the rate without trailing zeroes
+     */
+    static BigDecimal toDecimal(final long rate) {
+        final BigDecimal decimal = BigDecimal.valueOf(rate, RATE_SCALE).stripTrailingZeros();
+
+        // keeps whole rates such as 1 out of exponent notation
+        return decimal.scale() < 0 ? decimal.setScale(0) : decimal;
+    }
+
+    /**
+     * Converts a decimal rate to the unscaled value held by the columns
+     * @param rate the annual interest rate, with at most <code>RATE_SCALE</code> decimal places
+     * @return the rate as an unscaled value with <code>RATE_SCALE</code> decimal places
+     * @throws IllegalArgumentException thrown if the rate has more decimal places or is too large
+     */
+    public static long toUnscaled(final BigDecimal rate) {
+        try {
+            return rate.setScale(RATE_SCALE).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Rate must have at most " + RATE_SCALE + " decimal places: " + rate, e);
+        }
+    }
+}
@@ -0,0 +1,530 @@
+package com.bigbank.loan.engine.quote;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.bigbank.loan.excetpion.InvalidMarketData;
+
+
+/**
+ * Streams a market CSV file with a <code>Lender,Rate,Available</code> header straight into <code>LenderColumns</code>,
+ * without reflection and without holding the file in memory. Columns are matched by header name in any order, fields
+ * may be quoted, and a malformed record fails the whole file with its line number.
+ */
+public final class LenderCsvReader {
+    /**
+     * header of the lender name column
+     */
+    static final String NAME_HEADER = "Lender";
+
+    /**
+     * header of the annual interest rate column
+     */
+    static final String RATE_HEADER = "Rate";
+
+    /**
+     * header of the available amount column
+     */
+    static final String AMOUNT_HEADER = "Available";
+
+    /**
+     * size of the read buffer in bytes
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * returned by <code>readField</code> when a record ends with the input
+     */
+    private static final int END_OF_INPUT = -1;
+
+    /**
+     * returned by <code>readField</code> when a field is followed by another field of the same record
+     */
+    private static final int END_OF_FIELD = ',';
+
+    /**
+     * returned by <code>readField</code> when a record ends with a line break
+     */
+    private static final int END_OF_RECORD = '\n';
+
+    /**
+     * the UTF-8 byte order mark some editors write at the start of a file
+     */
+    private static final byte[] BYTE_ORDER_MARK = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    /**
+     * the file being read
+     */
+    private final InputStream input;
+
+    /**
+     * bytes read from the file but not parsed yet, between <code>position</code> and <code>limit</code>
+     */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /**
+     * index of the next byte to parse in <code>buffer</code>
+     */
+    private int position;
+
+    /**
+     * number of valid bytes in <code>buffer</code>
+     */
+    private int limit;
+
+    /**
+     * position of the lender name column, from <code>0</code>
+     */
+    private int nameColumn = -1;
+
+    /**
+     * position of the annual interest rate column, from <code>0</code>
+     */
+    private int rateColumn = -1;
+
+    /**
+     * position of the available amount column, from <code>0</code>
+     */
+    private int amountColumn = -1;
+
+    /**
+     * number of columns named by the header
+     */
+    private int columnCount;
+
+    /**
+     * bytes of the field being read, unquoted
+     */
+    private byte[] field = new byte[64];
+
+    /**
+     * number of valid bytes in <code>field</code>
+     */
+    private int fieldLength;
+
+    /**
+     * bytes of the name of the record being read
+     */
+    private byte[] name = new byte[64];
+
+    /**
+     * number of valid bytes in <code>name</code>
+     */
+    private int nameLength;
+
+    /**
+     * line number of the next byte to parse, from <code>1</code>
+     */
+    private int line = 1;
+
+    /**
+     * Constructs a reader over a market file
+     * @param input the market file, read as UTF-8. It is not closed by the reader
+     */
+    public LenderCsvReader(final InputStream input) {
+        this.input = input;
+    }
+
+    /**
+     * Reads all the lenders of a market file
+     * @param input the market file, read as UTF-8. It is not closed by this method
+     * @return the lenders in file order
+     * @throws IOException thrown if the file cannot be read
+     * @throws InvalidMarketData thrown if the header or a record is malformed, with the line number in the message
+     */
+    public static LenderColumns read(final InputStream input) throws IOException {
+        return new LenderCsvReader(input).read();
+    }
+
+    /**
+     * Reads all the lenders of the market file
+     * @return the lenders in file order
+     * @throws IOException thrown if the file cannot be read
+     * @throws InvalidMarketData thrown if the header or a record is malformed, with the line number in the message
+     */
+    public LenderColumns read() throws IOException {
+        skipByteOrderMark();
+
+        int terminator = readHeader();
+
+        final LenderColumns lenders = new LenderColumns();
+
+        while (terminator != END_OF_INPUT) {
+            terminator = readRecord(lenders);
+        }
+
+        return lenders;
+    }
+
+    /**
+     * Reads the header and maps the required columns by name
+     * @return what follows the header, <code>END_OF_RECORD</code> or <code>END_OF_INPUT</code>
+     * @throws IOException thrown if the file cannot be read
+     */
+    private int readHeader() throws IOException {
+        int terminator;
+
+        do {
+            terminator = readField();
+
+            final String header = new String(field, 0, fieldLength, StandardCharsets.UTF_8).trim();
+
+            if (header.equalsIgnoreCase(NAME_HEADER)) {
+                nameColumn = columnCount;
+            } else if (header.equalsIgnoreCase(RATE_HEADER)) {
+                rateColumn = columnCount;
+            } else if (header.equalsIgnoreCase(AMOUNT_HEADER)) {
+                amountColumn = columnCount;
+            }
+
+            columnCount++;
+        } while (terminator == END_OF_FIELD);
+
+        if (nameColumn < 0 || rateColumn < 0 || amountColumn < 0) {
+            throw malformed(1, "header must name the " + NAME_HEADER + ", " + RATE_HEADER + " and " + AMOUNT_HEADER + " columns");
+        }
+
+        return terminator;
+    }
+
+    /**
+     * Reads one record and appends its lender, skipping blank lines
+     * @param lenders the lenders read so far
+     * @return what follows the record, <code>END_OF_RECORD</code> or <code>END_OF_INPUT</code>
+     * @throws IOException thrown if the file cannot be read
+     */
+    private int readRecord(final LenderColumns lenders) throws IOException {
+        final int recordLine = line;
+
+        int terminator = readField();
+
+        // blank lines, including the one after a trailing line break, are not records
+        if (terminator != END_OF_FIELD && fieldLength == 0) {
+            return terminator;
+        }
+
+        long rate = 0;
+        int amount = 0;
+        int column = 0;
+
+        while (true) {
+            if (column == nameColumn) {
+                copyName(recordLine);
+            } else if (column == rateColumn) {
+                rate = parseRate(recordLine);
+            } else if (column == amountColumn) {
+                amount = parseAmount(recordLine);
+            }
+
+            column++;
+
+            if (terminator != END_OF_FIELD) {
+                break;
+            }
+
+            terminator = readField();
+        }
+
+        if (column != columnCount) {
+            throw malformed(recordLine, "expected " + columnCount + " fields but found " + column);
+        }
+
+        lenders.add(name, nameLength, rate, amount);
+
+        return terminator;
+    }
+
+    /**
+     * Reads the next field into <code>field</code>, removing the quotes around it if any
+     * @return <code>END_OF_FIELD</code>, <code>END_OF_RECORD</code> or <code>END_OF_INPUT</code> depending on what
+     * follows the field
+     * @throws IOException thrown if the file cannot be read
+     */
+    private int readField() throws IOException {
+        fieldLength = 0;
+
+        int next = readByte();
+
+        if (next == '"') {
+            final int fieldLine = line;
+
+            while (true) {
+                next = readByte();
+
+                if (next == END_OF_INPUT) {
+                    throw malformed(fieldLine, "unterminated quoted field");
+                } else if (next == '"') {
+                    next = readByte();
+
+                    // a doubled quote is an escaped quote, anything else closes the field
+                    if (next != '"') {
+                        break;
+                    }
+                } else if (next == '\n') {
+                    line++;
+                }
+
+                append(next);
+            }
+        } else if (next != END_OF_INPUT) {
+            // scan the buffer for the end of the field and copy it in one go, a field may span two buffers
+            position--;
+
+            while (true) {
+                int end = position;
+
+                while (end < limit && !isDelimiter(buffer[end])) {
+                    end++;
+                }
+
+                append(buffer, position, end - position);
+
+                position = end;
+
+                if (position < limit) {
+                    next = buffer[position++];
+                    break;
+                } else if (!fill()) {
+                    next = END_OF_INPUT;
+                    break;
+                }
+            }
+        }
+
+        switch (next) {
+            case END_OF_INPUT:
+                return END_OF_INPUT;
+            case ',':
+                return END_OF_FIELD;
+            case '\r':
+                // a CRLF line break counts once
+                if ((position < limit || fill()) && buffer[position] == '\n') {
+                    position++;
+                }
+                line++;
+                return END_OF_RECORD;
+            case '\n':
+                line++;
+                return END_OF_RECORD;
+            default:
+                throw malformed(line, "unexpected character after a quoted field");
+        }
+    }
+
+    /**
+     * Copies the lender name held in <code>field</code> to <code>name</code>, as later fields of the record reuse
+     * <code>field</code>
+     * @param recordLine the line number of the record, for error messages
+     */
+    private void copyName(final int recordLine) {
+        if (fieldLength == 0) {
+            throw malformed(recordLine, NAME_HEADER + " is empty");
+        }
+
+        if (fieldLength > name.length) {
+            name = new byte[field.length];
+        }
+
+        System.arraycopy(field, 0, name, 0, fieldLength);
+
+        nameLength = fieldLength;
+    }
+
+    /**
+     * Parses the non-negative decimal rate held in <code>field</code>, surrounding spaces allowed
+     * @param recordLine the line number of the record, for error messages
+     * @return the rate as an unscaled value with <code>LenderColumns.RATE_SCALE</code> decimal places
+     */
+    private long parseRate(final int recordLine) {
+        int start = 0;
+        int end = fieldLength;
+
+        while (start < end && field[start] == ' ') {
+            start++;
+        }
+
+        while (end > start && field[end - 1] == ' ') {
+            end--;
+        }
+
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+
+        try {
+            for (int i = start; i < end; i++) {
+                final byte c = field[i];
+
+                if (c == '.' && scale < 0) {
+                    scale = 0;
+                } else if (c >= '0' && c <= '9') {
+                    unscaled = Math.addExact(Math.multiplyExact(unscaled, 10), c - '0');
+                    digits++;
+
+                    if (scale >= 0 && ++scale > LenderColumns.RATE_SCALE) {
+                        throw malformed(recordLine, RATE_HEADER + " has more than " + LenderColumns.RATE_SCALE + " decimal places: " + text(start, end));
+                    }
+                } else {
+                    throw malformed(recordLine, RATE_HEADER + " is not a non-negative decimal: " + text(start, end));
+                }
+            }
+
+            if (digits == 0) {
+                throw malformed(recordLine, RATE_HEADER + " is not a non-negative decimal: " + text(start, end));
+            }
+
+            for (int i = Math.max(scale, 0); i < LenderColumns.RATE_SCALE; i++) {
+                unscaled = Math.multiplyExact(unscaled, 10);
+            }
+        } catch (ArithmeticException e) {
+            throw malformed(recordLine, RATE_HEADER + " is out of range: " + text(start, end));
+        }
+
+        return unscaled;
+    }
+
+    /**
+     * Parses the non-negative integer amount held in <code>field</code>, surrounding spaces allowed
+     * @param recordLine the line number of the record, for error messages
+     * @return the amount in pounds sterling
+     */
+    private int parseAmount(final int recordLine) {
+        int start = 0;
+        int end = fieldLength;
+
+        while (start < end && field[start] == ' ') {
+            start++;
+        }
+
+        while (end > start && field[end - 1] == ' ') {
+            end--;
+        }
+
+        if (start == end) {
+            throw malformed(recordLine, AMOUNT_HEADER + " is empty");
+        }
+
+        int amount = 0;
+
+        try {
+            for (int i = start; i < end; i++) {
+                final byte c = field[i];
+
+                if (c < '0' || c > '9') {
+                    throw malformed(recordLine, AMOUNT_HEADER + " is not a non-negative integer: " + text(start, end));
+                }
+
+                amount = Math.addExact(Math.multiplyExact(amount, 10), c - '0');
+            }
+        } catch (ArithmeticException e) {
+            throw malformed(recordLine, AMOUNT_HEADER + " is out of range: " + text(start, end));
+        }
+
+        return amount;
+    }
+
+    /**
+     * Appends a byte to <code>field</code>, growing it when full
+     * @param b the byte to append
+     */
+    private void append(final int b) {
+        if (fieldLength == field.length) {
+            field = Arrays.copyOf(field, fieldLength * 2);
+        }
+
+        field[fieldLength++] = (byte) b;
+    }
+
+    /**
+     * Appends bytes to <code>field</code>, growing it when needed
+     * @param bytes the buffer holding the bytes
+     * @param offset index of the first byte to append
+     * @param length number of bytes to append
+     */
+    private void append(final byte[] bytes, final int offset, final int length) {
+        if (fieldLength + length > field.length) {
+            field = Arrays.copyOf(field, Math.max(field.length * 2, fieldLength + length));
+        }
+
+        System.arraycopy(bytes, offset, field, fieldLength, length);
+
+        fieldLength += length;
+    }
+
+    /**
+     * Tells whether a byte ends an unquoted field
+     * @param b the byte
+     * @return <code>true</code> for a comma or a line break
+     */
+    private static boolean isDelimiter(final byte b) {
+        return b == ',' || b == '\n' || b == '\r';
+    }
+
+    /**
+     * Reads the next byte of the file
+     * @return the byte, or <code>END_OF_INPUT</code> at the end of the file
+     * @throws IOException thrown if the file cannot be read
+     */
+    private int readByte() throws IOException {
+        if (position == limit && !fill()) {
+            return END_OF_INPUT;
+        }
+
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * Refills the buffer from the file
+     * @return <code>false</code> if the end of the file was reached
+     * @throws IOException thrown if the file cannot be read
+     */
+    private boolean fill() throws IOException {
+        int read;
+
+        do {
+            read = input.read(buffer, 0, buffer.length);
+        } while (read == 0);
+
+        position = 0;
+        limit = Math.max(read, 0);
+
+        return read > 0;
+    }
+
+    /**
+     * Skips the UTF-8 byte order mark at the start of the file, if any
+     * @throws IOException thrown if the file cannot be read
+     */
+    private void skipByteOrderMark() throws IOException {
+        // the buffer is filled from the start, a short first read only matters for files shorter than the mark
+        if (!fill() || limit < BYTE_ORDER_MARK.length) {
+            return;
+        }
+
+        if (buffer[0] == BYTE_ORDER_MARK[0] && buffer[1] == BYTE_ORDER_MARK[1] && buffer[2] == BYTE_ORDER_MARK[2]) {
+            position = BYTE_ORDER_MARK.length;
+        }
+    }
+
+    /**
+     * Decodes part of <code>field</code> for an error message
+     * @param start index of the first byte
+     * @param end index after the last byte
+     * @return the decoded text
+     */
+    private String text(final int start, final int end) {
+        return "'" + new String(field, start, end - start, StandardCharsets.UTF_8) + "'";
+    }
+
+    /**
+     * Creates the exception reporting a malformed market file
+     * @param recordLine the line number of the malformed record
+     * @param reason what is wrong with the record
+     * @return the exception to throw
+     */
+    private static InvalidMarketData malformed(final int recordLine, final String reason) {
+        return new InvalidMarketData("Malformed market data at line " + recordLine + ": " + reason);
+    }
+}
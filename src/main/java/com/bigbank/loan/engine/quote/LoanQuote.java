@@ -12,6 +12,11 @@ public final class LoanQuote {
      */
     private final int loanAmount;
 
+    /**
+     * the number of monthly repayments
+     */
+    private final int repaymentMonths;
+
     /**
      * the annual interest rate for the loan as a percentage
      */
@@ -39,7 +44,20 @@ public final class LoanQuote {
      *                         overpaid or underpaid through monthly repayments
      */
     public LoanQuote(final int loanAmount, final BigDecimal rate, final BigDecimal monthlyRepayment, final BigDecimal totalRepayment) {
+        this(loanAmount, LoanQuoteCalculator.REPAYMENT_MONTHS, rate, monthlyRepayment, totalRepayment);
+    }
+
+    /**
+     * Constructs a <code>LoanQuote</code> for a loan repaid over the specified number of months
+     * @param loanAmount       the initial amount of loan in pounds sterling
+     * @param repaymentMonths  the number of monthly repayments
+     * @param rate             the annual interest rate for the loan as a percentage
+     * @param monthlyRepayment the amount to repay (capital and interest) each month in pounds sterling
+     * @param totalRepayment   the total amount to repay
+     */
+    public LoanQuote(final int loanAmount, final int repaymentMonths, final BigDecimal rate, final BigDecimal monthlyRepayment, final BigDecimal totalRepayment) {
         this.loanAmount = loanAmount;
+        this.repaymentMonths = repaymentMonths;
         this.rate = rate;
         this.monthlyRepayment = monthlyRepayment;
         this.totalRepayment = totalRepayment;
@@ -54,6 +72,15 @@ public final class LoanQuote {
         return loanAmount;
     }
 
+    /**
+     * Gets the number of monthly repayments
+     *
+     * @return the number of monthly repayments
+     */
+    public int getRepaymentMonths() {
+        return repaymentMonths;
+    }
+
     /**
      * Gets the annual interest rate for the loan as a percentage
      *
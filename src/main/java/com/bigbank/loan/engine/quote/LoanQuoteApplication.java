@@ -1,11 +1,21 @@
 package com.bigbank.loan.engine.quote;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
+import com.bigbank.loan.engine.NumericEngine;
 import com.bigbank.loan.excetpion.InsufficientLendersException;
-import com.opencsv.bean.CsvToBeanBuilder;
 
 
 /**
@@ -16,17 +26,37 @@ public final class LoanQuoteApplication {
     /**
      * Minimum loan amount in pounds sterling that is allowed to be requested by the user
      */
-    final static int MIN_LOAN_AMOUNT = 1000;
+    public final static int MIN_LOAN_AMOUNT = 1000;
 
     /**
      * Maximum loan amount in pounds sterling that is allowed to be requested by the user
      */
-    final static int MAX_LOAN_AMOUNT = 15000;
+    public final static int MAX_LOAN_AMOUNT = 15000;
 
     /**
      * Loan amount increments that the user is allowed to request in
      */
-    final static int LOAN_AMOUNT_INCREMENT = 100;
+    public final static int LOAN_AMOUNT_INCREMENT = 100;
+
+    /**
+     * First argument that switches the application to compiling a market file into a <code>LenderBookSnapshot</code>
+     */
+    final static String COMPILE_OPTION = "--compile";
+
+    /**
+     * First argument that switches the application to quoting every request of a file or of the standard input
+     */
+    final static String BATCH_OPTION = "--batch";
+
+    /**
+     * Batch argument that writes JSON lines instead of CSV
+     */
+    final static String JSON_OPTION = "--json";
+
+    /**
+     * Requests file argument that reads the requests from the standard input
+     */
+    final static String STANDARD_INPUT = "-";
 
     /**
      * Entry point for the application
@@ -36,6 +66,25 @@ public final class LoanQuoteApplication {
      *             <code>MAX_LOAN_AMOUNT</code> inclusive and in increments of <code>LOAN_AMOUNT_INCREMENT</code>.
      */
     public static void main(final String[] args) {
+        // compile mode turns a market file into a binary snapshot instead of quoting
+        if (args.length > 0 && COMPILE_OPTION.equals(args[0])) {
+            // a build running the compilation must fail when it does
+            if (!compile(args)) {
+                System.exit(1);
+            }
+
+            return;
+        }
+
+        // batch mode streams a quote per request line instead of quoting a single amount
+        if (args.length > 0 && BATCH_OPTION.equals(args[0])) {
+            if (!batch(args)) {
+                System.exit(1);
+            }
+
+            return;
+        }
+
         // validate number of arguments
         if (args.length != 2) {
             printError("Invalid number of arguments: " + args.length + ". Expected: 2");
@@ -81,29 +130,95 @@ public final class LoanQuoteApplication {
      */
     static LoanQuoteCalculator createLoanQuoteCalculator(final String marketFilePath) throws LoanQuoteParameterValidationException {
         // first argument is market.csv, ensure that it is a file
-        final FileReader marketFileReader;
+        final FileInputStream marketFileStream;
 
         try {
-            marketFileReader = new FileReader(marketFilePath);
+            marketFileStream = new FileInputStream(marketFilePath);
         } catch (FileNotFoundException e) {
             throw new LoanQuoteParameterValidationException("Invalid market file: " + marketFilePath);
         }
 
         // parse the market.csv
-        final List<Lender> lenders;
+        final LenderColumns lenders;
 
-        try {
-            //noinspection unchecked
-            lenders = new CsvToBeanBuilder(marketFileReader)
-                    .withType(Lender.class)
-                    .withThrowExceptions(true)
-                    .build()
-                    .parse();
-        } catch (RuntimeException e) {
+        try (InputStream input = new BufferedInputStream(marketFileStream)) {
+            lenders = LenderCsvReader.read(input);
+        } catch (IOException | RuntimeException e) {
             throw new LoanQuoteParameterValidationException("Unable to parse invalid market file: " + e.getMessage(), e);
         }
 
-        return new LoanQuoteCalculator(lenders);
+        return new LoanQuoteCalculator(LenderBook.of(lenders), NumericEngine.BIG_DECIMAL, marketFilePath);
+    }
+
+    /**
+     * Compiles a market CSV file into a binary snapshot, sorted the way the calculator uses it
+     * @param args array of strings of length 3: <code>COMPILE_OPTION</code>, the file path to the input CSV file
+     *             and the file path of the snapshot to write
+     * @return <code>true</code> if the snapshot was written
+     */
+    private static boolean compile(final String[] args) {
+        if (args.length != 3) {
+            printError("Invalid number of arguments: " + args.length + ". Expected: 3");
+
+            return false;
+        }
+
+        try {
+            final LenderBook book = createLoanQuoteCalculator(args[1]).getBook();
+
+            LenderBookSnapshot.write(book, Paths.get(args[2]));
+
+            print("Compiled " + book.size() + " lenders into " + args[2]);
+
+            return true;
+        } catch (LoanQuoteParameterValidationException e) {
+            printError(e.getMessage());
+        } catch (IOException e) {
+            printError("Unable to write market snapshot: " + e.getMessage());
+        }
+
+        return false;
+    }
+
+    /**
+     * Quotes every request of a file or of the standard input, writing the results to the standard output and a
+     * summary of the batch to the standard error
+     * @param args array of strings: <code>BATCH_OPTION</code>, optionally <code>JSON_OPTION</code>, the file path of
+     *             the requests or <code>STANDARD_INPUT</code>, and optionally the market file of the requests that only
+     *             give an amount
+     * @return <code>true</code> if every request was read and its result written, whether it could be quoted or not
+     */
+    private static boolean batch(final String[] args) {
+        final boolean json = args.length > 1 && JSON_OPTION.equals(args[1]);
+        final int first = json ? 2 : 1;
+
+        if (args.length != first + 1 && args.length != first + 2) {
+            printError("Invalid number of arguments: " + args.length + ". Expected: " + (first + 1) + " or " + (first + 2));
+
+            return false;
+        }
+
+        final String requestsFile = args[first];
+        final String defaultMarketFile = args.length == first + 2 ? args[first + 1] : null;
+
+        try (BufferedReader input = STANDARD_INPUT.equals(requestsFile)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(requestsFile), StandardCharsets.UTF_8)) {
+
+            // the output is flushed by the batch whenever it waits for quotes, not on every line
+            final Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+
+            final LoanQuoteBatch.Summary summary = new LoanQuoteBatch(defaultMarketFile, json).run(input, output);
+
+            // the summary goes to the standard error so that the standard output only holds the results
+            System.err.println(summary);
+
+            return true;
+        } catch (IOException e) {
+            printError("Unable to read requests: " + e.getMessage());
+        }
+
+        return false;
     }
 
     /**
@@ -168,6 +283,8 @@ public final class LoanQuoteApplication {
      */
     private static void printUsage() {
         print("Usage: java -jar [loan_quote_jar_file] [market_file] [loan_amount]");
+        print("       java -jar [loan_quote_jar_file] " + COMPILE_OPTION + " [market_file] [snapshot_file]");
+        print("       java -jar [loan_quote_jar_file] " + BATCH_OPTION + " [" + JSON_OPTION + "] [requests_file|" + STANDARD_INPUT + "] [market_file]");
     }
 
     /**
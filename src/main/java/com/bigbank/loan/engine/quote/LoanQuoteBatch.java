@@ -0,0 +1,495 @@
+package com.bigbank.loan.engine.quote;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.bigbank.loan.excetpion.InsufficientLendersException;
+
+
+/**
+ * Quotes a stream of requests read one per line, either a loan amount quoted against the default market file or a
+ * <code>market_file,loan_amount</code> pair, and writes one CSV or JSON line per request in the order they were read.
+ * <p>
+ * Every market file is loaded once, into a <code>LoanQuoteTable</code>. Requests are quoted in chunks on a pool of one
+ * thread per core, with a bounded number of chunks in flight, so that memory does not grow with the input.
+ */
+public final class LoanQuoteBatch {
+    /**
+     * Column names of the CSV output
+     */
+    static final String CSV_HEADER = "line,market,amount,rate,monthly_repayment,total_repayment,error";
+
+    /**
+     * Number of requests quoted by a single task, large enough to make the hand-off cost negligible
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    /**
+     * Number of chunks in flight per thread, quoted or waiting to be written
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * the market file of the requests that only give an amount, <code>null</code> if every request names its market
+     */
+    private final String defaultMarketFile;
+
+    /**
+     * <code>true</code> to write JSON lines, <code>false</code> to write CSV
+     */
+    private final boolean json;
+
+    /**
+     * the number of threads quoting the requests
+     */
+    private final int threads;
+
+    /**
+     * quote tables by market file, or the error message of a market file that cannot be loaded
+     */
+    private final Map<String, Object> markets = new HashMap<>();
+
+    /**
+     * Constructs a batch quoting on one thread per available core
+     * @param defaultMarketFile the market file of the requests that only give an amount, or <code>null</code>
+     * @param json <code>true</code> to write JSON lines, <code>false</code> to write CSV
+     */
+    public LoanQuoteBatch(final String defaultMarketFile, final boolean json) {
+        this(defaultMarketFile, json, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a batch
+     * @param defaultMarketFile the market file of the requests that only give an amount, or <code>null</code>
+     * @param json <code>true</code> to write JSON lines, <code>false</code> to write CSV
+     * @param threads the number of threads quoting the requests
+     */
+    public LoanQuoteBatch(final String defaultMarketFile, final boolean json, final int threads) {
+        this.defaultMarketFile = defaultMarketFile;
+        this.json = json;
+        this.threads = threads;
+    }
+
+    /**
+     * Quotes every request of the input, writing each result as soon as the ones before it are written
+     * @param input the requests, one per line. Blank lines and lines starting with <code>#</code> are skipped.
+     * @param output where the CSV or JSON lines are written
+     * @return the counts, throughput and latencies of the batch
+     * @throws IOException thrown if the input cannot be read or the output cannot be written
+     */
+    public Summary run(final BufferedReader input, final Writer output) throws IOException {
+        final long start = System.nanoTime();
+        final Summary summary = new Summary();
+
+        final AtomicInteger threadCount = new AtomicInteger();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "loan-quote-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        final Deque<CompletableFuture<Chunk>> pending = new ArrayDeque<>(threads * CHUNKS_PER_THREAD);
+
+        try {
+            if (!json) {
+                output.write(CSV_HEADER);
+                output.write('\n');
+            }
+
+            List<Request> requests = new ArrayList<>(CHUNK_SIZE);
+            int lineNumber = 0;
+
+            for (String line = input.readLine(); line != null; line = input.readLine()) {
+                lineNumber++;
+
+                final String trimmed = line.trim();
+
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+
+                requests.add(parse(lineNumber, trimmed));
+
+                if (requests.size() == CHUNK_SIZE) {
+                    submit(requests, executor, pending, output, summary);
+
+                    requests = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+
+            if (!requests.isEmpty()) {
+                submit(requests, executor, pending, output, summary);
+            }
+
+            while (!pending.isEmpty()) {
+                write(pending.removeFirst(), output, summary);
+            }
+
+            output.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        summary.elapsedNanos = System.nanoTime() - start;
+
+        return summary;
+    }
+
+    /**
+     * Hands a chunk of requests to the pool, first writing the oldest chunk if the window is full
+     */
+    private void submit(final List<Request> requests, final ExecutorService executor, final Deque<CompletableFuture<Chunk>> pending,
+                        final Writer output, final Summary summary) throws IOException {
+        if (pending.size() == threads * CHUNKS_PER_THREAD) {
+            write(pending.removeFirst(), output, summary);
+        }
+
+        pending.addLast(CompletableFuture.supplyAsync(() -> quote(requests), executor));
+    }
+
+    /**
+     * Writes the lines of a chunk and records its latencies
+     */
+    private static void write(final CompletableFuture<Chunk> future, final Writer output, final Summary summary) throws IOException {
+        // send what is ready before waiting for the next chunk
+        if (!future.isDone()) {
+            output.flush();
+        }
+
+        final Chunk chunk = future.join();
+
+        output.write(chunk.lines.toString());
+
+        for (final long latency : chunk.latencies) {
+            summary.latencies.record(latency);
+        }
+
+        summary.requests += chunk.latencies.length;
+        summary.failures += chunk.failures;
+    }
+
+    /**
+     * Splits a request line into its market and amount, loading the market the first time it is seen
+     */
+    private Request parse(final int lineNumber, final String line) {
+        final int comma = line.lastIndexOf(',');
+
+        final String marketFile = comma < 0 ? defaultMarketFile : line.substring(0, comma).trim();
+        final String amount = comma < 0 ? line : line.substring(comma + 1).trim();
+
+        if (marketFile == null) {
+            return new Request(lineNumber, "", amount, "Missing market file, expected: market_file,loan_amount");
+        }
+
+        // the reading thread is the only one touching the markets, each is loaded once
+        final Object market = markets.computeIfAbsent(marketFile, LoanQuoteBatch::load);
+
+        return new Request(lineNumber, marketFile, amount, market);
+    }
+
+    /**
+     * Loads a market file into the table of its quotes
+     * @return the table, or the error message if the market file is invalid
+     */
+    private static Object load(final String marketFile) {
+        try {
+            return new LoanQuoteTable(LoanQuoteApplication.createLoanQuoteCalculator(marketFile));
+        } catch (LoanQuoteParameterValidationException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Quotes and renders a chunk of requests, timing each of them
+     */
+    private Chunk quote(final List<Request> requests) {
+        final Chunk chunk = new Chunk(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            final long start = System.nanoTime();
+            final Request request = requests.get(i);
+
+            String error = null;
+            LoanQuote quote = null;
+
+            if (request.market instanceof String) {
+                error = (String) request.market;
+            } else {
+                try {
+                    quote = ((LoanQuoteTable) request.market).getQuote(LoanQuoteApplication.getLoanAmount(request.amount));
+                } catch (LoanQuoteParameterValidationException e) {
+                    error = e.getMessage();
+                } catch (InsufficientLendersException e) {
+                    error = "Insufficient offers from lenders to satisfy the loan. Try a smaller loan amount.";
+                }
+            }
+
+            if (json) {
+                appendJson(chunk.lines, request, quote, error);
+            } else {
+                appendCsv(chunk.lines, request, quote, error);
+            }
+
+            if (error != null) {
+                chunk.failures++;
+            }
+
+            chunk.latencies[i] = System.nanoTime() - start;
+        }
+
+        return chunk;
+    }
+
+    /**
+     * Appends a CSV line, with the rate and repayments of the quote or the error
+     */
+    private static void appendCsv(final StringBuilder lines, final Request request, final LoanQuote quote, final String error) {
+        lines.append(request.lineNumber).append(',');
+        appendCsvField(lines, request.marketFile).append(',');
+        appendCsvField(lines, request.amount).append(',');
+
+        if (quote != null) {
+            lines.append(quote.getRate().toPlainString()).append(',')
+                    .append(quote.getMonthlyRepayment().toPlainString()).append(',')
+                    .append(quote.getTotalRepayment().toPlainString()).append(',');
+        } else {
+            lines.append(",,,");
+            appendCsvField(lines, error);
+        }
+
+        lines.append('\n');
+    }
+
+    /**
+     * Appends a value, quoted if it holds a separator, a quote or a line break
+     */
+    private static StringBuilder appendCsvField(final StringBuilder lines, final String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return lines.append(value);
+        }
+
+        return lines.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    /**
+     * Appends a JSON line, amounts being strings as in the proposals of the service
+     */
+    private static void appendJson(final StringBuilder lines, final Request request, final LoanQuote quote, final String error) {
+        lines.append("{\"line\":").append(request.lineNumber);
+
+        appendJsonField(lines, "market", request.marketFile);
+        appendJsonField(lines, "amount", request.amount);
+
+        if (quote != null) {
+            appendJsonField(lines, "rate", quote.getRate().toPlainString());
+            appendJsonField(lines, "monthlyRepayment", quote.getMonthlyRepayment().toPlainString());
+            appendJsonField(lines, "totalRepayment", quote.getTotalRepayment().toPlainString());
+        } else {
+            appendJsonField(lines, "error", error);
+        }
+
+        lines.append("}\n");
+    }
+
+    /**
+     * Appends a string field, escaping its value
+     */
+    private static void appendJsonField(final StringBuilder lines, final String name, final String value) {
+        lines.append(",\"").append(name).append("\":\"");
+
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                lines.append('\\').append(c);
+            } else if (c < 0x20) {
+                lines.append(String.format("\\u%04x", (int) c));
+            } else {
+                lines.append(c);
+            }
+        }
+
+        lines.append('"');
+    }
+
+    /**
+     * A request line, with its market resolved to a quote table or an error message
+     */
+    private static final class Request {
+        private final int lineNumber;
+
+        private final String marketFile;
+
+        private final String amount;
+
+        private final Object market;
+
+        private Request(final int lineNumber, final String marketFile, final String amount, final Object market) {
+            this.lineNumber = lineNumber;
+            this.marketFile = marketFile;
+            this.amount = amount;
+            this.market = market;
+        }
+    }
+
+    /**
+     * The rendered lines of a chunk of requests and the time taken by each of them
+     */
+    private static final class Chunk {
+        private final StringBuilder lines = new StringBuilder();
+
+        private final long[] latencies;
+
+        private int failures;
+
+        private Chunk(final int size) {
+            this.latencies = new long[size];
+        }
+    }
+
+    /**
+     * Counts, throughput and latency percentiles of a batch
+     */
+    public static final class Summary {
+        private final LatencyHistogram latencies = new LatencyHistogram();
+
+        private long requests;
+
+        private long failures;
+
+        private long elapsedNanos;
+
+        /**
+         * Gets the number of requests read
+         * @return the number of request lines, quoted or not
+         */
+        public long getRequests() {
+            return requests;
+        }
+
+        /**
+         * Gets the number of requests that could not be quoted
+         * @return the number of lines written with an error
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * Gets the wall clock time of the batch
+         * @return the time from the first line read to the last line written in nanoseconds
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Gets the number of requests handled per second of wall clock time
+         * @return the throughput of the batch
+         */
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : requests * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+
+        /**
+         * Gets a percentile of the time taken to validate, quote and render a request
+         * @param percentile the percentile, between <code>0</code> and <code>100</code>
+         * @return an upper bound of the percentile in nanoseconds, within 12.5%
+         */
+        public long getLatencyNanos(final double percentile) {
+            return latencies.getValueAt(percentile);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Quoted %d requests (%d failed) in %.3f s: %.0f requests/s, latency p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us",
+                    requests, failures, elapsedNanos / 1e9, getThroughput(),
+                    getLatencyNanos(50) / 1e3, getLatencyNanos(99) / 1e3, getLatencyNanos(99.9) / 1e3, getLatencyNanos(100) / 1e3);
+        }
+    }
+
+    /**
+     * Counts of latencies in buckets whose width grows with their value, eight buckets per power of two, so that
+     * percentiles are known within 12.5% in constant memory however many values are recorded
+     */
+    static final class LatencyHistogram {
+        /**
+         * Values below this one each have their own bucket
+         */
+        private static final int LINEAR_BUCKETS = 16;
+
+        /**
+         * Buckets per power of two above <code>LINEAR_BUCKETS</code>, as a number of bits
+         */
+        private static final int SUB_BUCKET_BITS = 3;
+
+        private final long[] counts = new long[LINEAR_BUCKETS + (63 - 4) * (1 << SUB_BUCKET_BITS)];
+
+        private long total;
+
+        /**
+         * Counts a value
+         * @param value a non negative value
+         */
+        void record(final long value) {
+            counts[indexOf(Math.max(0, value))]++;
+            total++;
+        }
+
+        /**
+         * Gets the value below which the specified percentage of values fall
+         * @param percentile the percentile, between <code>0</code> and <code>100</code>
+         * @return the highest value of the bucket holding the percentile, <code>0</code> if nothing was recorded
+         */
+        long getValueAt(final double percentile) {
+            final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+
+            long seen = 0;
+
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+
+                if (seen >= rank) {
+                    return highestValueOf(i);
+                }
+            }
+
+            return 0;
+        }
+
+        private static int indexOf(final long value) {
+            if (value < LINEAR_BUCKETS) {
+                return (int) value;
+            }
+
+            final int exponent = 63 - Long.numberOfLeadingZeros(value);
+            final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & ((1 << SUB_BUCKET_BITS) - 1);
+
+            return LINEAR_BUCKETS + ((exponent - 4) << SUB_BUCKET_BITS) + subBucket;
+        }
+
+        private static long highestValueOf(final int index) {
+            if (index < LINEAR_BUCKETS) {
+                return index;
+            }
+
+            final int exponent = ((index - LINEAR_BUCKETS) >> SUB_BUCKET_BITS) + 4;
+            final int subBucket = (index - LINEAR_BUCKETS) & ((1 << SUB_BUCKET_BITS) - 1);
+
+            return (((long) (1 << SUB_BUCKET_BITS) + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+    }
+}
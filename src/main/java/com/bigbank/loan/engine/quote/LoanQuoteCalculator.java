@@ -5,12 +5,14 @@ import static java.math.BigDecimal.ROUND_UP;
 
 import java.math.BigDecimal;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import com.bigbank.loan.engine.AmortizedLoan;
+import com.bigbank.loan.engine.FixedPointAmortizedLoan;
+import com.bigbank.loan.engine.NumericEngine;
 import com.bigbank.loan.excetpion.InsufficientLendersException;
+import com.bigbank.loan.jfr.LenderAllocationEvent;
+import com.bigbank.loan.jfr.RateSolverEvent;
 
 
 /**
@@ -18,38 +20,112 @@ import com.bigbank.loan.excetpion.InsufficientLendersException;
  */
 public class LoanQuoteCalculator {
     /**
-     * Total number of repayment months over the entire loan
+     * Total number of repayment months over the entire loan, when the borrower does not ask for other terms
      */
-    private static final int REPAYMENT_MONTHS = 36;
+    public static final int REPAYMENT_MONTHS = 36;
 
     /**
-     * the lenders available for loans
+     * the lenders available for loans, sorted by rate
      */
-    private final List<Lender> lenders;
+    private final LenderBook book;
 
     /**
-     * Constructs a calculator with the specified lenders
+     * the arithmetic used to compute monthly repayments
+     */
+    private final NumericEngine numericEngine;
+
+    /**
+     * repayment formula factors of each distinct rate of the book per term, held by the book
+     */
+    private final AnnuityFactors annuityFactors;
+
+    /**
+     * the market of the lenders, only used to label Flight Recorder events
+     */
+    private final String market;
+
+    /**
+     * Constructs a calculator with the specified lenders, using <code>BigDecimal</code> arithmetic
      *
-     * @param lenders list of lenders. Note that this will be mutated: it will be sorted by rate in ascending order,
-     *                then by amount in descending order
+     * @param lenders list of lenders, not modified
      */
     public LoanQuoteCalculator(final List<Lender> lenders) {
-        // sort lender based on cheapest rate and the largest amount
-        this.lenders = lenders;
+        this(LenderBook.of(lenders), NumericEngine.BIG_DECIMAL);
+    }
+
+    /**
+     * Constructs a calculator with the specified lenders
+     *
+     * @param lenders list of lenders, not modified
+     * @param numericEngine the arithmetic used to compute monthly repayments
+     */
+    public LoanQuoteCalculator(final List<Lender> lenders, final NumericEngine numericEngine) {
+        this(LenderBook.of(lenders), numericEngine);
+    }
+
+    /**
+     * Constructs a calculator over a lender book
+     *
+     * @param book the lenders, already sorted by rate in ascending order, then by amount in descending order
+     * @param numericEngine the arithmetic used to compute monthly repayments
+     */
+    public LoanQuoteCalculator(final LenderBook book, final NumericEngine numericEngine) {
+        this(book, numericEngine, "");
+    }
 
-        this.lenders.sort((lender1, lender2) -> {
-            final int rateComparison = lender1.getRate().compareTo(lender2.getRate());
+    /**
+     * Constructs a calculator over the lender book of a market
+     *
+     * @param book the lenders, already sorted by rate in ascending order, then by amount in descending order
+     * @param numericEngine the arithmetic used to compute monthly repayments
+     * @param market the market of the lenders, which labels the Flight Recorder events of the calculator
+     */
+    public LoanQuoteCalculator(final LenderBook book, final NumericEngine numericEngine, final String market) {
+        this.book = book;
+        this.numericEngine = numericEngine;
+        this.annuityFactors = book.getAnnuityFactors();
+        this.market = market;
+    }
 
-            return rateComparison != 0 ? rateComparison : lender2.getAmount() - lender1.getAmount();
-        });
+    /**
+     * Gets the market of the lenders
+     * @return the market the calculator was built for, empty if none was given
+     */
+    public String getMarket() {
+        return market;
     }
 
     /**
      * Returns the lenders available for loans
-     * @return the lenders available for loans
+     * @return the lenders available for loans in rate order, created on access
      */
     public Collection<Lender> getLenders() {
-        return lenders;
+        return book.asList();
+    }
+
+    /**
+     * Returns the book of lenders available for loans
+     * @return the lenders sorted by rate
+     */
+    public LenderBook getBook() {
+        return book;
+    }
+
+    /**
+     * Returns the number of lenders available for loans
+     * @return the number of lenders available for loans
+     */
+    public int getLenderCount() {
+        return book.size();
+    }
+
+    /**
+     * Returns the total amount available from one of the sorted lenders
+     * @param lenderIndex the index of the lender in rate order
+     * @return the total amount available for loans from this lender in pounds sterling
+     */
+    public int getAvailableAmount(final int lenderIndex) {
+        return book.getAmount(lenderIndex);
     }
 
     /**
@@ -61,33 +137,160 @@ public class LoanQuoteCalculator {
      */
     public LoanQuote getQuote(final int loanAmount) throws InsufficientLendersException
     {
-        final Map<Lender, Integer> loans = getLendersForLoan(loanAmount);
+        final LenderAllocation allocation = getLendersForLoan(loanAmount);
+
+        // calculate total monthly repayment by calculating monthly repayment towards each individual lender
+        final BigDecimal monthlyRepayment = numericEngine == NumericEngine.FIXED_POINT
+                ? getFixedPointMonthlyRepayment(allocation)
+                : getMonthlyRepayment(allocation);
+
+        return toQuote(loanAmount, REPAYMENT_MONTHS, monthlyRepayment, allocation.getLastLenderIndex() + 1);
+    }
+
+    /**
+     * Returns a quote for each of the specified terms, splitting the loan across the lenders once and going through
+     * them in a single pass that adds up the repayments of every term
+     * @param loanAmount the loan amount requested in pounds sterling
+     * @param terms the number of repayment months of each quote, between 1 and <code>AnnuityFactors.MAX_TERM</code>
+     * @return the loan quotes in the order of <code>terms</code>
+     * @throws InsufficientLendersException thrown when there is not sufficient funding from the list of lenders
+     * to satisfy the requested loan amount
+     */
+    public LoanQuote[] getQuotes(final int loanAmount, final int[] terms) throws InsufficientLendersException {
+        return getQuotes(loanAmount, terms, getLendersForLoan(loanAmount));
+    }
+
+    /**
+     * Returns a quote for each of the specified terms of a loan already split across the lenders
+     * @param loanAmount the loan amount requested in pounds sterling
+     * @param terms the number of repayment months of each quote, between 1 and <code>AnnuityFactors.MAX_TERM</code>
+     * @param allocation the lenders used by the loan
+     * @return the loan quotes in the order of <code>terms</code>
+     */
+    private LoanQuote[] getQuotes(final int loanAmount, final int[] terms, final LenderAllocation allocation) {
+        final AnnuityFactors.TermFactors[] factors = new AnnuityFactors.TermFactors[terms.length];
+
+        for (int t = 0; t < terms.length; t++) {
+            factors[t] = annuityFactors.getTerm(terms[t]);
+        }
+
+        final BigDecimal[] monthlyRepayments = numericEngine == NumericEngine.FIXED_POINT
+                ? getFixedPointMonthlyRepayments(allocation, factors)
+                : getMonthlyRepayments(allocation, factors);
+
+        final LoanQuote[] quotes = new LoanQuote[terms.length];
+
+        for (int t = 0; t < terms.length; t++) {
+            quotes[t] = toQuote(loanAmount, terms[t], monthlyRepayments[t], allocation.getLastLenderIndex() + 1);
+        }
+
+        return quotes;
+    }
+
+    /**
+     * Returns the month by month repayments of a loan, computed as they are read
+     * @param loanAmount the loan amount requested in pounds sterling
+     * @param term the number of repayment months, between 1 and <code>AnnuityFactors.MAX_TERM</code>
+     * @return the schedule of the loan, whose quote is the one <code>getQuotes</code> gives for the term
+     * @throws InsufficientLendersException thrown when there is not sufficient funding from the list of lenders
+     * to satisfy the requested loan amount
+     */
+    public AmortizationSchedule getSchedule(final int loanAmount, final int term) throws InsufficientLendersException {
+        // the loan is split once, for the quote and for the tranches
+        final LenderAllocation allocation = getLendersForLoan(loanAmount);
+        final LoanQuote quote = getQuotes(loanAmount, new int[] {term}, allocation)[0];
 
-        // calculate monthly repayment for each individual lender
-        final BigDecimal monthlyRepayment = loans.entrySet().stream()
+        final AnnuityFactors.TermFactors factors = annuityFactors.getTerm(term);
 
-                // calculate total monthly repayment by calculating monthly repayment towards each individual lender
-                .map(individualLoan -> {
-                    final Lender lender = individualLoan.getKey();
-                    final Integer individualLoanAmount = individualLoan.getValue();
+        final int lastLenderIndex = allocation.getLastLenderIndex();
 
-                    return getMonthlyRepayment(lender.getRate(), individualLoanAmount);
-                })
+        // lenders are sorted by rate, so the lenders of the loan hold every rate id up to the one of the last lender
+        final int tranches = book.getRateId(lastLenderIndex) + 1;
 
-                // add up each monthly repayment
-                .reduce(BigDecimal::add)
+        final BigDecimal[] principals = new BigDecimal[tranches];
+        final BigDecimal[] monthlyInterestRates = new BigDecimal[tranches];
+        final BigDecimal[] trancheRepayments = new BigDecimal[tranches];
 
-                // there must be at least one lender, so this is impossible
-                .orElseThrow(() -> new IllegalStateException("getLendersForLoan should never return empty map"));
+        for (int rateId = 0; rateId < tranches; rateId++) {
+            principals[rateId] = BigDecimal.ZERO;
+            monthlyInterestRates[rateId] = annuityFactors.getMonthlyInterestRate(rateId);
+            trancheRepayments[rateId] = BigDecimal.ZERO;
+        }
+
+        for (int i = 0; i <= lastLenderIndex; i++) {
+            final int rateId = book.getRateId(i);
+            final BigDecimal principal = new BigDecimal(i == lastLenderIndex ? allocation.getLastLenderAmount() : book.getAmount(i));
+
+            principals[rateId] = principals[rateId].add(principal);
+            trancheRepayments[rateId] = trancheRepayments[rateId].add(factors.getMonthlyRepayment(rateId, principal, principal.multiply(monthlyInterestRates[rateId])));
+        }
+
+        return new AmortizationSchedule(quote, principals, monthlyInterestRates, trancheRepayments);
+    }
 
+    /**
+     * Returns a quote for a loan already split across lenders, for example when part of the cheapest lenders' amounts
+     * is held by other loans
+     * @param loanAmount the loan amount requested in pounds sterling
+     * @param lenderIndexes the index in rate order of each lender used by the loan
+     * @param lenderAmounts the amount lent by each lender, in the same order as <code>lenderIndexes</code>
+     * @return the loan quote containing repayment information and the interest rate of the loan
+     */
+    public LoanQuote getQuote(final int loanAmount, final int[] lenderIndexes, final int[] lenderAmounts) {
+        final AnnuityFactors.TermFactors factors = annuityFactors.getTerm(REPAYMENT_MONTHS);
+
+        BigDecimal monthlyRepayment = null;
+
+        if (numericEngine == NumericEngine.FIXED_POINT) {
+            try {
+                long fixedPointRepayment = 0;
+
+                for (int i = 0; i < lenderIndexes.length; i++) {
+                    fixedPointRepayment = Math.addExact(fixedPointRepayment,
+                            factors.getFixedPointMonthlyRepayment(book.getRateId(lenderIndexes[i]), lenderAmounts[i]));
+                }
+
+                monthlyRepayment = BigDecimal.valueOf(fixedPointRepayment, FixedPointAmortizedLoan.SCALE);
+            } catch (ArithmeticException e) {
+                // too large for fixed-point, computed below
+            }
+        }
+
+        if (monthlyRepayment == null) {
+            monthlyRepayment = BigDecimal.ZERO;
+
+            for (int i = 0; i < lenderIndexes.length; i++) {
+                monthlyRepayment = monthlyRepayment.add(getMonthlyRepayment(factors, book.getRateId(lenderIndexes[i]), lenderAmounts[i]));
+            }
+        }
+
+        return toQuote(loanAmount, REPAYMENT_MONTHS, monthlyRepayment, lenderIndexes.length);
+    }
+
+    /**
+     * Rounds the total monthly repayment of a loan into a quote
+     * @param loanAmount the loan amount requested in pounds sterling
+     * @param term the number of repayment months
+     * @param monthlyRepayment the total monthly repayment, not rounded
+     * @param lenders the number of lenders of the loan
+     * @return the loan quote containing repayment information and the interest rate of the loan
+     */
+    private LoanQuote toQuote(final int loanAmount, final int term, final BigDecimal monthlyRepayment, final int lenders) {
         // calculate total repayment based on non-rounded monthly repayment
-        final BigDecimal totalRepayment = monthlyRepayment.multiply(new BigDecimal(REPAYMENT_MONTHS));
+        final BigDecimal totalRepayment = monthlyRepayment.multiply(new BigDecimal(term));
+
+        final RateSolverEvent event = new RateSolverEvent();
+        event.begin();
 
         // estimate interest rate based on monthly repayment
-        final double rate = getApproximateAnnualInterestRate(loanAmount, monthlyRepayment);
+        final double rate = getApproximateAnnualInterestRate(loanAmount, term, monthlyRepayment, event);
+
+        event.setTerm(term);
+        event.commit(market, loanAmount, lenders);
 
         return new LoanQuote(
                 loanAmount,
+                term,
 
                 // round annual interest rate to nearest one decimal place
                 new BigDecimal(rate).setScale(1, ROUND_HALF_UP),
@@ -109,45 +312,197 @@ public class LoanQuoteCalculator {
      * @return an approximation of the annual interest rate in percentage format
      */
     double getApproximateAnnualInterestRate(final int loanAmount, final BigDecimal monthlyRepayment) {
-        return AmortizedLoan.getApproximateAnnualInterestRate(loanAmount, REPAYMENT_MONTHS, monthlyRepayment.doubleValue()) * 100;
+        return getApproximateAnnualInterestRate(loanAmount, REPAYMENT_MONTHS, monthlyRepayment, null);
+    }
+
+    /**
+     * Calculates an approximate annual interest rate using only the principal, term and monthly repayment
+     * @param loanAmount initial loan amount
+     * @param term the number of repayment months
+     * @param monthlyRepayment amount of repayment per month
+     * @param event the Flight Recorder event given the work done by the rate solver, or <code>null</code>
+     * @return an approximation of the annual interest rate in percentage format
+     */
+    double getApproximateAnnualInterestRate(final int loanAmount, final int term, final BigDecimal monthlyRepayment, final RateSolverEvent event) {
+        return AmortizedLoan.getApproximateAnnualInterestRate(loanAmount, term, monthlyRepayment.doubleValue(), event) * 100;
+    }
+
+    /**
+     * Adds up the monthly repayments towards each lender of the allocation, every lender but the last one lends its
+     * whole available amount
+     * @param allocation the lenders used by the loan
+     * @return the total monthly repayment, not rounded
+     */
+    BigDecimal getMonthlyRepayment(final LenderAllocation allocation) {
+        final AnnuityFactors.TermFactors factors = annuityFactors.getTerm(REPAYMENT_MONTHS);
+
+        final int lastLenderIndex = allocation.getLastLenderIndex();
+
+        BigDecimal monthlyRepayment = getMonthlyRepayment(factors, book.getRateId(lastLenderIndex), allocation.getLastLenderAmount());
+
+        for (int i = 0; i < lastLenderIndex; i++) {
+            monthlyRepayment = monthlyRepayment.add(getMonthlyRepayment(factors, book.getRateId(i), book.getAmount(i)));
+        }
+
+        return monthlyRepayment;
     }
 
     /**
-     * Calculates the monthly repayment required using amortized interest
-     * @param rate annual interest rate of the loan
-     * @param individualLoanAmount the initial loan amount
+     * Adds up the monthly repayments towards each lender of the allocation in fixed-point arithmetic, falling back to
+     * <code>BigDecimal</code> if the amounts are too large for it
+     * @param allocation the lenders used by the loan
+     * @return the total monthly repayment, not rounded, equal to <code>getMonthlyRepayment(allocation)</code>
+     */
+    BigDecimal getFixedPointMonthlyRepayment(final LenderAllocation allocation) {
+        final AnnuityFactors.TermFactors factors = annuityFactors.getTerm(REPAYMENT_MONTHS);
+
+        final int lastLenderIndex = allocation.getLastLenderIndex();
+
+        try {
+            long monthlyRepayment = factors.getFixedPointMonthlyRepayment(book.getRateId(lastLenderIndex), allocation.getLastLenderAmount());
+
+            for (int i = 0; i < lastLenderIndex; i++) {
+                monthlyRepayment = Math.addExact(monthlyRepayment, factors.getFixedPointMonthlyRepayment(book.getRateId(i), book.getAmount(i)));
+            }
+
+            return BigDecimal.valueOf(monthlyRepayment, FixedPointAmortizedLoan.SCALE);
+        } catch (ArithmeticException e) {
+            return getMonthlyRepayment(allocation);
+        }
+    }
+
+    /**
+     * Adds up the monthly repayments towards each lender of the allocation for several terms at once: the principal
+     * of each lender and its product with the monthly rate are shared by every term
+     * @param allocation the lenders used by the loan
+     * @param factors the factors of each term
+     * @return the total monthly repayment of each term, not rounded
+     */
+    BigDecimal[] getMonthlyRepayments(final LenderAllocation allocation, final AnnuityFactors.TermFactors[] factors) {
+        final int lastLenderIndex = allocation.getLastLenderIndex();
+
+        final BigDecimal[] monthlyRepayments = new BigDecimal[factors.length];
+
+        for (int i = 0; i <= lastLenderIndex; i++) {
+            final int rateId = book.getRateId(i);
+            final BigDecimal principal = new BigDecimal(i == lastLenderIndex ? allocation.getLastLenderAmount() : book.getAmount(i));
+            final BigDecimal principalTimesRate = principal.multiply(annuityFactors.getMonthlyInterestRate(rateId));
+
+            for (int t = 0; t < factors.length; t++) {
+                final BigDecimal repayment = factors[t].getMonthlyRepayment(rateId, principal, principalTimesRate);
+
+                monthlyRepayments[t] = monthlyRepayments[t] == null ? repayment : monthlyRepayments[t].add(repayment);
+            }
+        }
+
+        return monthlyRepayments;
+    }
+
+    /**
+     * Adds up the monthly repayments towards each lender of the allocation for several terms at once in fixed-point
+     * arithmetic, falling back to <code>BigDecimal</code> if the amounts are too large for it
+     * @param allocation the lenders used by the loan
+     * @param factors the factors of each term
+     * @return the total monthly repayment of each term, not rounded, equal to
+     * <code>getMonthlyRepayments(allocation, factors)</code>
+     */
+    BigDecimal[] getFixedPointMonthlyRepayments(final LenderAllocation allocation, final AnnuityFactors.TermFactors[] factors) {
+        final int lastLenderIndex = allocation.getLastLenderIndex();
+
+        final long[] monthlyRepayments = new long[factors.length];
+
+        try {
+            for (int i = 0; i <= lastLenderIndex; i++) {
+                final int rateId = book.getRateId(i);
+                final long principal = i == lastLenderIndex ? allocation.getLastLenderAmount() : book.getAmount(i);
+
+                for (int t = 0; t < factors.length; t++) {
+                    monthlyRepayments[t] = Math.addExact(monthlyRepayments[t], factors[t].getFixedPointMonthlyRepayment(rateId, principal));
+                }
+            }
+        } catch (ArithmeticException e) {
+            return getMonthlyRepayments(allocation, factors);
+        }
+
+        final BigDecimal[] result = new BigDecimal[factors.length];
+
+        for (int t = 0; t < factors.length; t++) {
+            result[t] = BigDecimal.valueOf(monthlyRepayments[t], FixedPointAmortizedLoan.SCALE);
+        }
+
+        return result;
+    }
+
+    /**
+     * Calculates the monthly repayment towards one lender from the factors of its rate
+     * @param factors the factors of the term of the loan
+     * @param rateId the id of the rate of the lender in the book
+     * @param individualLoanAmount the amount lent by the lender
      * @return the repayment required to repay capital and interest every month
      */
-    BigDecimal getMonthlyRepayment(final BigDecimal rate, final Integer individualLoanAmount) {
-        return AmortizedLoan.getMonthlyRepayment(new BigDecimal(individualLoanAmount), rate, REPAYMENT_MONTHS);
+    private BigDecimal getMonthlyRepayment(final AnnuityFactors.TermFactors factors, final int rateId, final int individualLoanAmount) {
+        final BigDecimal principal = new BigDecimal(individualLoanAmount);
+
+        return factors.getMonthlyRepayment(rateId, principal, principal.multiply(annuityFactors.getMonthlyInterestRate(rateId)));
     }
 
     /**
-     * Retrieves a list of lender and loan amount pairs that represent how much the borrower is borrowing from each lender
+     * Finds how the loan is split across the sorted lenders, using a binary search over the cumulative available amounts
      * @param loanAmount the total loan amount requested
-     * @return list of lender and loan amount pairs that represent how much the borrower is borrowing from each lender
+     * @return the last lender used by the loan and how much it lends, all the lenders before it lend their whole amount
      * @throws InsufficientLendersException thrown when there is not sufficient funding from the list of lenders
      * to satisfy the requested loan amount
      */
-    Map<Lender, Integer> getLendersForLoan(final int loanAmount) throws InsufficientLendersException {
-        final Map<Lender, Integer> result = new HashMap<>();
+    LenderAllocation getLendersForLoan(final int loanAmount) throws InsufficientLendersException {
+        final LenderAllocationEvent event = new LenderAllocationEvent();
+        event.begin();
 
-        int remainingLoanAmount = loanAmount;
+        final LenderAllocation allocation = allocate(loanAmount);
 
-        for (final Lender lender : lenders) {
-            // can this lender satisfy remaining loan required?
-            if (lender.getAmount() >= remainingLoanAmount) {
-                result.put(lender, remainingLoanAmount);
+        event.commit(market, loanAmount, allocation.getLastLenderIndex() + 1);
 
-                return result;
-            }
+        return allocation;
+    }
+
+    /**
+     * Gets the number of lenders a loan is split across, without recording the allocation
+     * @param loanAmount the total loan amount requested
+     * @return the number of lenders, from the lowest rate, that fund the loan
+     * @throws InsufficientLendersException thrown when there is not sufficient funding from the list of lenders
+     * to satisfy the requested loan amount
+     */
+    public int getAllocatedLenderCount(final int loanAmount) throws InsufficientLendersException {
+        return allocate(loanAmount).getLastLenderIndex() + 1;
+    }
 
-            // use up all of lender's quota
-            result.put(lender, lender.getAmount());
+    /**
+     * Searches the cumulative available amounts for the last lender of a loan
+     * @param loanAmount the total loan amount requested
+     * @return the last lender used by the loan and how much it lends
+     * @throws InsufficientLendersException thrown when there is not sufficient funding from the list of lenders
+     * to satisfy the requested loan amount
+     */
+    private LenderAllocation allocate(final int loanAmount) throws InsufficientLendersException {
+        // find the first lender whose cumulative amount covers the loan
+        int low = 0;
+        int high = book.size() - 1;
 
-            remainingLoanAmount -= lender.getAmount();
+        if (high < 0 || book.getCumulativeAmount(high) < loanAmount) {
+            throw new InsufficientLendersException();
         }
 
-        throw new InsufficientLendersException();
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+
+            if (book.getCumulativeAmount(middle) >= loanAmount) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+
+        final long lentBefore = low == 0 ? 0 : book.getCumulativeAmount(low - 1);
+
+        return new LenderAllocation(low, (int) (loanAmount - lentBefore));
     }
 }
@@ -0,0 +1,146 @@
+package com.bigbank.loan.engine.quote;
+
+import com.bigbank.loan.excetpion.InsufficientLendersException;
+
+
+/**
+ * Every quote a calculator can produce for the loan amounts a borrower is allowed to request, computed once so that
+ * getting a quote is an array lookup
+ */
+public final class LoanQuoteTable {
+    /**
+     * Estimated size of a <code>LoanQuote</code> with its three compact <code>BigDecimal</code> values, assuming
+     * compressed oops: 32 bytes for the quote and 40 bytes for each <code>BigDecimal</code>
+     */
+    private static final int ESTIMATED_QUOTE_BYTES = 32 + 3 * 40;
+
+    /**
+     * Estimated size of an array header plus the table object itself
+     */
+    private static final int ESTIMATED_OVERHEAD_BYTES = 16 + 48;
+
+    /**
+     * the calculator the table was built from, used for amounts outside the table
+     */
+    private final LoanQuoteCalculator calculator;
+
+    /**
+     * quotes indexed by <code>(loanAmount - MIN_LOAN_AMOUNT) / LOAN_AMOUNT_INCREMENT</code>, <code>null</code> where
+     * the lenders cannot fund the amount
+     */
+    private final LoanQuote[] quotes;
+
+    /**
+     * number of amounts the lenders can fund
+     */
+    private final int size;
+
+    /**
+     * time taken to compute the whole table in nanoseconds
+     */
+    private final long buildNanos;
+
+    /**
+     * estimated heap retained by the table in bytes
+     */
+    private final long footprintBytes;
+
+    /**
+     * Computes the quotes of every allowed loan amount using the specified calculator
+     * @param calculator the calculator of the market the table is built for
+     */
+    public LoanQuoteTable(final LoanQuoteCalculator calculator) {
+        final long start = System.nanoTime();
+
+        this.calculator = calculator;
+        this.quotes = new LoanQuote[(LoanQuoteApplication.MAX_LOAN_AMOUNT - LoanQuoteApplication.MIN_LOAN_AMOUNT) / LoanQuoteApplication.LOAN_AMOUNT_INCREMENT + 1];
+
+        int quoted = 0;
+
+        for (int i = 0; i < quotes.length; i++) {
+            try {
+                quotes[i] = calculator.getQuote(LoanQuoteApplication.MIN_LOAN_AMOUNT + i * LoanQuoteApplication.LOAN_AMOUNT_INCREMENT);
+            } catch (InsufficientLendersException e) {
+                // larger amounts cannot be funded either
+                break;
+            }
+
+            quoted++;
+        }
+
+        this.size = quoted;
+        this.buildNanos = System.nanoTime() - start;
+        this.footprintBytes = ESTIMATED_OVERHEAD_BYTES + 4L * quotes.length + (long) ESTIMATED_QUOTE_BYTES * quoted;
+    }
+
+    /**
+     * Returns the quote for the specified loan amount, computing it only if the amount is not one of the allowed ones
+     * @param loanAmount the loan amount requested in pounds sterling
+     * @return the loan quote containing repayment information and the interest rate of the loan
+     * @throws InsufficientLendersException thrown when there is not sufficient funding from the list of lenders
+     * to satisfy the requested loan amount
+     */
+    public LoanQuote getQuote(final int loanAmount) throws InsufficientLendersException {
+        final int index = indexOf(loanAmount);
+
+        if (index < 0) {
+            return calculator.getQuote(loanAmount);
+        }
+
+        final LoanQuote quote = quotes[index];
+
+        if (quote == null) {
+            throw new InsufficientLendersException();
+        }
+
+        return quote;
+    }
+
+    /**
+     * Gets the position of a loan amount among the allowed ones
+     * @param loanAmount the loan amount in pounds sterling
+     * @return an index between <code>0</code> and <code>capacity() - 1</code>, or <code>-1</code> if the amount is not
+     * one of the allowed ones
+     */
+    public int indexOf(final int loanAmount) {
+        final int offset = loanAmount - LoanQuoteApplication.MIN_LOAN_AMOUNT;
+
+        if (offset < 0 || offset % LoanQuoteApplication.LOAN_AMOUNT_INCREMENT != 0 || offset / LoanQuoteApplication.LOAN_AMOUNT_INCREMENT >= quotes.length) {
+            return -1;
+        }
+
+        return offset / LoanQuoteApplication.LOAN_AMOUNT_INCREMENT;
+    }
+
+    /**
+     * Gets the number of allowed loan amounts, funded or not
+     * @return the number of slots of the table
+     */
+    public int capacity() {
+        return quotes.length;
+    }
+
+    /**
+     * Gets the time taken to compute the table
+     * @return the time taken to compute the whole table in nanoseconds
+     */
+    public long getBuildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * Gets an estimate of the heap retained by the table, not counting the calculator
+     * @return estimated heap retained by the table in bytes
+     */
+    public long getFootprintBytes() {
+        return footprintBytes;
+    }
+
+    /**
+     * Gets the number of amounts the lenders can fund
+     * @return the number of quotes held by the table
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,189 @@
+package com.bigbank.loan.engine.reservation;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.bigbank.loan.engine.quote.LoanQuoteCalculator;
+import com.bigbank.loan.excetpion.InsufficientLendersException;
+
+
+/**
+ * Tracks how much of each lender's available amount is still free, so that concurrent loans are never funded twice
+ * by the same money. Every lender is updated on its own with compare-and-set, there is no lock shared by the loans.
+ */
+public final class CapacityLedger {
+    /**
+     * the calculator of the market book the ledger tracks, lenders are indexed in its rate order
+     */
+    private final LoanQuoteCalculator calculator;
+
+    /**
+     * the amount still free for each lender
+     */
+    private final AtomicIntegerArray remaining;
+
+    /**
+     * every lender before this index is known to have nothing left, so holds can start scanning from here
+     */
+    private final AtomicInteger firstAvailable = new AtomicInteger();
+
+    /**
+     * the number of reservations holding amounts from the ledger, counting holds still being taken
+     */
+    private final AtomicInteger held = new AtomicInteger();
+
+    /**
+     * Constructs a ledger where every lender has its whole available amount free
+     * @param calculator the calculator of the market book to track
+     */
+    public CapacityLedger(final LoanQuoteCalculator calculator) {
+        this.calculator = calculator;
+        this.remaining = new AtomicIntegerArray(calculator.getLenderCount());
+
+        for (int i = 0; i < remaining.length(); i++) {
+            remaining.set(i, calculator.getAvailableAmount(i));
+        }
+    }
+
+    /**
+     * Takes the loan amount from the cheapest lenders that still have money free and quotes the loan on them
+     * @param reservationId the identifier of the new reservation
+     * @param loanAmount the loan amount requested in pounds sterling
+     * @param expiresAtMillis the time the reservation expires at, in milliseconds since the epoch
+     * @return a reservation holding the amounts taken from each lender
+     * @throws InsufficientLendersException thrown when the free amounts cannot fund the loan, nothing is held then
+     */
+    public Reservation hold(final String reservationId, final int loanAmount, final long expiresAtMillis) throws InsufficientLendersException {
+        int[] lenderIndexes = new int[8];
+        int[] lenderAmounts = new int[8];
+        int count = 0;
+
+        int remainingLoanAmount = loanAmount;
+
+        // counted before anything is taken, so a ledger is never seen idle while a hold is under way
+        held.incrementAndGet();
+
+        for (int i = firstAvailable.get(); remainingLoanAmount > 0 && i < remaining.length(); i++) {
+            int available;
+            int taken;
+
+            do {
+                available = remaining.get(i);
+                taken = Math.min(available, remainingLoanAmount);
+            } while (taken > 0 && !remaining.compareAndSet(i, available, available - taken));
+
+            if (taken == available) {
+                skipEmpty(i);
+            }
+
+            if (taken == 0) {
+                continue;
+            }
+
+            if (count == lenderIndexes.length) {
+                lenderIndexes = Arrays.copyOf(lenderIndexes, count * 2);
+                lenderAmounts = Arrays.copyOf(lenderAmounts, count * 2);
+            }
+
+            lenderIndexes[count] = i;
+            lenderAmounts[count] = taken;
+            count++;
+
+            remainingLoanAmount -= taken;
+        }
+
+        lenderIndexes = Arrays.copyOf(lenderIndexes, count);
+        lenderAmounts = Arrays.copyOf(lenderAmounts, count);
+
+        if (remainingLoanAmount > 0) {
+            giveBack(lenderIndexes, lenderAmounts);
+            settle();
+
+            throw new InsufficientLendersException();
+        }
+
+        return new Reservation(this, reservationId, calculator.getQuote(loanAmount, lenderIndexes, lenderAmounts), lenderIndexes, lenderAmounts, expiresAtMillis);
+    }
+
+    /**
+     * Returns the amounts held by a reservation to their lenders
+     * @param lenderIndexes the index in rate order of each lender
+     * @param lenderAmounts the amount to return to each lender
+     */
+    void giveBack(final int[] lenderIndexes, final int[] lenderAmounts) {
+        for (int i = 0; i < lenderIndexes.length; i++) {
+            final int lenderIndex = lenderIndexes[i];
+
+            remaining.addAndGet(lenderIndex, lenderAmounts[i]);
+
+            // let holds see the lender again
+            int first;
+
+            do {
+                first = firstAvailable.get();
+            } while (first > lenderIndex && !firstAvailable.compareAndSet(first, lenderIndex));
+        }
+    }
+
+    /**
+     * Counts a reservation out of the held ones, once it is committed, released or expired
+     */
+    void settle() {
+        held.decrementAndGet();
+    }
+
+    /**
+     * Moves <code>firstAvailable</code> past a lender that has nothing left. If the lender got money back in the
+     * meantime, the move is undone so the money is not skipped.
+     * @param lenderIndex the index of the lender found empty
+     */
+    private void skipEmpty(final int lenderIndex) {
+        if (firstAvailable.compareAndSet(lenderIndex, lenderIndex + 1) && remaining.get(lenderIndex) > 0) {
+            int first;
+
+            do {
+                first = firstAvailable.get();
+            } while (first > lenderIndex && !firstAvailable.compareAndSet(first, lenderIndex));
+        }
+    }
+
+    /**
+     * Gets the calculator of the market book the ledger tracks
+     * @return the calculator of the market book the ledger tracks
+     */
+    public LoanQuoteCalculator getCalculator() {
+        return calculator;
+    }
+
+    /**
+     * Gets the number of reservations holding amounts from the ledger
+     * @return the number of reservations neither committed, released nor expired
+     */
+    public int getHeldCount() {
+        return held.get();
+    }
+
+    /**
+     * Gets the amount still free for a lender
+     * @param lenderIndex the index of the lender in rate order
+     * @return the amount still free for the lender
+     */
+    public int getRemainingAmount(final int lenderIndex) {
+        return remaining.get(lenderIndex);
+    }
+
+    /**
+     * Gets the amount still free across all the lenders
+     * @return the amount still free across all the lenders
+     */
+    public long getRemainingAmount() {
+        long total = 0;
+
+        for (int i = 0; i < remaining.length(); i++) {
+            total += remaining.get(i);
+        }
+
+        return total;
+    }
+}
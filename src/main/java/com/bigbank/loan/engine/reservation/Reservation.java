@@ -0,0 +1,151 @@
+package com.bigbank.loan.engine.reservation;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.bigbank.loan.engine.quote.LoanQuote;
+
+
+/**
+ * Amounts held from lenders for a quoted loan until the loan is committed, released or the hold expires
+ */
+public final class Reservation {
+    /**
+     * The lifecycle of a reservation, only a <code>HELD</code> reservation can change status
+     */
+    public enum Status {
+        HELD, COMMITTED, RELEASED, EXPIRED
+    }
+
+    /**
+     * the ledger the amounts are held from
+     */
+    private final CapacityLedger ledger;
+
+    /**
+     * the identifier of the reservation
+     */
+    private final String id;
+
+    /**
+     * the quote of the loan on the held amounts
+     */
+    private final LoanQuote quote;
+
+    /**
+     * the index in rate order of each lender the loan is held from
+     */
+    private final int[] lenderIndexes;
+
+    /**
+     * the amount held from each lender, in the same order as <code>lenderIndexes</code>
+     */
+    private final int[] lenderAmounts;
+
+    /**
+     * the time the hold expires at, in milliseconds since the epoch
+     */
+    private final long expiresAtMillis;
+
+    /**
+     * the current status, changed once with compare-and-set
+     */
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.HELD);
+
+    Reservation(final CapacityLedger ledger, final String id, final LoanQuote quote, final int[] lenderIndexes, final int[] lenderAmounts, final long expiresAtMillis) {
+        this.ledger = ledger;
+        this.id = id;
+        this.quote = quote;
+        this.lenderIndexes = lenderIndexes;
+        this.lenderAmounts = lenderAmounts;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    /**
+     * Turns the hold into a loan, the held amounts stay taken
+     * @return <code>true</code> if the reservation was held and is now committed
+     */
+    public boolean commit() {
+        if (!status.compareAndSet(Status.HELD, Status.COMMITTED)) {
+            return false;
+        }
+
+        ledger.settle();
+
+        return true;
+    }
+
+    /**
+     * Cancels the hold and returns the held amounts to the lenders
+     * @return <code>true</code> if the reservation was held and is now released
+     */
+    public boolean release() {
+        return finish(Status.RELEASED);
+    }
+
+    /**
+     * Expires the hold and returns the held amounts to the lenders
+     * @return <code>true</code> if the reservation was held and is now expired
+     */
+    public boolean expire() {
+        return finish(Status.EXPIRED);
+    }
+
+    private boolean finish(final Status finalStatus) {
+        if (!status.compareAndSet(Status.HELD, finalStatus)) {
+            return false;
+        }
+
+        ledger.giveBack(lenderIndexes, lenderAmounts);
+        ledger.settle();
+
+        return true;
+    }
+
+    /**
+     * Gets the identifier of the reservation
+     * @return the identifier of the reservation
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the ledger the amounts are held from
+     * @return the ledger the amounts are held from
+     */
+    public CapacityLedger getLedger() {
+        return ledger;
+    }
+
+    /**
+     * Gets the quote of the loan on the held amounts
+     * @return the quote of the loan on the held amounts
+     */
+    public LoanQuote getQuote() {
+        return quote;
+    }
+
+    /**
+     * Gets the number of lenders the loan is held from
+     * @return the number of lenders the loan is held from
+     */
+    public int getLenderCount() {
+        return lenderIndexes.length;
+    }
+
+    /**
+     * Gets the time the hold expires at
+     * @return the time the hold expires at, in milliseconds since the epoch
+     */
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    /**
+     * Gets the current status of the reservation
+     * @return the current status of the reservation
+     */
+    public Status getStatus() {
+        return status.get();
+    }
+}
@@ -0,0 +1,155 @@
+package com.bigbank.loan.engine.reservation;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Runs tasks after a delay with a hashed timing wheel: scheduling is a lock-free enqueue and a single thread expires
+ * the tasks of one slot per tick, so the cost does not grow with the number of pending tasks
+ */
+public final class TimingWheel implements AutoCloseable {
+    /**
+     * the duration of one tick in milliseconds, the precision of the delays
+     */
+    private final long tickMillis;
+
+    /**
+     * the slots of the wheel, only touched by the ticking thread
+     */
+    private final Queue<Timeout>[] wheel;
+
+    /**
+     * tasks scheduled since the last tick, moved into the wheel by the ticking thread
+     */
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+
+    /**
+     * the time the wheel started at, in milliseconds since the epoch
+     */
+    private final long startMillis;
+
+    /**
+     * the thread that ticks the wheel
+     */
+    private final ScheduledExecutorService ticker;
+
+    /**
+     * the next tick to process, only touched by the ticking thread
+     */
+    private long tick;
+
+    /**
+     * Constructs and starts a timing wheel
+     * @param tickMillis the duration of one tick in milliseconds
+     * @param wheelSize the number of slots, delays longer than <code>tickMillis * wheelSize</code> go round the wheel
+     * @param threadName the name of the ticking thread
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(final long tickMillis, final int wheelSize, final String threadName) {
+        this.tickMillis = tickMillis;
+        this.wheel = new Queue[wheelSize];
+
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+
+        this.startMillis = System.currentTimeMillis();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, threadName);
+
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules a task to run once after a delay
+     * @param task the task to run
+     * @param delayMillis the delay in milliseconds
+     */
+    public void schedule(final Runnable task, final long delayMillis) {
+        scheduled.add(new Timeout(task, System.currentTimeMillis() + delayMillis));
+    }
+
+    /**
+     * Processes every tick up to the current time
+     */
+    private void advance() {
+        final long currentTick = (System.currentTimeMillis() - startMillis) / tickMillis;
+
+        Timeout timeout;
+
+        while ((timeout = scheduled.poll()) != null) {
+            place(timeout);
+        }
+
+        for (; tick <= currentTick; tick++) {
+            final Queue<Timeout> slot = wheel[(int) (tick % wheel.length)];
+
+            for (int i = slot.size(); i > 0; i--) {
+                timeout = slot.poll();
+
+                if (timeout.rounds > 0) {
+                    timeout.rounds--;
+
+                    slot.add(timeout);
+                } else {
+                    run(timeout.task);
+                }
+            }
+        }
+    }
+
+    /**
+     * Puts a timeout in the slot of its deadline, or in the current slot if the deadline already passed
+     * @param timeout the timeout to place
+     */
+    private void place(final Timeout timeout) {
+        // round up, so a task never runs before its delay
+        final long deadlineTick = Math.max(tick, (timeout.deadlineMillis - startMillis + tickMillis - 1) / tickMillis);
+
+        timeout.rounds = (deadlineTick - tick) / wheel.length;
+
+        wheel[(int) (deadlineTick % wheel.length)].add(timeout);
+    }
+
+    private static void run(final Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            // a failing task must not stop the wheel, tasks are expected to report their own failures
+        }
+    }
+
+    /**
+     * Stops the wheel, pending tasks are not run
+     */
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * A scheduled task and the number of times the wheel must still go round before it runs
+     */
+    private static final class Timeout {
+        private final Runnable task;
+
+        private final long deadlineMillis;
+
+        private long rounds;
+
+        private Timeout(final Runnable task, final long deadlineMillis) {
+            this.task = task;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+}
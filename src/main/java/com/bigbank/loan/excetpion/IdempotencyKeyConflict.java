@@ -0,0 +1,29 @@
+package com.bigbank.loan.excetpion;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+
+@ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyConflict extends RuntimeException
+{
+    public IdempotencyKeyConflict()
+    {
+        super();
+    }
+
+    public IdempotencyKeyConflict(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
+
+    public IdempotencyKeyConflict(String message)
+    {
+        super(message);
+    }
+
+    public IdempotencyKeyConflict(Throwable cause)
+    {
+        super(cause);
+    }
+}
\ No newline at end of file
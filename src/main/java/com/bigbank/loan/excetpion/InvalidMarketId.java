@@ -5,7 +5,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 
 @ResponseStatus(value = HttpStatus.BAD_REQUEST)
-public class InvalidMarketId extends RuntimeException
+public class InvalidMarketId extends IllegalArgumentException
 {
     public InvalidMarketId()
     {
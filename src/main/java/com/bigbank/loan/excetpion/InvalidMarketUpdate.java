@@ -0,0 +1,29 @@
+package com.bigbank.loan.excetpion;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidMarketUpdate extends RuntimeException
+{
+    public InvalidMarketUpdate()
+    {
+        super();
+    }
+
+    public InvalidMarketUpdate(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
+
+    public InvalidMarketUpdate(String message)
+    {
+        super(message);
+    }
+
+    public InvalidMarketUpdate(Throwable cause)
+    {
+        super(cause);
+    }
+}
\ No newline at end of file
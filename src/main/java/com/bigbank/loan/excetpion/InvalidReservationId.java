@@ -0,0 +1,29 @@
+package com.bigbank.loan.excetpion;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+
+@ResponseStatus(value = HttpStatus.NOT_FOUND)
+public class InvalidReservationId extends RuntimeException
+{
+    public InvalidReservationId()
+    {
+        super();
+    }
+
+    public InvalidReservationId(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
+
+    public InvalidReservationId(String message)
+    {
+        super(message);
+    }
+
+    public InvalidReservationId(Throwable cause)
+    {
+        super(cause);
+    }
+}
\ No newline at end of file
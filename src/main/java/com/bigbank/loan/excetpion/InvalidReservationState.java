@@ -0,0 +1,29 @@
+package com.bigbank.loan.excetpion;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class InvalidReservationState extends RuntimeException
+{
+    public InvalidReservationState()
+    {
+        super();
+    }
+
+    public InvalidReservationState(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
+
+    public InvalidReservationState(String message)
+    {
+        super(message);
+    }
+
+    public InvalidReservationState(Throwable cause)
+    {
+        super(cause);
+    }
+}
\ No newline at end of file
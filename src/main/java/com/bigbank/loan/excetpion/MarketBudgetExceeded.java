@@ -0,0 +1,29 @@
+package com.bigbank.loan.excetpion;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+
+@ResponseStatus(value = HttpStatus.INSUFFICIENT_STORAGE)
+public class MarketBudgetExceeded extends RuntimeException
+{
+    public MarketBudgetExceeded()
+    {
+        super();
+    }
+
+    public MarketBudgetExceeded(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
+
+    public MarketBudgetExceeded(String message)
+    {
+        super(message);
+    }
+
+    public MarketBudgetExceeded(Throwable cause)
+    {
+        super(cause);
+    }
+}
\ No newline at end of file
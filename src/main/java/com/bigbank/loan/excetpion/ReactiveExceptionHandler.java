@@ -0,0 +1,12 @@
+package com.bigbank.loan.excetpion;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.zalando.problem.spring.webflux.advice.ProblemHandling;
+
+
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler implements ProblemHandling
+{
+}
@@ -0,0 +1,21 @@
+package com.bigbank.loan.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("com.bigbank.loan.EngineBuild")
+@Label("Engine Build")
+@Description("Loan engine of a request built and bound to the current version of its market, loading it if needed")
+public class EngineBuildEvent extends LoanEvent
+{
+
+    @Label("Market Version")
+    private long marketVersion;
+
+    public void setMarketVersion(long marketVersion)
+    {
+        this.marketVersion = marketVersion;
+    }
+}
@@ -0,0 +1,15 @@
+package com.bigbank.loan.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+@Name("com.bigbank.loan.LenderAllocation")
+@Label("Lender Allocation")
+@Description("Loan amount split across the lenders with the lowest rates")
+@StackTrace(false)
+public class LenderAllocationEvent extends LoanEvent
+{
+}
@@ -0,0 +1,69 @@
+package com.bigbank.loan.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+
+/**
+ * Flight Recorder event of a step of the loan path, timed between <code>begin()</code> and <code>commit</code>.
+ * <p>
+ * When recording is off, or the event is disabled, <code>shouldCommit()</code> is false and the JIT removes the event
+ * altogether, so the steps are instrumented unconditionally.
+ */
+@Category("Loan")
+public abstract class LoanEvent extends Event
+{
+
+    // Flight Recorder ignores private fields of a superclass
+
+    @Label("Market")
+    @Description("Market id, or market file for the command line application")
+    protected String market;
+
+    @Label("Amount")
+    @Description("Loan amount in pounds sterling, 0 when the step is not about one loan")
+    protected int amount;
+
+    @Label("Lenders")
+    @Description("Lenders used by the loan, or held by the market when the step is not about one loan")
+    protected int lenders;
+
+    /**
+     * Set on threads whose events are not recorded, such as the startup warm-up whose synthetic loans are not traffic
+     */
+    private static final ThreadLocal<Boolean> SUPPRESSED = new ThreadLocal<>();
+
+    /**
+     * Stops or resumes recording the events committed by the calling thread
+     */
+    public static void setSuppressed(boolean suppressed)
+    {
+        if (suppressed)
+        {
+            SUPPRESSED.set(Boolean.TRUE);
+        }
+        else
+        {
+            SUPPRESSED.remove();
+        }
+    }
+
+    /**
+     * Ends the event and records it if it passes the recording settings
+     */
+    public void commit(String market, int amount, int lenders)
+    {
+        end();
+
+        if (shouldCommit() && SUPPRESSED.get() == null)
+        {
+            this.market = market;
+            this.amount = amount;
+            this.lenders = lenders;
+
+            commit();
+        }
+    }
+}
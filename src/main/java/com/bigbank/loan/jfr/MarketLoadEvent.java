@@ -0,0 +1,30 @@
+package com.bigbank.loan.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("com.bigbank.loan.MarketLoad")
+@Label("Market Load")
+@Description("Market data read and parsed into a lender book, then its quote table built, committed once the book serves quotes")
+public class MarketLoadEvent extends LoanEvent
+{
+
+    @Label("Source")
+    @Description("snapshot, csv or admin")
+    private String source;
+
+    @Label("Market Version")
+    private long marketVersion;
+
+    public void setSource(String source)
+    {
+        this.source = source;
+    }
+
+    public void setMarketVersion(long marketVersion)
+    {
+        this.marketVersion = marketVersion;
+    }
+}
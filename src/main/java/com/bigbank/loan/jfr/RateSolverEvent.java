@@ -0,0 +1,40 @@
+package com.bigbank.loan.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+@Name("com.bigbank.loan.RateSolver")
+@Label("Rate Solver")
+@Description("Annual interest rate of a quote solved from its monthly repayment")
+@StackTrace(false)
+public class RateSolverEvent extends LoanEvent
+{
+
+    @Label("Term")
+    @Description("Repayment months")
+    private int term;
+
+    @Label("Iterations")
+    private int iterations;
+
+    @Label("Converged")
+    private boolean converged;
+
+    public void setTerm(int term)
+    {
+        this.term = term;
+    }
+
+    public void setIterations(int iterations)
+    {
+        this.iterations = iterations;
+    }
+
+    public void setConverged(boolean converged)
+    {
+        this.converged = converged;
+    }
+}
@@ -0,0 +1,22 @@
+package com.bigbank.loan.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("com.bigbank.loan.Render")
+@Label("Response Render")
+@Description("Proposal of a request rendered from its quotes")
+public class RenderEvent extends LoanEvent
+{
+
+    @Label("Terms")
+    @Description("Repayment terms quoted")
+    private int terms;
+
+    public void setTerms(int terms)
+    {
+        this.terms = terms;
+    }
+}
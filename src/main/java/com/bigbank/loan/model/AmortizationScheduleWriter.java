@@ -0,0 +1,118 @@
+package com.bigbank.loan.model;
+
+import java.util.Locale;
+
+import com.bigbank.loan.engine.quote.AmortizationRow;
+import com.bigbank.loan.engine.quote.AmortizationSchedule;
+
+
+/**
+ * Renders a schedule a few rows at a time, as a JSON array of rows or as CSV with a header line, so that only one chunk
+ * of text is held whatever the term. Amounts are written as strings, like in <code>LoanProposal</code>.
+ */
+public final class AmortizationScheduleWriter
+{
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final String CSV_HEADER = "month,payment,interest,principal,balance\n";
+
+    private static final int ROWS_PER_CHUNK = 64;
+
+    private final AmortizationSchedule schedule;
+
+    private final boolean csv;
+
+    private boolean started;
+
+    private boolean finished;
+
+    public AmortizationScheduleWriter(AmortizationSchedule schedule, boolean csv)
+    {
+        this.schedule = schedule;
+        this.csv = csv;
+    }
+
+    /**
+     * @return true if the media type, as in an Accept header, asks for CSV rather than JSON
+     */
+    public static boolean isCsv(String mediaType)
+    {
+        return mediaType != null && mediaType.toLowerCase(Locale.ROOT).contains(TEXT_CSV_VALUE);
+    }
+
+    public String getContentType()
+    {
+        return csv ? TEXT_CSV_VALUE : "application/json";
+    }
+
+    /**
+     * Appends the next rows of the schedule, and the closing of the document after the last one
+     * @return false once the whole document has been written, leaving the chunk untouched
+     */
+    public boolean nextChunk(StringBuilder chunk)
+    {
+        if (finished)
+        {
+            return false;
+        }
+
+        if (!started)
+        {
+            chunk.append(csv ? CSV_HEADER : "[");
+        }
+
+        for (int rows = 0; rows < ROWS_PER_CHUNK && schedule.hasNext(); rows++)
+        {
+            AmortizationRow row = schedule.next();
+
+            if (csv)
+            {
+                appendCsv(chunk, row);
+            }
+            else
+            {
+                if (started || rows > 0)
+                {
+                    chunk.append(',');
+                }
+
+                appendJson(chunk, row);
+            }
+        }
+
+        started = true;
+
+        if (!schedule.hasNext())
+        {
+            finished = true;
+
+            if (!csv)
+            {
+                chunk.append(']');
+            }
+        }
+
+        return true;
+    }
+
+    private static void appendCsv(StringBuilder chunk, AmortizationRow row)
+    {
+        chunk.append(row.getMonth()).append(',')
+                .append(row.getPayment().toPlainString()).append(',')
+                .append(row.getInterest().toPlainString()).append(',')
+                .append(row.getPrincipal().toPlainString()).append(',')
+                .append(row.getBalance().toPlainString()).append('\n');
+    }
+
+    private static void appendJson(StringBuilder chunk, AmortizationRow row)
+    {
+        // every value is a number, nothing needs escaping
+        chunk.append("{\"month\":").append(row.getMonth())
+                .append(",\"payment\":\"").append(row.getPayment().toPlainString())
+                .append("\",\"interest\":\"").append(row.getInterest().toPlainString())
+                .append("\",\"principal\":\"").append(row.getPrincipal().toPlainString())
+                .append("\",\"balance\":\"").append(row.getBalance().toPlainString())
+                .append("\"}");
+    }
+}
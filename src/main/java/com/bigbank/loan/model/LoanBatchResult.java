@@ -0,0 +1,25 @@
+package com.bigbank.loan.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Builder;
+import lombok.Data;
+
+
+/**
+ * One line of a batch response: the proposal of the submission at <code>index</code>, or the error it failed with
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LoanBatchResult
+{
+
+    int index;
+
+    int status;
+
+    LoanProposal proposal;
+
+    String error;
+}
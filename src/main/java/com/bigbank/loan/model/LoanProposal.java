@@ -1,11 +1,18 @@
 package com.bigbank.loan.model;
 
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class LoanProposal
 {
 
@@ -20,4 +27,25 @@ public class LoanProposal
     String totalRepayment;
 
     String currencySign;
+
+    /**
+     * One quote per requested term, absent when the submission asked for none
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    List<LoanTermQuote> quotes;
+
+    /**
+     * Version of the market book the proposal was quoted from, as returned by the admin market API
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Long marketVersion;
+
+    /**
+     * UTF-8 JSON of every field after loanId, shared by the proposals of the same market version and amount, see
+     * <code>LoanProposalJson</code>
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    byte[] fragment;
 }
@@ -0,0 +1,92 @@
+package com.bigbank.loan.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+
+/**
+ * Writes a <code>LoanProposal</code> as JSON by splicing its loan id in front of its pre-rendered fragment, which gives
+ * the same bytes as Jackson with a single allocation and no reflection
+ */
+public final class LoanProposalJson
+{
+
+    /**
+     * Start of the JSON of a proposal, loanId being its first field
+     */
+    private static final byte[] LOAN_ID_PREFIX = "{\"loanId\":\"".getBytes(StandardCharsets.UTF_8);
+
+    private LoanProposalJson()
+    {
+    }
+
+    /**
+     * Renders the fields of a proposal that follow its loan id
+     * @return the UTF-8 JSON after the closing quote of the loan id, or null if the mapper does not write loanId first
+     */
+    public static byte[] fragment(ObjectMapper objectMapper, LoanProposal template) throws JsonProcessingException
+    {
+        byte[] json = objectMapper.writeValueAsBytes(template.toBuilder().loanId("").fragment(null).build());
+
+        int idEnd = LOAN_ID_PREFIX.length;
+
+        if (json.length <= idEnd || json[idEnd] != '"' || !Arrays.equals(Arrays.copyOf(json, idEnd), LOAN_ID_PREFIX))
+        {
+            return null;
+        }
+
+        return Arrays.copyOfRange(json, idEnd + 1, json.length);
+    }
+
+    /**
+     * @return the JSON of the proposal, spliced when it has a fragment and a loan id that needs no escaping
+     */
+    public static byte[] write(ObjectMapper objectMapper, LoanProposal proposal) throws JsonProcessingException
+    {
+        byte[] fragment = proposal.getFragment();
+        String loanId = proposal.getLoanId();
+
+        if (fragment == null || loanId == null || !isPlain(loanId))
+        {
+            return objectMapper.writeValueAsBytes(proposal);
+        }
+
+        byte[] json = new byte[LOAN_ID_PREFIX.length + loanId.length() + 1 + fragment.length];
+
+        System.arraycopy(LOAN_ID_PREFIX, 0, json, 0, LOAN_ID_PREFIX.length);
+
+        int position = LOAN_ID_PREFIX.length;
+
+        for (int i = 0; i < loanId.length(); i++)
+        {
+            json[position++] = (byte) loanId.charAt(i);
+        }
+
+        json[position++] = '"';
+
+        System.arraycopy(fragment, 0, json, position, fragment.length);
+
+        return json;
+    }
+
+    /**
+     * @return true if every character is printable ASCII that JSON strings hold as is
+     */
+    private static boolean isPlain(String value)
+    {
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+
+            if (c < 0x20 || c > 0x7E || c == '"' || c == '\\')
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,19 @@
+package com.bigbank.loan.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+
+@Data
+@Builder
+public class LoanReservation
+{
+
+    String reservationId;
+
+    String status;
+
+    String expiresAt;
+
+    LoanProposal proposal;
+}
@@ -1,13 +1,18 @@
 package com.bigbank.loan.model;
 
+import java.util.List;
+
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
 
 import org.hibernate.validator.constraints.Range;
 
+import com.bigbank.loan.engine.quote.LoanQuoteApplication;
+
 import lombok.Data;
 
 
@@ -18,6 +23,12 @@ public class LoanSubmission
     String market;
 
     @NotNull(message = "You must provide a loan amount")
-    @Range(min = 1000, max = 15000, message = "Loan amount must be in the 1000..15000 range")
+    @Range(min = LoanQuoteApplication.MIN_LOAN_AMOUNT, max = LoanQuoteApplication.MAX_LOAN_AMOUNT, message = "Loan amount must be in the 1000..15000 range")
     Integer amount;
+
+    /**
+     * Repayment terms in months to quote side by side, the default term when absent
+     */
+    @Size(min = 1, max = 5, message = "You can ask for 1 to 5 terms")
+    List<@NotNull(message = "Terms must not be null") Integer> terms;
 }
@@ -0,0 +1,22 @@
+package com.bigbank.loan.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+
+/**
+ * Repayments of a proposal for one of the terms the borrower asked for
+ */
+@Data
+@Builder
+public class LoanTermQuote
+{
+
+    Integer term;
+
+    String rate;
+
+    String monthlyRepayment;
+
+    String totalRepayment;
+}
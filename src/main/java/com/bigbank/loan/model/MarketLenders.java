@@ -3,15 +3,50 @@ package com.bigbank.loan.model;
 import java.util.List;
 
 import com.bigbank.loan.engine.quote.Lender;
+import com.bigbank.loan.engine.quote.LenderBook;
+import com.bigbank.loan.engine.quote.LoanQuoteCalculator;
+import com.bigbank.loan.engine.quote.LoanQuoteTable;
 
 import lombok.Builder;
-import lombok.Data;
+import lombok.Value;
 
 
-@Data
+/**
+ * Immutable snapshot of a market lender book: lenders are already sorted the way the calculator uses them and are
+ * shared by every request until a newer version is published
+ */
+@Value
 @Builder
 public class MarketLenders
 {
     String market;
-    List<Lender> lenders;
+
+    long version;
+
+    /**
+     * Modification time of the file the book was loaded from, or minus the version for a book published through the
+     * admin API so that no two published books look alike
+     */
+    long sourceLastModified;
+
+    /**
+     * True for a book published through the admin API, which takes precedence over the market file
+     */
+    boolean published;
+
+    LenderBook book;
+
+    LoanQuoteCalculator calculator;
+
+    LoanQuoteTable quotes;
+
+    ProposalTemplates proposals;
+
+    /**
+     * @return the lenders in the order the calculator uses them, as beans created on access
+     */
+    public List<Lender> getLenders()
+    {
+        return book.asList();
+    }
 }
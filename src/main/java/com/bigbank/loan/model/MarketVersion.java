@@ -0,0 +1,38 @@
+package com.bigbank.loan.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+
+/**
+ * Book a market is quoted from, proposals carry its <code>version</code> as <code>marketVersion</code>
+ */
+@Data
+@Builder
+public class MarketVersion
+{
+
+    String market;
+
+    long version;
+
+    /**
+     * True if the book was published through the admin API, false if it was loaded from the market file
+     */
+    boolean published;
+
+    int lenders;
+
+    long availableAmount;
+
+    public static MarketVersion of(MarketLenders snapshot)
+    {
+        return MarketVersion.builder()
+                .market(snapshot.getMarket())
+                .version(snapshot.getVersion())
+                .published(snapshot.isPublished())
+                .lenders(snapshot.getBook().size())
+                .availableAmount(snapshot.getBook().getTotalAmount())
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.bigbank.loan.model;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import com.bigbank.loan.engine.quote.LoanQuoteTable;
+
+
+/**
+ * Proposals of one market version without their loan id, one per allowed amount, rendered by the first request for
+ * the amount and then shared. A request only copies the template and sets its own loan id.
+ */
+public class ProposalTemplates
+{
+
+    private final LoanQuoteTable quotes;
+
+    private final AtomicReferenceArray<LoanProposal> templates;
+
+    public ProposalTemplates(LoanQuoteTable quotes)
+    {
+        this.quotes = quotes;
+        this.templates = new AtomicReferenceArray<>(quotes.capacity());
+    }
+
+    /**
+     * @return the template of the amount, rendered now if it is the first request for it or is not an allowed amount
+     */
+    public LoanProposal get(int loanAmount, Supplier<LoanProposal> renderer)
+    {
+        int index = quotes.indexOf(loanAmount);
+
+        if (index < 0)
+        {
+            return renderer.get();
+        }
+
+        LoanProposal template = templates.get(index);
+
+        if (template == null)
+        {
+            // concurrent first requests render equal templates, whichever is kept does not matter
+            template = renderer.get();
+
+            templates.lazySet(index, template);
+        }
+
+        return template;
+    }
+}
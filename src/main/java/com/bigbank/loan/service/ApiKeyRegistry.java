@@ -0,0 +1,395 @@
+package com.bigbank.loan.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import com.bigbank.loan.engine.quota.TokenBucket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+
+/**
+ * API keys of the partners and their request quotas, loaded from <code>http.api-keys-file</code> and reloaded when
+ * it changes. Without a file the single <code>http.api-key</code> is accepted, without a quota.
+ * <p>
+ * The file is a CSV with a <code>partner,key_sha256,requests_per_second,burst</code> header, where
+ * <code>key_sha256</code> is the hex SHA-256 of the key, so the file holds no usable secret. A rate of <code>0</code>
+ * means no quota. An optional <code>roles</code> column grants roles separated by <code>;</code>, such as
+ * <code>admin</code>. Keys are looked up by the hash of the presented key, so the lookup time tells nothing about the
+ * stored keys.
+ * <p>
+ * Without a file, <code>http.admin-api-key</code> adds an <code>admin</code> partner holding the admin role.
+ */
+@Component
+public class ApiKeyRegistry extends AbstractService
+{
+
+    public static final String REQUESTS_COUNTER = "loan.api.requests";
+
+    static final String DEFAULT_PARTNER = "default";
+
+    static final String UNKNOWN_PARTNER = "unknown";
+
+    static final String ADMIN_PARTNER = "admin";
+
+    public static final String ADMIN_ROLE = "ADMIN";
+
+    private static final List<String> HEADER = Arrays.asList("partner", "key_sha256", "requests_per_second", "burst");
+
+    private static final String ROLES_HEADER = "roles";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${http.api-keys-file:}")
+    private String apiKeysFile = "";
+
+    @Value("${http.api-key:TOKEN-ABC}")
+    private String defaultApiKey = "TOKEN-ABC";
+
+    @Value("${http.admin-api-key:}")
+    private String adminApiKey = "";
+
+    /**
+     * Clients by key hash, replaced as a whole on reload
+     */
+    private volatile Map<String, ApiClient> clients = Collections.emptyMap();
+
+    private long loadedLastModified;
+
+    private Counter rejected;
+
+    @PostConstruct
+    public void init()
+    {
+        rejected = counter(meterRegistry, UNKNOWN_PARTNER, "rejected");
+
+        if (apiKeysFile.isEmpty())
+        {
+            Map<String, ApiClient> single = new HashMap<>();
+
+            ApiClient client = new ApiClient(DEFAULT_PARTNER, hash(defaultApiKey), 0, 0, Collections.emptySet(), meterRegistry);
+            single.put(client.keyHash, client);
+
+            if (!adminApiKey.isEmpty())
+            {
+                ApiClient admin = new ApiClient(ADMIN_PARTNER, hash(adminApiKey), 0, 0, Collections.singleton(ADMIN_ROLE), meterRegistry);
+                single.put(admin.keyHash, admin);
+            }
+
+            clients = Collections.unmodifiableMap(single);
+
+            return;
+        }
+
+        loadedLastModified = lastModified();
+        clients = load();
+
+        log.info("Loaded {} API keys from {}", clients.size(), apiKeysFile);
+    }
+
+    /**
+     * Polls the key file and swaps in its new content. A file that cannot be parsed leaves the current keys in
+     * place. Partners whose key and quota did not change keep their bucket.
+     */
+    @Scheduled(fixedDelayString = "${http.api-keys-reload-interval-ms:10000}")
+    public void reload()
+    {
+        if (apiKeysFile.isEmpty())
+        {
+            return;
+        }
+
+        try
+        {
+            long lastModified = lastModified();
+
+            if (lastModified == loadedLastModified)
+            {
+                return;
+            }
+
+            clients = load();
+            loadedLastModified = lastModified;
+
+            log.info("Reloaded {} API keys from {}", clients.size(), apiKeysFile);
+        }
+        catch (RuntimeException e)
+        {
+            log.warn("API keys reload failed, keeping {} keys: {}", clients.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * @return the client owning the key, or null if the key is unknown
+     */
+    public ApiClient find(String apiKey)
+    {
+        ApiClient client = apiKey == null ? null : clients.get(hash(apiKey));
+
+        if (client == null)
+        {
+            rejected.increment();
+        }
+
+        return client;
+    }
+
+    public Collection<ApiClient> getClients()
+    {
+        return clients.values();
+    }
+
+    /**
+     * @return the lower case hex SHA-256 of the key
+     */
+    public static String hash(String apiKey)
+    {
+        try
+        {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(StandardCharsets.UTF_8));
+
+            char[] hex = new char[digest.length * 2];
+
+            for (int i = 0; i < digest.length; i++)
+            {
+                hex[2 * i] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+                hex[2 * i + 1] = HEX_DIGITS[digest[i] & 0xF];
+            }
+
+            return new String(hex);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Map<String, ApiClient> load()
+    {
+
+        Map<String, ApiClient> current = clients;
+        Map<String, ApiClient> loaded = new HashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(apiKeysFile), StandardCharsets.UTF_8))
+        {
+            int lineNumber = 0;
+            boolean header = true;
+            boolean roles = false;
+
+            for (String line = reader.readLine(); line != null; line = reader.readLine())
+            {
+                lineNumber++;
+
+                if (line.trim().isEmpty() || line.startsWith("#"))
+                {
+                    continue;
+                }
+
+                String[] fields = line.split(",", -1);
+
+                for (int i = 0; i < fields.length; i++)
+                {
+                    fields[i] = fields[i].trim();
+                }
+
+                if (header)
+                {
+                    // the roles column is optional, files written before it was added still load
+                    roles = fields.length == HEADER.size() + 1 && ROLES_HEADER.equals(fields[HEADER.size()]);
+
+                    if (!HEADER.equals(Arrays.asList(fields).subList(0, roles ? HEADER.size() : fields.length)))
+                    {
+                        throw new IllegalArgumentException("Invalid API keys file header, expected " + String.join(",", HEADER) + "[," + ROLES_HEADER + "]");
+                    }
+
+                    header = false;
+
+                    continue;
+                }
+
+                ApiClient client = parse(fields, roles, lineNumber);
+                ApiClient previous = current.get(client.keyHash);
+
+                // an unchanged partner keeps its bucket, so a reload does not refill everyone's quota
+                if (previous != null && previous.hasSameSettings(client))
+                {
+                    client = previous;
+                }
+
+                if (loaded.put(client.keyHash, client) != null)
+                {
+                    throw new IllegalArgumentException("Duplicate API key at line " + lineNumber);
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw new IllegalArgumentException("API keys file " + apiKeysFile + " cannot be read", e);
+        }
+
+        return Collections.unmodifiableMap(loaded);
+    }
+
+    private ApiClient parse(String[] fields, boolean roles, int lineNumber)
+    {
+        if (fields.length != HEADER.size() + (roles ? 1 : 0) || fields[0].isEmpty() || !fields[1].matches("[0-9a-f]{64}"))
+        {
+            throw new IllegalArgumentException("Invalid API key at line " + lineNumber);
+        }
+
+        try
+        {
+            double requestsPerSecond = Double.parseDouble(fields[2]);
+            int burst = Integer.parseInt(fields[3]);
+
+            if (requestsPerSecond < 0 || requestsPerSecond > 0 && burst <= 0)
+            {
+                throw new IllegalArgumentException("Invalid quota at line " + lineNumber);
+            }
+
+            return new ApiClient(fields[0], fields[1], requestsPerSecond, burst, roles ? parseRoles(fields[HEADER.size()]) : Collections.emptySet(), meterRegistry);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Invalid quota at line " + lineNumber, e);
+        }
+    }
+
+    private static Set<String> parseRoles(String field)
+    {
+        Set<String> roles = new LinkedHashSet<>();
+
+        for (String role : field.split(";"))
+        {
+            if (!role.trim().isEmpty())
+            {
+                roles.add(role.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+
+        return Collections.unmodifiableSet(roles);
+    }
+
+    private long lastModified()
+    {
+        try
+        {
+            return Files.getLastModifiedTime(Paths.get(apiKeysFile)).toMillis();
+        }
+        catch (IOException e)
+        {
+            throw new IllegalArgumentException("API keys file " + apiKeysFile + " cannot be read", e);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String partner, String outcome)
+    {
+        return Counter.builder(REQUESTS_COUNTER).tag("partner", partner).tag("outcome", outcome).register(meterRegistry);
+    }
+
+    /**
+     * A partner holding an API key, the authenticated principal of its requests
+     */
+    public static final class ApiClient implements AuthenticatedPrincipal
+    {
+
+        private final String partner;
+
+        private final String keyHash;
+
+        private final double requestsPerSecond;
+
+        private final int burst;
+
+        private final Set<String> roles;
+
+        /**
+         * null when the partner has no quota
+         */
+        private final TokenBucket bucket;
+
+        private final Counter accepted;
+
+        private final Counter throttled;
+
+        ApiClient(String partner, String keyHash, double requestsPerSecond, int burst, Set<String> roles, MeterRegistry meterRegistry)
+        {
+            this.partner = partner;
+            this.keyHash = keyHash;
+            this.requestsPerSecond = requestsPerSecond;
+            this.burst = burst;
+            this.roles = roles;
+            this.bucket = requestsPerSecond > 0 ? new TokenBucket(requestsPerSecond, burst) : null;
+            this.accepted = counter(meterRegistry, partner, "accepted");
+            this.throttled = counter(meterRegistry, partner, "throttled");
+        }
+
+        @Override
+        public String getName()
+        {
+            return partner;
+        }
+
+        /**
+         * @return the roles of the partner as Spring Security authorities, <code>ROLE_ADMIN</code> for
+         * <code>admin</code>
+         */
+        public List<GrantedAuthority> getAuthorities()
+        {
+            return roles.stream().map(role -> new SimpleGrantedAuthority("ROLE_" + role)).collect(Collectors.toList());
+        }
+
+        /**
+         * Counts a request against the quota of the partner
+         * @return 0 if the request is within the quota, otherwise the nanoseconds until it would be
+         */
+        public long tryAcquire()
+        {
+            long wait = bucket == null ? 0 : bucket.tryAcquire();
+
+            (wait == 0 ? accepted : throttled).increment();
+
+            return wait;
+        }
+
+        private boolean hasSameSettings(ApiClient other)
+        {
+            return partner.equals(other.partner) && requestsPerSecond == other.requestsPerSecond && burst == other.burst && roles.equals(other.roles);
+        }
+
+        @Override
+        public String toString()
+        {
+            return partner;
+        }
+    }
+}
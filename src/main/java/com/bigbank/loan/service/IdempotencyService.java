@@ -0,0 +1,130 @@
+package com.bigbank.loan.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bigbank.loan.excetpion.IdempotencyKeyConflict;
+import com.bigbank.loan.excetpion.InvalidLoanSubmissionException;
+import com.bigbank.loan.model.LoanProposal;
+import com.bigbank.loan.model.LoanSubmission;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+
+/**
+ * Replays the first proposal quoted for an <code>Idempotency-Key</code>, so a retried request neither recomputes the
+ * quote nor mints a new loan id. Keys are scoped by caller and bound to the submission they were first used with.
+ */
+@Component
+public class IdempotencyService extends AbstractService
+{
+
+    public static final String CACHE_NAME = "loan.idempotency";
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${loan.idempotency.max-entries:100000}")
+    private long maxEntries = 100_000;
+
+    @Value("${loan.idempotency.ttl-ms:600000}")
+    private long ttlMillis = 600_000;
+
+    private Cache<String, StoredProposal> proposals;
+
+    @PostConstruct
+    public void init()
+    {
+        proposals = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, proposals, CACHE_NAME);
+    }
+
+    /**
+     * Quotes a submission once per key: the first request computes the proposal, requests arriving while it is in
+     * flight wait for it and later ones get it back until it expires. A failed quote is not kept, so its retry
+     * computes again.
+     */
+    public LoanProposal calculate(String caller, String idempotencyKey, LoanSubmission submission)
+    {
+
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH)
+        {
+            throw new InvalidLoanSubmissionException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String key = caller + '\n' + idempotencyKey;
+
+        StoredProposal created = new StoredProposal(submission);
+        StoredProposal stored = proposals.get(key, k -> created);
+
+        if (!stored.submission.equals(submission))
+        {
+            throw new IdempotencyKeyConflict("Idempotency-Key was already used with a different submission");
+        }
+
+        if (stored == created)
+        {
+            try
+            {
+                created.proposal.complete(loanService.calculate(submission));
+            }
+            catch (Throwable e)
+            {
+                // an Error too, or the waiting retries would block on a future that never completes
+                proposals.asMap().remove(key, created);
+                created.proposal.completeExceptionally(e);
+
+                throw e;
+            }
+        }
+
+        try
+        {
+            // a quote from a loaded market takes microseconds, and the reactive controllers move the requests that load
+            // their market off the event loop, so a duplicate in flight is waited for briefly even on an event loop
+            return stored.proposal.join();
+        }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof Error)
+            {
+                throw (Error) e.getCause();
+            }
+
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private static final class StoredProposal
+    {
+
+        private final LoanSubmission submission;
+
+        private final CompletableFuture<LoanProposal> proposal = new CompletableFuture<>();
+
+        private StoredProposal(LoanSubmission submission)
+        {
+            this.submission = submission;
+        }
+    }
+}
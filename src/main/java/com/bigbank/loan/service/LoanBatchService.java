@@ -0,0 +1,236 @@
+package com.bigbank.loan.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.bigbank.loan.model.LoanBatchResult;
+import com.bigbank.loan.model.LoanSubmission;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+
+/**
+ * Quotes a stream of submissions, writing one result per line as soon as it is ready and in submission order
+ */
+@Component
+public class LoanBatchService extends AbstractService
+{
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${loan.batch.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximum number of submissions of one batch being quoted or waiting to be written, which bounds its memory
+     */
+    @Value("${loan.batch.window:256}")
+    private int window = 256;
+
+    private ExecutorService executor;
+
+    private Scheduler scheduler;
+
+    @PostConstruct
+    public void init()
+    {
+        AtomicInteger threadCount = new AtomicInteger();
+
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "loan-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler = Schedulers.fromExecutorService(executor);
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Reads a JSON array or newline-delimited JSON objects and writes a newline-delimited <code>LoanBatchResult</code>
+     * for each of them
+     */
+    public void calculate(InputStream input, OutputStream output) throws IOException
+    {
+
+        Deque<CompletableFuture<LoanBatchResult>> pending = new ArrayDeque<>(window);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(input);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(output))
+        {
+
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            JsonToken token = parser.nextToken();
+
+            // a JSON array holds the submissions, otherwise they follow each other at the root
+            boolean array = token == JsonToken.START_ARRAY;
+
+            if (array)
+            {
+                token = parser.nextToken();
+            }
+
+            int index = 0;
+
+            try
+            {
+                while (token != null && token != JsonToken.END_ARRAY)
+                {
+                    // a syntax error ends the batch, a submission that does not bind only fails its own line
+                    JsonNode node = parser.readValueAsTree();
+
+                    int itemIndex = index++;
+
+                    if (pending.size() == window)
+                    {
+                        write(generator, pending.removeFirst());
+                    }
+
+                    pending.addLast(CompletableFuture.supplyAsync(() -> calculate(itemIndex, node), executor));
+
+                    token = parser.nextToken();
+                }
+            }
+            catch (JsonProcessingException e)
+            {
+                drain(generator, pending);
+
+                generator.writeObject(malformed(index, e.getOriginalMessage()));
+                generator.writeRaw('\n');
+
+                return;
+            }
+
+            drain(generator, pending);
+        }
+    }
+
+    /**
+     * Reactive variant of <code>calculate(InputStream, OutputStream)</code>: quotes decoded submissions on the batch
+     * threads, at most <code>window</code> at a time, and emits their results in submission order
+     */
+    public Flux<LoanBatchResult> calculate(Flux<JsonNode> submissions)
+    {
+
+        AtomicInteger received = new AtomicInteger();
+
+        return submissions
+                .doOnNext(node -> received.incrementAndGet())
+                .index()
+                .flatMapSequentialDelayError(item -> Mono
+                        .fromCallable(() -> calculate(item.getT1().intValue(), item.getT2()))
+                        .subscribeOn(scheduler), window, 1)
+                // like a syntax error in a stream, a body that cannot be decoded ends the batch after the results so far
+                .onErrorResume(DecodingException.class, e -> Mono.just(malformed(received.get(), e.getCause() instanceof JsonProcessingException
+                        ? ((JsonProcessingException) e.getCause()).getOriginalMessage()
+                        : e.getMessage())));
+    }
+
+    private LoanBatchResult malformed(int index, String message)
+    {
+        return LoanBatchResult.builder().index(index).status(HttpStatus.BAD_REQUEST.value()).error("Malformed batch: " + message).build();
+    }
+
+    private void drain(JsonGenerator generator, Deque<CompletableFuture<LoanBatchResult>> pending) throws IOException
+    {
+        while (!pending.isEmpty())
+        {
+            write(generator, pending.removeFirst());
+        }
+    }
+
+    private void write(JsonGenerator generator, CompletableFuture<LoanBatchResult> result) throws IOException
+    {
+        // send what is ready before waiting for the next result
+        if (!result.isDone())
+        {
+            generator.flush();
+        }
+
+        generator.writeObject(result.join());
+        generator.writeRaw('\n');
+    }
+
+    private LoanBatchResult calculate(int index, JsonNode node)
+    {
+
+        LoanBatchResult.LoanBatchResultBuilder result = LoanBatchResult.builder().index(index);
+
+        try
+        {
+            LoanSubmission submission = objectMapper.treeToValue(node, LoanSubmission.class);
+
+            Set<ConstraintViolation<LoanSubmission>> violations = validator.validate(submission);
+
+            if (!violations.isEmpty())
+            {
+                String error = violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
+
+                return result.status(HttpStatus.BAD_REQUEST.value()).error(error).build();
+            }
+
+            return result.status(HttpStatus.OK.value()).proposal(loanService.calculate(submission)).build();
+        }
+        catch (JsonProcessingException e)
+        {
+            return result.status(HttpStatus.BAD_REQUEST.value()).error(e.getOriginalMessage()).build();
+        }
+        catch (RuntimeException e)
+        {
+            ResponseStatus status = AnnotationUtils.findAnnotation(e.getClass(), ResponseStatus.class);
+
+            if (status == null)
+            {
+                log.error("Batch item {} failed", index, e);
+
+                return result.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).error("Internal error").build();
+            }
+
+            return result.status(status.value().value()).error(e.getMessage()).build();
+        }
+    }
+}
@@ -2,7 +2,7 @@ package com.bigbank.loan.service;
 
 import static org.springframework.beans.factory.config.BeanDefinition.SCOPE_PROTOTYPE;
 
-import java.util.List;
+import java.util.function.Supplier;
 
 import javax.annotation.PostConstruct;
 
@@ -10,10 +10,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
-import com.bigbank.loan.engine.quote.Lender;
+import com.bigbank.loan.engine.quote.AmortizationSchedule;
 import com.bigbank.loan.engine.quote.LoanQuote;
 import com.bigbank.loan.engine.quote.LoanQuoteCalculator;
+import com.bigbank.loan.engine.quote.LoanQuoteTable;
+import com.bigbank.loan.model.LoanProposal;
 import com.bigbank.loan.model.LoanSubmission;
+import com.bigbank.loan.model.MarketLenders;
+import com.bigbank.loan.model.ProposalTemplates;
 
 
 @Component
@@ -27,6 +31,14 @@ public class LoanEngine
 
     private LoanQuoteCalculator calculator;
 
+    private LoanQuoteTable quotes;
+
+    private ProposalTemplates proposals;
+
+    private long loadNanos;
+
+    private long marketVersion;
+
     public LoanEngine(String market)
     {
         engineMarket = market;
@@ -35,14 +47,84 @@ public class LoanEngine
     @PostConstruct
     public void init()
     {
-        List<Lender> lenders = marketDataSource.find(engineMarket);
+        long start = System.nanoTime();
+
+        MarketLenders snapshot = marketDataSource.snapshot(engineMarket);
+
+        calculator = snapshot.getCalculator();
+        quotes = snapshot.getQuotes();
+        proposals = snapshot.getProposals();
+        marketVersion = snapshot.getVersion();
+
+        loadNanos = System.nanoTime() - start;
+    }
 
-        calculator = new LoanQuoteCalculator(lenders);
+    /**
+     * Time the engine spent fetching its market data while it was built
+     */
+    public long getLoadNanos()
+    {
+        return loadNanos;
+    }
+
+    /**
+     * Version of the market data the engine quotes from
+     */
+    public long getMarketVersion()
+    {
+        return marketVersion;
+    }
+
+    /**
+     * Lenders of the market
+     */
+    public int getLenderCount()
+    {
+        return calculator.getLenderCount();
+    }
+
+    /**
+     * Lenders a loan of the amount is split across
+     */
+    public int getLenderCount(int amount)
+    {
+        return calculator.getAllocatedLenderCount(amount);
     }
 
     public LoanQuote getQuote(LoanSubmission submission)
     {
-        return calculator.getQuote(submission.getAmount());
+        return quotes.getQuote(submission.getAmount());
+    }
+
+    /**
+     * Quotes every term of the submission from a single allocation of the lenders
+     */
+    public LoanQuote[] getQuotes(LoanSubmission submission)
+    {
+        int[] terms = new int[submission.getTerms().size()];
+
+        for (int i = 0; i < terms.length; i++)
+        {
+            terms[i] = submission.getTerms().get(i);
+        }
+
+        return calculator.getQuotes(submission.getAmount(), terms);
+    }
+
+    /**
+     * Month by month repayments of a loan, computed as they are read
+     */
+    public AmortizationSchedule getSchedule(int amount, int term)
+    {
+        return calculator.getSchedule(amount, term);
+    }
+
+    /**
+     * Proposal without loan id shared by every request for the same amount on the market version of this engine
+     */
+    public LoanProposal getProposalTemplate(LoanSubmission submission, Supplier<LoanProposal> renderer)
+    {
+        return proposals.get(submission.getAmount(), renderer);
     }
 
 }
@@ -3,6 +3,8 @@ package com.bigbank.loan.service;
 import org.springframework.beans.factory.annotation.Lookup;
 import org.springframework.stereotype.Component;
 
+import com.bigbank.loan.jfr.EngineBuildEvent;
+
 
 @Component
 public abstract class LoanEngineManager
@@ -12,6 +14,22 @@ public abstract class LoanEngineManager
         return buildEngine(market);
     }
 
+    /**
+     * Builds the engine of a request for an amount, recorded as a Flight Recorder event
+     */
+    public LoanEngine getEngine(String market, int amount)
+    {
+        EngineBuildEvent event = new EngineBuildEvent();
+        event.begin();
+
+        LoanEngine engine = buildEngine(market);
+
+        event.setMarketVersion(engine.getMarketVersion());
+        event.commit(market, amount, engine.getLenderCount());
+
+        return engine;
+    }
+
     @Lookup
     public abstract LoanEngine buildEngine(String market);
 }
@@ -0,0 +1,241 @@
+package com.bigbank.loan.service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bigbank.loan.engine.id.LoanIdGenerator;
+import com.bigbank.loan.engine.reservation.CapacityLedger;
+import com.bigbank.loan.engine.reservation.Reservation;
+import com.bigbank.loan.engine.reservation.TimingWheel;
+import com.bigbank.loan.excetpion.InvalidReservationId;
+import com.bigbank.loan.excetpion.InvalidReservationState;
+import com.bigbank.loan.model.LoanProposal;
+import com.bigbank.loan.model.LoanReservation;
+import com.bigbank.loan.model.LoanSubmission;
+import com.bigbank.loan.model.MarketLenders;
+
+
+/**
+ * Holds lender capacity for accepted quotes until they are committed, released or expire
+ */
+@Component
+public class LoanReservationService extends AbstractService
+{
+
+    private static final int EXPIRY_WHEEL_SIZE = 512;
+
+    @Autowired
+    private MarketDataSource marketDataSource;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanIdGenerator loanIdGenerator;
+
+    @Value("${loan.reservation.ttl-ms:60000}")
+    private long ttlMillis;
+
+    @Value("${loan.reservation.tick-ms:100}")
+    private long tickMillis;
+
+    /**
+     * Ledger of the current book of each market, a new book version starts a new ledger with full capacity. The ledger
+     * of an unloaded market is dropped once nothing is held from it, so it does not keep the book in memory.
+     */
+    private final Map<String, MarketLedger> ledgers = new ConcurrentHashMap<>();
+
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    private TimingWheel expirations;
+
+    @PostConstruct
+    public void init()
+    {
+        expirations = new TimingWheel(tickMillis, EXPIRY_WHEEL_SIZE, "loan-reservation-expiry");
+
+        marketDataSource.addUnloadListener(this::unloaded);
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        expirations.close();
+    }
+
+    public LoanReservation accept(LoanSubmission submission)
+    {
+
+        loanService.doFormalValidation(submission);
+
+        String reservationId = loanIdGenerator.nextId();
+
+        Reservation reservation = ledger(submission.getMarket()).hold(reservationId, submission.getAmount(), System.currentTimeMillis() + ttlMillis);
+
+        reservations.put(reservationId, reservation);
+
+        expirations.schedule(() -> expire(reservation), ttlMillis);
+
+        return render(reservation);
+    }
+
+    public LoanReservation commit(String reservationId)
+    {
+
+        Reservation reservation = find(reservationId);
+
+        if (!reservation.commit())
+        {
+            throw new InvalidReservationState("Reservation is " + reservation.getStatus());
+        }
+
+        reservations.remove(reservationId);
+        settled(reservation);
+
+        return render(reservation);
+    }
+
+    public LoanReservation release(String reservationId)
+    {
+
+        Reservation reservation = find(reservationId);
+
+        if (!reservation.release())
+        {
+            throw new InvalidReservationState("Reservation is " + reservation.getStatus());
+        }
+
+        reservations.remove(reservationId);
+        settled(reservation);
+
+        return render(reservation);
+    }
+
+    private void expire(Reservation reservation)
+    {
+        if (reservation.expire())
+        {
+            reservations.remove(reservation.getId());
+            settled(reservation);
+
+            log.debug("Reservation {} expired", reservation.getId());
+        }
+    }
+
+    /**
+     * Drops the ledger of a market that is no longer loaded, unless amounts are still held from it
+     */
+    private void unloaded(String market)
+    {
+        ledgers.computeIfPresent(market, (key, current) -> {
+
+            current.unloaded = true;
+
+            return current.ledger.getHeldCount() > 0 ? current : null;
+        });
+    }
+
+    /**
+     * Drops the ledger of an unloaded market with its last hold
+     */
+    private void settled(Reservation reservation)
+    {
+        CapacityLedger ledger = reservation.getLedger();
+        String market = ledger.getCalculator().getMarket();
+
+        if (market != null && ledger.getHeldCount() == 0)
+        {
+            ledgers.computeIfPresent(market, (key, current) -> current.ledger == ledger && current.unloaded && ledger.getHeldCount() == 0 ? null : current);
+        }
+    }
+
+    private Reservation find(String reservationId)
+    {
+        Reservation reservation = reservations.get(reservationId);
+
+        if (reservation == null)
+        {
+            throw new InvalidReservationId("Reservation not found or no longer held");
+        }
+
+        return reservation;
+    }
+
+    private CapacityLedger ledger(String market)
+    {
+        MarketLenders snapshot = marketDataSource.snapshot(market);
+
+        MarketLedger ledger = ledgers.get(market);
+
+        if (ledger != null && ledger.isFor(snapshot) && !ledger.unloaded)
+        {
+            return ledger.ledger;
+        }
+
+        // only the first request after a reload builds the ledger
+        return ledgers.compute(market, (key, current) -> {
+
+            if (current != null && current.isFor(snapshot))
+            {
+                // loaded again while amounts were still held
+                current.unloaded = false;
+
+                return current;
+            }
+
+            return new MarketLedger(snapshot);
+        }).ledger;
+    }
+
+    private LoanReservation render(Reservation reservation)
+    {
+
+        LoanProposal.LoanProposalBuilder builder = LoanProposal.builder();
+
+        builder.loanId(reservation.getId());
+        builder.requestedAmount(String.valueOf(reservation.getQuote().getLoanAmount()));
+
+        return LoanReservation.builder()
+                .reservationId(reservation.getId())
+                .status(reservation.getStatus().name())
+                .expiresAt(Instant.ofEpochMilli(reservation.getExpiresAtMillis()).toString())
+                .proposal(loanService.render(reservation.getQuote(), builder))
+                .build();
+    }
+
+    private static final class MarketLedger
+    {
+
+        private final long sourceLastModified;
+
+        private final CapacityLedger ledger;
+
+        /**
+         * Set once the market was evicted or left the catalog while amounts were held
+         */
+        private volatile boolean unloaded;
+
+        MarketLedger(MarketLenders snapshot)
+        {
+            this.sourceLastModified = snapshot.getSourceLastModified();
+            this.ledger = new CapacityLedger(snapshot.getCalculator());
+        }
+
+        /**
+         * A market evicted from the catalog and loaded again from the same file keeps its holds, as long as any are
+         * left when it is evicted
+         */
+        boolean isFor(MarketLenders snapshot)
+        {
+            return ledger.getCalculator() == snapshot.getCalculator() || sourceLastModified == snapshot.getSourceLastModified();
+        }
+    }
+}
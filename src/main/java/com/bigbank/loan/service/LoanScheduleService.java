@@ -0,0 +1,102 @@
+package com.bigbank.loan.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.stereotype.Component;
+
+import com.bigbank.loan.engine.quote.AmortizationSchedule;
+import com.bigbank.loan.engine.quote.AnnuityFactors;
+import com.bigbank.loan.engine.quote.LoanQuoteApplication;
+import com.bigbank.loan.excetpion.InvalidLoanSubmissionException;
+import com.bigbank.loan.model.AmortizationScheduleWriter;
+
+import reactor.core.publisher.Flux;
+
+
+/**
+ * Month by month repayments of a loan, written as they are computed
+ */
+@Component
+public class LoanScheduleService extends AbstractService
+{
+
+    // the amounts the quote tables are built for, the same as a quote request
+    private static final int MIN_AMOUNT = LoanQuoteApplication.MIN_LOAN_AMOUNT;
+
+    private static final int MAX_AMOUNT = LoanQuoteApplication.MAX_LOAN_AMOUNT;
+
+    private static final int LOAN_AMOUNT_INCREMENT = LoanQuoteApplication.LOAN_AMOUNT_INCREMENT;
+
+    @Autowired
+    private LoanEngineManager loanEngineManager;
+
+    /**
+     * Validates the request and allocates the loan, so that errors are answered before the first row is sent
+     */
+    public AmortizationSchedule getSchedule(String market, Integer amount, Integer term)
+    {
+
+        if (amount == null || amount < MIN_AMOUNT || amount > MAX_AMOUNT)
+        {
+            throw new InvalidLoanSubmissionException("Loan amount must be in the " + MIN_AMOUNT + ".." + MAX_AMOUNT + " range");
+        }
+
+        if (amount % LOAN_AMOUNT_INCREMENT != 0)
+        {
+            throw new InvalidLoanSubmissionException("Amount must be in " + LOAN_AMOUNT_INCREMENT + " increments");
+        }
+
+        if (term == null || term < 1 || term > AnnuityFactors.MAX_TERM)
+        {
+            throw new InvalidLoanSubmissionException("Term must be 1 to " + AnnuityFactors.MAX_TERM + " months");
+        }
+
+        return loanEngineManager.getEngine(market, amount).getSchedule(amount, term);
+    }
+
+    /**
+     * Writes the schedule chunk by chunk, the writer buffer being the only text held
+     */
+    public void write(AmortizationScheduleWriter schedule, OutputStream output) throws IOException
+    {
+
+        Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        StringBuilder chunk = new StringBuilder();
+
+        while (schedule.nextChunk(chunk))
+        {
+            writer.append(chunk);
+            chunk.setLength(0);
+        }
+
+        writer.flush();
+    }
+
+    /**
+     * Reactive variant of <code>write</code>: one buffer per chunk, computed when the response asks for it
+     */
+    public Flux<DataBuffer> write(AmortizationScheduleWriter schedule, DataBufferFactory bufferFactory)
+    {
+
+        return Flux.generate(sink -> {
+
+            StringBuilder chunk = new StringBuilder();
+
+            if (schedule.nextChunk(chunk))
+            {
+                sink.next(bufferFactory.wrap(chunk.toString().getBytes(StandardCharsets.UTF_8)));
+            }
+            else
+            {
+                sink.complete();
+            }
+        });
+    }
+}
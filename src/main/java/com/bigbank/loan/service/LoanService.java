@@ -1,14 +1,27 @@
 package com.bigbank.loan.service;
 
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.bigbank.loan.engine.id.LoanIdGenerator;
 import com.bigbank.loan.engine.quote.LoanQuote;
+import com.bigbank.loan.engine.quote.LoanQuoteApplication;
 import com.bigbank.loan.excetpion.InvalidLoanSubmissionException;
+import com.bigbank.loan.jfr.RenderEvent;
 import com.bigbank.loan.model.LoanProposal;
+import com.bigbank.loan.model.LoanProposalJson;
 import com.bigbank.loan.model.LoanSubmission;
+import com.bigbank.loan.model.LoanTermQuote;
+import com.bigbank.loan.service.QuoteMetrics.Outcome;
+import com.bigbank.loan.service.QuoteMetrics.QuoteStages;
+import com.bigbank.loan.service.QuoteMetrics.Stage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 
 @Component
@@ -17,29 +30,167 @@ public class LoanService extends AbstractService
 
     private static final String DEFAULT_CURRENCY_SIGN = "£";
 
-    private static final Integer LOAN_AMOUNT_INCREMENT = 100;
+    private static final int LOAN_AMOUNT_INCREMENT = LoanQuoteApplication.LOAN_AMOUNT_INCREMENT;
+
+    private static final int MIN_TERM_MONTHS = 12;
+
+    private static final int MAX_TERM_MONTHS = 60;
+
+    private static final int TERM_INCREMENT_MONTHS = 12;
 
     @Autowired
     private LoanEngineManager loanEngineManager;
 
+    @Autowired
+    private QuoteMetrics quoteMetrics;
+
+    @Autowired
+    private LoanIdGenerator loanIdGenerator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     public LoanProposal calculate(LoanSubmission submission)
+    {
+        return calculate(submission, true);
+    }
+
+    /**
+     * Quotes a submission like <code>calculate</code> without recording it in the quote metrics, for synthetic
+     * traffic that would skew them
+     */
+    public LoanProposal warmUp(LoanSubmission submission)
+    {
+        return calculate(submission, false);
+    }
+
+    private LoanProposal calculate(LoanSubmission submission, boolean recorded)
     {
 
-        doFormalValidation(submission);
+        QuoteStages stages = new QuoteStages();
 
-        LoanProposal.LoanProposalBuilder builder = LoanProposal.builder();
+        // the market tag is only trusted once the market resolved to an engine
+        String market = QuoteMetrics.NO_MARKET;
+        Outcome outcome = Outcome.SUCCESS;
 
-        builder.loanId(UUID.randomUUID().toString());
-        builder.requestedAmount(String.valueOf(submission.getAmount()));
+        try
+        {
+            doFormalValidation(submission);
 
-        LoanEngine loanEngine = loanEngineManager.buildEngine(submission.getMarket());
+            stages.mark(Stage.VALIDATION);
 
-        LoanQuote quote = loanEngine.getQuote(submission);
+            LoanEngine loanEngine = loanEngineManager.getEngine(submission.getMarket(), submission.getAmount());
 
-        return render(quote, builder);
+            stages.mark(Stage.ENGINE_BUILD);
+            stages.split(Stage.ENGINE_BUILD, Stage.DATA_LOAD, loanEngine.getLoadNanos());
+            market = submission.getMarket();
+
+            if (submission.getTerms() != null)
+            {
+                return calculateTerms(submission, loanEngine, stages);
+            }
+
+            LoanQuote quote = loanEngine.getQuote(submission);
+
+            stages.mark(Stage.QUOTE);
+
+            RenderEvent renderEvent = new RenderEvent();
+            renderEvent.begin();
+
+            // the rendered fields only depend on the market version and the amount, the loan id is the only new value
+            LoanProposal template = loanEngine.getProposalTemplate(submission, () -> renderTemplate(quote, loanEngine.getMarketVersion()));
+
+            LoanProposal proposal = template.toBuilder().loanId(loanIdGenerator.nextId()).build();
+
+            stages.mark(Stage.RENDER);
+            commit(renderEvent, submission, loanEngine, 1);
+
+            return proposal;
+        }
+        catch (RuntimeException e)
+        {
+            outcome = Outcome.of(e);
+
+            throw e;
+        }
+        finally
+        {
+            stages.finish();
+
+            if (recorded)
+            {
+                quoteMetrics.record(market, outcome, stages);
+            }
+        }
     }
 
-    private LoanProposal render(LoanQuote quote, LoanProposal.LoanProposalBuilder builder)
+    /**
+     * Quotes a menu of terms, the top level fields of the proposal being those of the first term
+     */
+    private LoanProposal calculateTerms(LoanSubmission submission, LoanEngine loanEngine, QuoteStages stages)
+    {
+
+        LoanQuote[] quotes = loanEngine.getQuotes(submission);
+
+        stages.mark(Stage.QUOTE);
+
+        RenderEvent renderEvent = new RenderEvent();
+        renderEvent.begin();
+
+        List<LoanTermQuote> termQuotes = new ArrayList<>(quotes.length);
+
+        for (LoanQuote quote : quotes)
+        {
+            termQuotes.add(LoanTermQuote.builder()
+                    .term(quote.getRepaymentMonths())
+                    .rate(quote.getRate().toPlainString())
+                    .monthlyRepayment(quote.getMonthlyRepayment().toPlainString())
+                    .totalRepayment(quote.getTotalRepayment().toPlainString())
+                    .build());
+        }
+
+        LoanProposal proposal = render(quotes[0], LoanProposal.builder()
+                .loanId(loanIdGenerator.nextId())
+                .requestedAmount(String.valueOf(submission.getAmount()))
+                .quotes(termQuotes)
+                .marketVersion(loanEngine.getMarketVersion()));
+
+        stages.mark(Stage.RENDER);
+        commit(renderEvent, submission, loanEngine, quotes.length);
+
+        return proposal;
+    }
+
+    private static void commit(RenderEvent renderEvent, LoanSubmission submission, LoanEngine loanEngine, int terms)
+    {
+        renderEvent.setTerms(terms);
+
+        // the quotes come from the table of the market, the lenders are only counted when the event is recorded
+        renderEvent.commit(submission.getMarket(), submission.getAmount(), renderEvent.isEnabled() ? loanEngine.getLenderCount(submission.getAmount()) : 0);
+    }
+
+    /**
+     * @return the proposal of a quote without loan id, with its JSON fragment for <code>LoanProposalJson</code>
+     */
+    LoanProposal renderTemplate(LoanQuote quote, long marketVersion)
+    {
+
+        LoanProposal template = render(quote, LoanProposal.builder().requestedAmount(String.valueOf(quote.getLoanAmount())).marketVersion(marketVersion));
+
+        try
+        {
+            template.setFragment(LoanProposalJson.fragment(objectMapper, template));
+        }
+        catch (JsonProcessingException e)
+        {
+            // the proposal is then written by Jackson as a whole
+            log.warn("Proposal fragment of {} cannot be rendered: {}", quote.getLoanAmount(), e.getMessage());
+        }
+
+        return template;
+    }
+
+    LoanProposal render(LoanQuote quote, LoanProposal.LoanProposalBuilder builder)
     {
 
         builder.rate(quote.getRate().toPlainString());
@@ -51,12 +202,30 @@ public class LoanService extends AbstractService
         return builder.build();
     }
 
-    private void doFormalValidation(LoanSubmission submission)
+    void doFormalValidation(LoanSubmission submission)
     {
 
         if (submission.getAmount() % LOAN_AMOUNT_INCREMENT != 0)
         {
             throw new InvalidLoanSubmissionException("Amount must be in " + LOAN_AMOUNT_INCREMENT + " increments");
         }
+
+        if (submission.getTerms() != null)
+        {
+            Set<Integer> terms = new HashSet<>();
+
+            for (Integer term : submission.getTerms())
+            {
+                if (term == null || term < MIN_TERM_MONTHS || term > MAX_TERM_MONTHS || term % TERM_INCREMENT_MONTHS != 0)
+                {
+                    throw new InvalidLoanSubmissionException("Terms must be " + MIN_TERM_MONTHS + " to " + MAX_TERM_MONTHS + " months in " + TERM_INCREMENT_MONTHS + " month increments");
+                }
+
+                if (!terms.add(term))
+                {
+                    throw new InvalidLoanSubmissionException("Terms must not repeat");
+                }
+            }
+        }
     }
 }
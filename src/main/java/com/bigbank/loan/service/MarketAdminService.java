@@ -0,0 +1,116 @@
+package com.bigbank.loan.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.bigbank.loan.engine.quote.Lender;
+import com.bigbank.loan.engine.quote.LenderColumns;
+import com.bigbank.loan.engine.quote.LenderCsvReader;
+import com.bigbank.loan.excetpion.InvalidMarketData;
+import com.bigbank.loan.excetpion.InvalidMarketUpdate;
+import com.bigbank.loan.model.MarketVersion;
+
+
+/**
+ * Replaces the whole lender list of a market without a restart. The list is validated and its book built before it
+ * is published, a rejected list leaves the current book in place.
+ */
+@Component
+public class MarketAdminService extends AbstractService
+{
+
+    @Autowired
+    private MarketDataSource marketDataSource;
+
+    public MarketVersion getVersion(String market)
+    {
+        return MarketVersion.of(marketDataSource.snapshot(market));
+    }
+
+    /**
+     * Publishes lenders given in the format of the market files
+     */
+    public MarketVersion publishCsv(String market, byte[] csv)
+    {
+
+        LenderColumns lenders;
+
+        try
+        {
+            lenders = LenderCsvReader.read(new ByteArrayInputStream(csv == null ? new byte[0] : csv));
+        }
+        catch (InvalidMarketData e)
+        {
+            // unlike a broken market file, the line number is for the caller this time
+            throw new InvalidMarketUpdate(e.getMessage(), e);
+        }
+        catch (IOException e)
+        {
+            throw new InvalidMarketUpdate("Lenders cannot be read", e);
+        }
+
+        return publish(market, lenders);
+    }
+
+    /**
+     * Publishes lenders given as a JSON array of <code>{"name", "rate", "amount"}</code> objects
+     */
+    public MarketVersion publish(String market, List<Lender> lenders)
+    {
+
+        if (lenders == null)
+        {
+            throw new InvalidMarketUpdate("Lenders are missing");
+        }
+
+        LenderColumns columns = new LenderColumns();
+
+        for (int i = 0; i < lenders.size(); i++)
+        {
+            Lender lender = lenders.get(i);
+
+            if (lender == null || lender.getName() == null || lender.getName().trim().isEmpty())
+            {
+                throw new InvalidMarketUpdate("Lender " + i + " has no name");
+            }
+
+            if (lender.getRate() == null || lender.getRate().signum() < 0)
+            {
+                throw new InvalidMarketUpdate("Lender " + i + " rate is not a non-negative decimal");
+            }
+
+            if (lender.getAmount() < 0)
+            {
+                throw new InvalidMarketUpdate("Lender " + i + " amount is not a non-negative integer");
+            }
+
+            try
+            {
+                columns.add(lender.getName(), LenderColumns.toUnscaled(lender.getRate()), lender.getAmount());
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new InvalidMarketUpdate("Lender " + i + " " + e.getMessage(), e);
+            }
+        }
+
+        return publish(market, columns);
+    }
+
+    /**
+     * Withdraws the published lenders of a market, which is quoted from its file again
+     */
+    public MarketVersion withdraw(String market)
+    {
+        return MarketVersion.of(marketDataSource.unpublish(market));
+    }
+
+    private MarketVersion publish(String market, LenderColumns lenders)
+    {
+        return MarketVersion.of(marketDataSource.publish(market, lenders));
+    }
+}
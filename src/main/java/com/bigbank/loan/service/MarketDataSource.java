@@ -1,76 +1,777 @@
 package com.bigbank.loan.service;
 
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
-import org.springframework.core.io.ClassPathResource;
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import com.bigbank.loan.engine.NumericEngine;
 import com.bigbank.loan.engine.quote.Lender;
+import com.bigbank.loan.engine.quote.LenderBook;
+import com.bigbank.loan.engine.quote.LenderBookSnapshot;
+import com.bigbank.loan.engine.quote.LenderColumns;
+import com.bigbank.loan.engine.quote.LenderCsvReader;
+import com.bigbank.loan.engine.quote.LoanQuoteCalculator;
+import com.bigbank.loan.engine.quote.LoanQuoteTable;
 import com.bigbank.loan.excetpion.InvalidMarketData;
 import com.bigbank.loan.excetpion.InvalidMarketId;
-import com.opencsv.bean.CsvToBeanBuilder;
+import com.bigbank.loan.excetpion.InvalidMarketUpdate;
+import com.bigbank.loan.excetpion.MarketBudgetExceeded;
+import com.bigbank.loan.jfr.MarketLoadEvent;
+import com.bigbank.loan.model.MarketLenders;
+import com.bigbank.loan.model.ProposalTemplates;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
 
+/**
+ * Catalog of the markets, discovered from <code>market.dir</code> or the <code>market.manifest</code> and loaded on
+ * their first request. Loaded books are kept within <code>market.memory-budget-bytes</code>, the least valuable ones
+ * being evicted first and loaded again when requested.
+ * <p>
+ * A book published through the admin API replaces the file of its market until it is withdrawn. It is built before
+ * being published with a single write, requests keep quoting from the previous book until then. Published books are
+ * never evicted, they take their share of the memory budget off the loaded books and are refused once they would
+ * take all of it.
+ */
 @Component
 public class MarketDataSource extends AbstractService
 {
-    private static Map<String, String> marketFilePath = new HashMap<>();
+    public static final String CACHE_NAME = "loan.market";
+
+    public static final String RESIDENT_BYTES_GAUGE = "loan.market.resident.bytes";
+
+    public static final String DISCOVERED_GAUGE = "loan.market.discovered";
+
+    private static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+    private static final String MARKET_FILE_PREFIX = "market-";
+
+    private static final String MARKET_FILE_EXTENSION = ".csv";
+
+    private final ResourceLoader resourceLoader = new DefaultResourceLoader();
+
+    private final AtomicLong versions = new AtomicLong();
+
+    /**
+     * Source file of every known market, replaced as a whole when the catalog is scanned again
+     */
+    private volatile Map<String, Resource> sources = Collections.emptyMap();
+
+    /**
+     * Published snapshot of the loaded markets, replaced when the backing file changes. Concurrent first requests
+     * for a market wait for a single load.
+     */
+    private LoadingCache<String, MarketLenders> snapshots;
+
+    /**
+     * Books published through the admin API, by market id. They are never evicted since they cannot be loaded again.
+     * Read without locking, changed under <code>publishLock</code>.
+     */
+    private final Map<String, MarketLenders> published = new ConcurrentHashMap<>();
+
+    private final Object publishLock = new Object();
+
+    /**
+     * Estimated footprint of the published books, taken off the budget of the cache
+     */
+    private volatile long publishedBytes;
+
+    /**
+     * Books loaded by the cache whose build is not recorded yet, by market id. A load is recorded by the request that
+     * gets it served, so a book discarded for a published one never shows in the metrics.
+     */
+    private final Map<String, MarketBuild> unrecorded = new ConcurrentHashMap<>();
+
+    /**
+     * Called with the id of a market whose book was evicted or left the catalog, to release what was kept for it
+     */
+    private final List<Consumer<String>> unloadListeners = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private QuoteMetrics quoteMetrics;
 
-    static
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Directory holding one <code>market-&lt;id&gt;.csv</code> file per market. Empty uses the manifest instead.
+     */
+    @Value("${market.dir:}")
+    private String marketDir = "";
+
+    /**
+     * Properties file mapping each market id to the resource location of its CSV file, used without
+     * <code>market.dir</code>
+     */
+    @Value("${market.manifest:classpath:/markets.properties}")
+    private String marketManifest = "classpath:/markets.properties";
+
+    /**
+     * Estimated heap the loaded books and quote tables may take together
+     */
+    @Value("${market.memory-budget-bytes:268435456}")
+    private long memoryBudgetBytes = 268_435_456L;
+
+    /**
+     * Directory of market snapshots compiled by LoanQuoteApplication --compile, preferred to the CSV files when
+     * present. Empty disables snapshots.
+     */
+    @Value("${market.snapshot-dir:}")
+    private String snapshotDir = "";
+
+    @Value("${loan.numeric-engine:BIG_DECIMAL}")
+    private NumericEngine numericEngine = NumericEngine.BIG_DECIMAL;
+
+    @PostConstruct
+    public void init()
     {
-        marketFilePath.put("it", "/market-it.csv");
-        marketFilePath.put("en", "/market-en.csv");
+        sources = discover();
+
+        // weighted by estimated footprint, Caffeine evicts the entries least likely to be requested again first
+        snapshots = Caffeine.newBuilder()
+                .maximumWeight(memoryBudgetBytes)
+                .weigher((String market, MarketLenders snapshot) -> weight(snapshot))
+                .removalListener((String market, MarketLenders snapshot, RemovalCause cause) -> {
+                    unrecorded.computeIfPresent(market, (key, built) -> built.snapshot == snapshot ? null : built);
+
+                    // a published book still serves the market
+                    if (cause.wasEvicted() && !published.containsKey(market))
+                    {
+                        log.info("Market {} version {} evicted ({})", market, snapshot.getVersion(), cause);
+
+                        unloaded(market);
+                    }
+                })
+                .recordStats()
+                // eviction is cheap next to a load, the request that went over the budget pays for it
+                .executor(Runnable::run)
+                .build(this::load);
+
+        resizeCache();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, CACHE_NAME);
+
+        Gauge.builder(RESIDENT_BYTES_GAUGE, this, MarketDataSource::getResidentBytes)
+                .description("Estimated heap retained by the loaded markets").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder(DISCOVERED_GAUGE, this, catalog -> catalog.sources.size())
+                .description("Markets in the catalog, loaded or not").register(meterRegistry);
+
+        log.info("Market catalog holds {} markets", sources.size());
     }
 
-    @SuppressWarnings("unchecked")
     public List<Lender> find(String market)
     {
+        return snapshot(market).getLenders();
+    }
 
-        String marketFile = marketFilePath.get(market);
+    public MarketLenders snapshot(String market)
+    {
 
-        if (marketFile == null)
+        if (market == null || !sources.containsKey(market))
         {
             throw new InvalidMarketId("Provided market id is invalid");
         }
 
-        final FileReader marketFileReader;
+        MarketLenders snapshot = published.get(market);
 
-        try
+        if (snapshot != null)
         {
-            Resource resource = new ClassPathResource(marketFile);
+            return snapshot;
+        }
+
+        snapshot = snapshots.get(market);
 
-            marketFileReader = new FileReader(resource.getFile());
+        // a book published while the file was loading wins over it
+        MarketLenders publishedMeanwhile = published.get(market);
 
+        if (publishedMeanwhile != null)
+        {
+            return publishedMeanwhile;
         }
-        catch (IOException ioe)
+
+        return unrecorded.containsKey(market) ? serve(market, snapshot) : snapshot;
+    }
+
+    /**
+     * Records the build of a book loaded by the cache, now that it answers the quotes of its market
+     * @return the book served, which is the published one if it was published meanwhile
+     */
+    private MarketLenders serve(String market, MarketLenders snapshot)
+    {
+        synchronized (publishLock)
         {
+            MarketLenders publishedMeanwhile = published.get(market);
 
-            throw new InvalidMarketId("Invalid market : " + market);
+            if (publishedMeanwhile != null)
+            {
+                return publishedMeanwhile;
+            }
+
+            MarketBuild built = unrecorded.get(market);
+
+            if (built != null && built.snapshot == snapshot && unrecorded.remove(market, built))
+            {
+                record(built);
+            }
+
+            return snapshot;
+        }
+    }
+
+    /**
+     * Builds a book from a complete lender list and publishes it in place of the current one. Requests quote from the
+     * previous book until the new one, sorted and with its quote table, is published.
+     * @return the published book
+     * @throws InvalidMarketId if the market is not in the catalog
+     * @throws InvalidMarketUpdate if the lenders cannot make a book
+     * @throws MarketBudgetExceeded if the published books would take more than the memory budget
+     */
+    public MarketLenders publish(String market, LenderColumns lenders)
+    {
+
+        if (market == null || !sources.containsKey(market))
+        {
+            throw new InvalidMarketId("Provided market id is invalid");
         }
 
-        final List<Lender> lenders;
+        MarketLoadEvent event = new MarketLoadEvent();
+        event.begin();
+        event.setSource("admin");
+
+        long sortStart = System.nanoTime();
 
+        LenderBook book;
+
+        // only the lender checks and the sort reject the list, a fault building the calculator or its quote table is
+        // a server error
         try
         {
+            if (lenders.size() == 0)
+            {
+                throw new IllegalArgumentException("a market needs at least one lender");
+            }
+
+            book = LenderBook.of(lenders);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new InvalidMarketUpdate("Lenders of market " + market + " cannot be published: " + e.getMessage(), e);
+        }
+
+        MarketBuild built = build(market, book, 0, 0, System.nanoTime() - sortStart, event, true);
+
+        MarketLenders snapshot = built.snapshot;
+
+        synchronized (publishLock)
+        {
+            MarketLenders current = published.get(market);
+
+            // of two concurrent updates the later version wins, whichever finished building first
+            if (current != null && current.getVersion() > snapshot.getVersion())
+            {
+                return current;
+            }
+
+            long bytes = publishedBytes - (current == null ? 0 : weight(current)) + weight(snapshot);
+
+            if (bytes > memoryBudgetBytes)
+            {
+                throw new MarketBudgetExceeded("Published markets would take ~" + bytes + " bytes, over the market memory budget of " + memoryBudgetBytes);
+            }
+
+            published.put(market, snapshot);
+            publishedBytes = bytes;
+
+            resizeCache();
+
+            record(built);
+        }
+
+        // the file book is no longer served, its memory goes back to the budget
+        snapshots.invalidate(market);
+
+        log.info("Market {} published as version {} with {} lenders", market, snapshot.getVersion(), snapshot.getBook().size());
+
+        return snapshot;
+    }
+
+    /**
+     * Withdraws the published book of a market, which is then loaded from its file again
+     * @return the book now served
+     * @throws InvalidMarketId if the market is not in the catalog
+     */
+    public MarketLenders unpublish(String market)
+    {
+
+        if (market == null || !sources.containsKey(market))
+        {
+            throw new InvalidMarketId("Provided market id is invalid");
+        }
+
+        // the file is loaded before the published book is withdrawn, so requests never wait for it
+        MarketLenders snapshot = snapshots.get(market);
 
-            lenders = new CsvToBeanBuilder(marketFileReader).withType(Lender.class).withThrowExceptions(true).build().parse();
+        if (retire(market))
+        {
+            log.info("Market {} withdrawn, serving version {} from its file", market, snapshot.getVersion());
+        }
+
+        return serve(market, snapshot);
+    }
+
+    /**
+     * Removes the published book of a market and gives its memory back to the loaded books
+     * @return true if the market had a published book
+     */
+    private boolean retire(String market)
+    {
+        synchronized (publishLock)
+        {
+            MarketLenders current = published.remove(market);
+
+            if (current == null)
+            {
+                return false;
+            }
+
+            publishedBytes -= weight(current);
+
+            resizeCache();
+
+            return true;
+        }
+    }
+
+    /**
+     * Gives the loaded books what the published ones leave of the memory budget
+     */
+    private void resizeCache()
+    {
+        snapshots.policy().eviction().ifPresent(eviction -> eviction.setMaximum(Math.max(0, memoryBudgetBytes - publishedBytes)));
+    }
+
+    /**
+     * Registers a callback for markets whose book is no longer held, evicted or gone from the catalog
+     */
+    public void addUnloadListener(Consumer<String> listener)
+    {
+        unloadListeners.add(listener);
+    }
+
+    /**
+     * @return true if a request for the market is answered without loading its file first
+     */
+    public boolean isLoaded(String market)
+    {
+        // the map view leaves the cache statistics alone
+        return market != null && (published.containsKey(market) || snapshots.asMap().containsKey(market));
+    }
+
+    /**
+     * @return the ids of every market of the catalog, loaded or not
+     */
+    public Set<String> getMarkets()
+    {
+        return sources.keySet();
+    }
+
+    /**
+     * Scans the catalog again and publishes a new snapshot for every loaded market whose file changed since it was
+     * loaded. A file that cannot be parsed leaves the current snapshot in place, a market that left the catalog is
+     * dropped. Published books are left alone.
+     */
+    @Scheduled(fixedDelayString = "${market.reload-interval-ms:5000}")
+    public void reload()
+    {
+        try
+        {
+            sources = discover();
         }
         catch (RuntimeException e)
         {
+            log.warn("Market catalog scan failed, keeping {} markets: {}", sources.size(), e.getMessage());
+        }
+
+        for (String market : published.keySet())
+        {
+            if (!sources.containsKey(market) && retire(market))
+            {
+                log.info("Market {} left the catalog", market);
 
-            throw new InvalidMarketData("Internal data error");
+                unloaded(market);
+            }
+        }
+
+        snapshots.asMap().forEach((market, current) -> {
+
+            Resource source = sources.get(market);
+
+            if (source == null)
+            {
+                snapshots.invalidate(market);
+
+                log.info("Market {} left the catalog", market);
+
+                unloaded(market);
+
+                return;
+            }
+
+            if (published.containsKey(market))
+            {
+                // loaded by a request racing a publish, the file book is not served
+                snapshots.invalidate(market);
+
+                return;
+            }
+
+            try
+            {
+                if (lastModified(market, source) == current.getSourceLastModified())
+                {
+                    return;
+                }
+
+                MarketBuild reloaded = read(market);
+
+                synchronized (publishLock)
+                {
+                    // an entry evicted meanwhile stays out, its next request loads the new file, and a book published
+                    // meanwhile is served instead
+                    if (!published.containsKey(market) && snapshots.asMap().replace(market, current, reloaded.snapshot))
+                    {
+                        record(reloaded);
+
+                        log.info("Market {} reloaded as version {} with {} lenders", market, reloaded.snapshot.getVersion(), reloaded.snapshot.getBook().size());
+                    }
+                }
+            }
+            catch (RuntimeException e)
+            {
+                log.warn("Market {} reload failed, keeping version {}: {}", market, current.getVersion(), e.getMessage());
+            }
+        });
+    }
+
+    private void unloaded(String market)
+    {
+        quoteMetrics.removeMarket(market);
+
+        for (Consumer<String> listener : unloadListeners)
+        {
+            listener.accept(market);
         }
+    }
 
-        if (lenders.isEmpty())
+    /**
+     * @return the source file of every market, by market id
+     */
+    private Map<String, Resource> discover()
+    {
+        Map<String, Resource> discovered = new HashMap<>();
+
+        if (!marketDir.isEmpty())
+        {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(marketDir), MARKET_FILE_PREFIX + "*" + MARKET_FILE_EXTENSION))
+            {
+                for (Path file : files)
+                {
+                    String fileName = file.getFileName().toString();
+                    String market = fileName.substring(MARKET_FILE_PREFIX.length(), fileName.length() - MARKET_FILE_EXTENSION.length());
+
+                    if (!market.isEmpty())
+                    {
+                        discovered.put(market, new FileSystemResource(file.toFile()));
+                    }
+                }
+            }
+            catch (IOException e)
+            {
+                throw new IllegalArgumentException("Market directory " + marketDir + " cannot be read", e);
+            }
+
+            return Collections.unmodifiableMap(discovered);
+        }
+
+        Properties manifest = new Properties();
+
+        try (InputStream manifestStream = resourceLoader.getResource(marketManifest).getInputStream())
+        {
+            manifest.load(manifestStream);
+        }
+        catch (IOException e)
+        {
+            throw new IllegalArgumentException("Market manifest " + marketManifest + " cannot be read", e);
+        }
+
+        for (String market : manifest.stringPropertyNames())
+        {
+            discovered.put(market, resourceLoader.getResource(manifest.getProperty(market).trim()));
+        }
+
+        return Collections.unmodifiableMap(discovered);
+    }
+
+    /**
+     * @return the estimated heap retained by the loaded and the published books
+     */
+    private long getResidentBytes()
+    {
+        return publishedBytes + snapshots.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+    }
+
+    /**
+     * @return the estimated footprint of a loaded market, the unit of the memory budget
+     */
+    private static int weight(MarketLenders snapshot)
+    {
+        return (int) Math.min(Integer.MAX_VALUE, snapshot.getBook().getFootprintBytes() + snapshot.getQuotes().getFootprintBytes());
+    }
+
+    /**
+     * Loads a market into the cache, its build being recorded once it is served
+     */
+    private MarketLenders load(String market)
+    {
+        MarketBuild built = read(market);
+
+        unrecorded.put(market, built);
+
+        return built.snapshot;
+    }
+
+    private MarketBuild read(String market)
+    {
+
+        final Resource source = sources.get(market);
+
+        if (source == null)
+        {
+            throw new InvalidMarketId("Provided market id is invalid");
+        }
+
+        MarketLoadEvent event = new MarketLoadEvent();
+        event.begin();
+
+        // read the timestamp before parsing, so a change during the parse is picked up by the next poll
+        final long lastModified = lastModified(market, source);
+
+        final Path snapshotFile = snapshotFile(source);
+
+        LenderBook book = null;
+
+        long parseStart = System.nanoTime();
+        long sortNanos = 0;
+
+        if (snapshotFile != null)
+        {
+            book = readSnapshot(market, snapshotFile);
+        }
+
+        event.setSource(book != null ? "snapshot" : "csv");
+
+        long parseNanos = System.nanoTime() - parseStart;
+
+        if (book == null)
+        {
+            parseStart = System.nanoTime();
+
+            LenderColumns lenders = readCsv(market, source);
+
+            long sortStart = System.nanoTime();
+
+            parseNanos = sortStart - parseStart;
+
+            // sorts the lenders once, every request then shares the sorted book
+            book = LenderBook.of(lenders);
+
+            sortNanos = System.nanoTime() - sortStart;
+        }
+
+        if (book.size() == 0)
         {
             throw new InvalidMarketData("Internal data error");
         }
 
-        return lenders;
+        return build(market, book, lastModified, parseNanos, sortNanos, event, false);
+    }
+
+    /**
+     * Builds the calculator, the quote table and the proposal templates of a sorted book under a new version. Nothing
+     * is recorded until the book is served, see <code>record</code>.
+     */
+    private MarketBuild build(String market, LenderBook book, long lastModified, long parseNanos, long sortNanos, MarketLoadEvent event, boolean publish)
+    {
+
+        LoanQuoteCalculator calculator = new LoanQuoteCalculator(book, numericEngine, market);
+
+        log.info("Market {} book holds {} lenders in ~{} bytes", market, book.size(), book.getFootprintBytes());
+
+        // allocation and the rate solver run here, once per amount, instead of on every request
+        LoanQuoteTable quotes = new LoanQuoteTable(calculator);
+
+        log.info("Market {} quote table built in {} us: {} amounts, ~{} bytes", market, quotes.getBuildNanos() / 1000, quotes.size(), quotes.getFootprintBytes());
+
+        long version = versions.incrementAndGet();
+
+        MarketLenders snapshot = MarketLenders.builder()
+                .market(market)
+                .version(version)
+                .sourceLastModified(publish ? -version : lastModified)
+                .published(publish)
+                .book(book)
+                .calculator(calculator)
+                .quotes(quotes)
+                .proposals(new ProposalTemplates(quotes))
+                .build();
+
+        return new MarketBuild(snapshot, parseNanos, sortNanos, event);
+    }
+
+    /**
+     * Publishes the metrics and the Flight Recorder event of a book that now answers quotes, so the version they
+     * report is always the one served. Called under <code>publishLock</code>.
+     */
+    private void record(MarketBuild built)
+    {
+        MarketLenders snapshot = built.snapshot;
+
+        quoteMetrics.recordMarketBuild(snapshot.getMarket(), snapshot.getVersion(), built.parseNanos, built.sortNanos, snapshot.getQuotes(), snapshot.getBook().getAnnuityFactors());
+
+        built.event.setMarketVersion(snapshot.getVersion());
+        built.event.commit(snapshot.getMarket(), 0, snapshot.getBook().size());
+    }
+
+    /**
+     * @return the book of a compiled snapshot, or null to fall back to the CSV file when the snapshot is unusable
+     */
+    private LenderBook readSnapshot(String market, Path snapshotFile)
+    {
+
+        try
+        {
+            LenderBook book = LenderBookSnapshot.read(snapshotFile);
+
+            log.info("Market {} loaded from snapshot {}", market, snapshotFile);
+
+            return book;
+        }
+        catch (IOException | RuntimeException e)
+        {
+
+            log.warn("Market {} snapshot {} is unusable, falling back to CSV: {}", market, snapshotFile, e.getMessage());
+
+            return null;
+        }
+    }
+
+    private LenderColumns readCsv(String market, Resource source)
+    {
+
+        try (InputStream marketFileStream = source.getInputStream())
+        {
+
+            return LenderCsvReader.read(marketFileStream);
+        }
+        catch (IOException ioe)
+        {
+
+            throw new InvalidMarketId("Invalid market : " + market);
+        }
+        catch (RuntimeException e)
+        {
+
+            // the line number stays in the log, clients only learn that the market is unavailable
+            log.error("Market {} data is invalid: {}", market, e.getMessage());
+
+            throw new InvalidMarketData("Internal data error", e);
+        }
+    }
+
+    /**
+     * @return the compiled snapshot of a market file, or null if snapshots are disabled or there is none
+     */
+    private Path snapshotFile(Resource source)
+    {
+
+        if (snapshotDir.isEmpty() || source.getFilename() == null)
+        {
+            return null;
+        }
+
+        // market-en.csv is compiled into market-en.snapshot
+        Path snapshotFile = Paths.get(snapshotDir, source.getFilename().replace(MARKET_FILE_EXTENSION, SNAPSHOT_EXTENSION));
+
+        return Files.isRegularFile(snapshotFile) ? snapshotFile : null;
+    }
+
+    /**
+     * @return the modification time of the file the market is loaded from, its snapshot when there is one
+     */
+    private long lastModified(String market, Resource source)
+    {
+        Path snapshotFile = snapshotFile(source);
+
+        Resource resource = snapshotFile != null ? new FileSystemResource(snapshotFile.toFile()) : source;
+
+        try
+        {
+            return resource.lastModified();
+        }
+        catch (IOException ioe)
+        {
+            throw new InvalidMarketId("Invalid market : " + market);
+        }
+    }
+
+    /**
+     * A book with the measures of its build, kept until it is served
+     */
+    private static final class MarketBuild
+    {
+        private final MarketLenders snapshot;
+
+        private final long parseNanos;
+
+        private final long sortNanos;
+
+        private final MarketLoadEvent event;
+
+        private MarketBuild(MarketLenders snapshot, long parseNanos, long sortNanos, MarketLoadEvent event)
+        {
+            this.snapshot = snapshot;
+            this.parseNanos = parseNanos;
+            this.sortNanos = sortNanos;
+            this.event = event;
+        }
     }
 }
@@ -0,0 +1,340 @@
+package com.bigbank.loan.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.stereotype.Component;
+
+import com.bigbank.loan.engine.RateSolver;
+import com.bigbank.loan.engine.quote.AnnuityFactors;
+import com.bigbank.loan.engine.quote.LoanQuoteTable;
+import com.bigbank.loan.excetpion.InsufficientLendersException;
+import com.bigbank.loan.excetpion.InvalidLoanSubmissionException;
+import com.bigbank.loan.excetpion.InvalidMarketId;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+
+/**
+ * Micrometer meters of the quote pipeline. Stage timers are created once per market, stage and outcome and then looked
+ * up by index, so recording a request does not allocate. Only the latency timers, which leave the market out, publish
+ * percentile histograms: split by market they would multiply the buckets by the size of the catalog. The meters of a
+ * market are removed when it is unloaded.
+ */
+@Component
+public class QuoteMetrics
+{
+
+    public static final String STAGE_TIMER = "loan.quote.stage";
+
+    public static final String LATENCY_TIMER = "loan.quote.latency";
+
+    public static final String MARKET_BUILD_TIMER = "loan.market.build";
+
+    public static final String ANNUITY_FACTORS_GAUGE = "loan.market.annuity.factors";
+
+    public static final String ANNUITY_LOOKUPS_COUNTER = "loan.market.annuity.lookups";
+
+    public static final String VERSION_GAUGE = "loan.market.version";
+
+    private static final String QUOTE_TABLE_BYTES_GAUGE = "loan.market.quote.table.bytes";
+
+    /**
+     * Market tag of requests that failed before their market was resolved, keeps unknown market ids out of the tags
+     */
+    static final String NO_MARKET = "none";
+
+    /**
+     * Meters registered per market, removed with the market
+     */
+    private static final String[] MARKET_METERS = {STAGE_TIMER, MARKET_BUILD_TIMER, VERSION_GAUGE, QUOTE_TABLE_BYTES_GAUGE, ANNUITY_FACTORS_GAUGE, ANNUITY_LOOKUPS_COUNTER};
+
+    public enum Stage
+    {
+        VALIDATION, ENGINE_BUILD, DATA_LOAD, QUOTE, RENDER, TOTAL
+    }
+
+    public enum Outcome
+    {
+        SUCCESS, INSUFFICIENT_LENDERS, INVALID_MARKET, VALIDATION_FAILURE, ERROR;
+
+        static Outcome of(RuntimeException e)
+        {
+            if (e instanceof InsufficientLendersException)
+            {
+                return INSUFFICIENT_LENDERS;
+            }
+            else if (e instanceof InvalidMarketId)
+            {
+                return INVALID_MARKET;
+            }
+            else if (e instanceof InvalidLoanSubmissionException)
+            {
+                return VALIDATION_FAILURE;
+            }
+
+            return ERROR;
+        }
+    }
+
+    public enum BuildPhase
+    {
+        PARSE, SORT, QUOTE_TABLE
+    }
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer[][]> stageTimers = new ConcurrentHashMap<>();
+
+    private final Timer[][] latencyTimers = new Timer[Stage.values().length][Outcome.values().length];
+
+    private final Map<String, MarketGauges> marketGauges = new ConcurrentHashMap<>();
+
+    public QuoteMetrics(MeterRegistry registry)
+    {
+        this.registry = registry;
+
+        FunctionCounter.builder("loan.rate.solver.invocations", this, metrics -> RateSolver.getInvocationCount())
+                .description("Rate solver runs").register(registry);
+        FunctionCounter.builder("loan.rate.solver.iterations", this, metrics -> RateSolver.getIterationCount())
+                .description("Rate solver iterations across all runs").register(registry);
+        FunctionCounter.builder("loan.rate.solver.nonconvergences", this, metrics -> RateSolver.getNonConvergenceCount())
+                .description("Rate solver runs that hit the iteration limit").register(registry);
+    }
+
+    /**
+     * Records the stages a request went through, stages it did not reach have a negative duration
+     */
+    public void record(String market, Outcome outcome, QuoteStages stages)
+    {
+        Timer[][] timers = stageTimers.computeIfAbsent(market, key -> new Timer[Stage.values().length][Outcome.values().length]);
+
+        for (Stage stage : Stage.values())
+        {
+            long nanos = stages.get(stage);
+
+            if (nanos >= 0)
+            {
+                timer(timers, market, stage, outcome).record(nanos, TimeUnit.NANOSECONDS);
+                latencyTimer(stage, outcome).record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Records how long a market book took to build and what its quote table costs
+     */
+    public void recordMarketBuild(String market, long version, long parseNanos, long sortNanos, LoanQuoteTable quotes, AnnuityFactors annuityFactors)
+    {
+        buildTimer(market, BuildPhase.PARSE).record(parseNanos, TimeUnit.NANOSECONDS);
+        buildTimer(market, BuildPhase.SORT).record(sortNanos, TimeUnit.NANOSECONDS);
+        buildTimer(market, BuildPhase.QUOTE_TABLE).record(quotes.getBuildNanos(), TimeUnit.NANOSECONDS);
+
+        MarketGauges gauges = marketGauges.computeIfAbsent(market, this::registerGauges);
+
+        gauges.version.set(version);
+        gauges.quoteTableBytes.set(quotes.getFootprintBytes());
+        gauges.publish(annuityFactors);
+    }
+
+    /**
+     * Removes the meters of a market that was evicted or left the catalog
+     */
+    public void removeMarket(String market)
+    {
+        boolean registered = stageTimers.remove(market) != null;
+
+        if (marketGauges.remove(market) == null && !registered)
+        {
+            return;
+        }
+
+        for (String name : MARKET_METERS)
+        {
+            for (Meter meter : registry.find(name).tag("market", market).meters())
+            {
+                registry.remove(meter);
+            }
+        }
+    }
+
+    private Timer timer(Timer[][] timers, String market, Stage stage, Outcome outcome)
+    {
+        Timer timer = timers[stage.ordinal()][outcome.ordinal()];
+
+        if (timer == null)
+        {
+            // racing threads get the same timer back from the registry
+            timer = Timer.builder(STAGE_TIMER)
+                    .description("Time spent in each stage of a quote request")
+                    .tag("market", market)
+                    .tag("stage", tag(stage))
+                    .tag("outcome", tag(outcome))
+                    .register(registry);
+
+            timers[stage.ordinal()][outcome.ordinal()] = timer;
+        }
+
+        return timer;
+    }
+
+    private Timer latencyTimer(Stage stage, Outcome outcome)
+    {
+        Timer timer = latencyTimers[stage.ordinal()][outcome.ordinal()];
+
+        if (timer == null)
+        {
+            timer = Timer.builder(LATENCY_TIMER)
+                    .description("Time spent in each stage of a quote request, all markets together")
+                    .tag("stage", tag(stage))
+                    .tag("outcome", tag(outcome))
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(100))
+                    .maximumExpectedValue(Duration.ofSeconds(1))
+                    .register(registry);
+
+            latencyTimers[stage.ordinal()][outcome.ordinal()] = timer;
+        }
+
+        return timer;
+    }
+
+    private Timer buildTimer(String market, BuildPhase phase)
+    {
+        return Timer.builder(MARKET_BUILD_TIMER)
+                .description("Time spent building a market book")
+                .tag("market", market)
+                .tag("phase", tag(phase))
+                .register(registry);
+    }
+
+    private MarketGauges registerGauges(String market)
+    {
+        MarketGauges gauges = new MarketGauges();
+
+        Gauge.builder(VERSION_GAUGE, gauges.version, AtomicLong::get)
+                .description("Version of the market book serving quotes").tag("market", market).register(registry);
+        Gauge.builder(QUOTE_TABLE_BYTES_GAUGE, gauges.quoteTableBytes, AtomicLong::get)
+                .description("Estimated heap retained by the market quote table").tag("market", market).register(registry);
+        Gauge.builder(ANNUITY_FACTORS_GAUGE, gauges, MarketGauges::getAnnuityFactorCount)
+                .description("Repayment factors held for the distinct rates and terms of the market").tag("market", market).register(registry);
+        FunctionCounter.builder(ANNUITY_LOOKUPS_COUNTER, gauges, MarketGauges::getAnnuityHits)
+                .description("Term lookups of repayment factors").tag("market", market).tag("result", "hit").register(registry);
+        FunctionCounter.builder(ANNUITY_LOOKUPS_COUNTER, gauges, MarketGauges::getAnnuityMisses)
+                .description("Term lookups of repayment factors").tag("market", market).tag("result", "miss").register(registry);
+
+        return gauges;
+    }
+
+    private static String tag(Enum<?> value)
+    {
+        return value.name().toLowerCase();
+    }
+
+    private static final class MarketGauges
+    {
+        private final AtomicLong version = new AtomicLong();
+
+        private final AtomicLong quoteTableBytes = new AtomicLong();
+
+        private final AtomicReference<AnnuityFactors> annuityFactors = new AtomicReference<>();
+
+        /**
+         * Lookups counted by the factors of previous versions, so the counters never go backwards
+         */
+        private final AtomicLong retiredHits = new AtomicLong();
+
+        private final AtomicLong retiredMisses = new AtomicLong();
+
+        private void publish(AnnuityFactors current)
+        {
+            AnnuityFactors previous = annuityFactors.getAndSet(current);
+
+            if (previous != null && previous != current)
+            {
+                retiredHits.addAndGet(previous.getHitCount());
+                retiredMisses.addAndGet(previous.getMissCount());
+            }
+        }
+
+        private double getAnnuityFactorCount()
+        {
+            AnnuityFactors current = annuityFactors.get();
+
+            return current == null ? 0 : current.getEntryCount();
+        }
+
+        private double getAnnuityHits()
+        {
+            AnnuityFactors current = annuityFactors.get();
+
+            return retiredHits.get() + (current == null ? 0 : current.getHitCount());
+        }
+
+        private double getAnnuityMisses()
+        {
+            AnnuityFactors current = annuityFactors.get();
+
+            return retiredMisses.get() + (current == null ? 0 : current.getMissCount());
+        }
+    }
+
+    /**
+     * Durations of the stages of one request, measured between consecutive marks
+     */
+    public static final class QuoteStages
+    {
+        private final long[] nanos = new long[Stage.values().length];
+
+        private final long start;
+
+        private long last;
+
+        public QuoteStages()
+        {
+            Arrays.fill(nanos, -1);
+
+            start = System.nanoTime();
+            last = start;
+        }
+
+        /**
+         * Ends a stage that started at the previous mark
+         */
+        public void mark(Stage stage)
+        {
+            long now = System.nanoTime();
+
+            nanos[stage.ordinal()] = now - last;
+            last = now;
+        }
+
+        /**
+         * Moves part of a stage already marked into another stage measured inside it
+         */
+        public void split(Stage stage, Stage part, long partNanos)
+        {
+            nanos[stage.ordinal()] -= partNanos;
+            nanos[part.ordinal()] = partNanos;
+        }
+
+        public void finish()
+        {
+            nanos[Stage.TOTAL.ordinal()] = System.nanoTime() - start;
+        }
+
+        long get(Stage stage)
+        {
+            return nanos[stage.ordinal()];
+        }
+    }
+}
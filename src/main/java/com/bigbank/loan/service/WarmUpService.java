@@ -0,0 +1,317 @@
+package com.bigbank.loan.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.bigbank.loan.engine.quote.LoanQuoteApplication;
+import com.bigbank.loan.jfr.LoanEvent;
+import com.bigbank.loan.model.LoanProposal;
+import com.bigbank.loan.model.LoanProposalJson;
+import com.bigbank.loan.model.LoanSubmission;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+
+/**
+ * Loads a few markets and quotes their whole amount range through <code>LoanService</code> once the application is up,
+ * so that market parsing, the engine lookup, the quote paths and the JSON mappers are compiled before real traffic
+ * comes in. <code>WarmUpHealthIndicator</code> keeps the node out of service until it is done or out of time.
+ * <p>
+ * The synthetic quotes are left out of the quote metrics and of Flight Recorder.
+ */
+@Component
+public class WarmUpService extends AbstractService
+{
+
+    public static final String DURATION_GAUGE = "loan.warmup.duration";
+
+    public static final String QUOTES_GAUGE = "loan.warmup.quotes";
+
+    private static final int MIN_AMOUNT = LoanQuoteApplication.MIN_LOAN_AMOUNT;
+
+    private static final int MAX_AMOUNT = LoanQuoteApplication.MAX_LOAN_AMOUNT;
+
+    private static final int AMOUNT_INCREMENT = LoanQuoteApplication.LOAN_AMOUNT_INCREMENT;
+
+    private static final Integer[] TERM_MENU = {12, 24, 36, 48, 60};
+
+    public enum State
+    {
+        PENDING, RUNNING, DONE, DISABLED
+    }
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private MarketDataSource marketDataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${loan.warm-up.enabled:true}")
+    private boolean enabled = true;
+
+    /**
+     * Passes over the amount range of the warmed markets, each pass quoting every amount alone and with the term menu.
+     * The default gets the hot methods past the compilation thresholds of the JIT.
+     */
+    @Value("${loan.warm-up.iterations:50}")
+    private int iterations = 50;
+
+    /**
+     * Comma-separated markets to warm up. Empty takes the first <code>loan.warm-up.max-markets</code> market ids of the catalog, the
+     * code is the same for every market and warming them all would only churn the market memory budget.
+     */
+    @Value("${loan.warm-up.markets:}")
+    private String markets = "";
+
+    @Value("${loan.warm-up.max-markets:2}")
+    private int maxMarkets = 2;
+
+    /**
+     * Time after which the warm-up stops and the node is reported in service however far it got
+     */
+    @Value("${loan.warm-up.max-duration-ms:60000}")
+    private long maxDurationMillis = 60_000L;
+
+    private volatile State state = State.PENDING;
+
+    // progress is only written by the warm-up thread and read by the health indicator and the gauges
+    private volatile int completedIterations;
+
+    private volatile long quotes;
+
+    private volatile long failures;
+
+    private volatile long durationNanos;
+
+    private volatile boolean timedOut;
+
+    @PostConstruct
+    public void init()
+    {
+        if (!enabled)
+        {
+            state = State.DISABLED;
+        }
+
+        TimeGauge.builder(DURATION_GAUGE, this, TimeUnit.NANOSECONDS, service -> service.durationNanos)
+                .description("Time taken by the startup warm-up").register(meterRegistry);
+        Gauge.builder(QUOTES_GAUGE, this, service -> service.quotes)
+                .description("Synthetic quotes run by the startup warm-up").register(meterRegistry);
+    }
+
+    /**
+     * Starts the warm-up off the main thread, once the server is listening so that health checks can be answered
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start()
+    {
+        if (state != State.PENDING)
+        {
+            return;
+        }
+
+        Thread thread = new Thread(this::run, "loan-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Runs the warm-up on the calling thread
+     */
+    public void run()
+    {
+        state = State.RUNNING;
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMillis);
+
+        LoanEvent.setSuppressed(true);
+
+        try
+        {
+            List<String> warmedMarkets = selectMarkets();
+
+            log.info("Warm-up started: {} iterations over markets {}", iterations, warmedMarkets);
+
+            for (int iteration = 0; iteration < iterations && !timedOut; iteration++)
+            {
+                for (String market : warmedMarkets)
+                {
+                    warmUp(market, deadline);
+                }
+
+                if (!timedOut)
+                {
+                    completedIterations = iteration + 1;
+                }
+
+                durationNanos = System.nanoTime() - start;
+            }
+
+            if (timedOut)
+            {
+                log.warn("Warm-up stopped after {} ms, the limit set by loan.warm-up.max-duration-ms", maxDurationMillis);
+            }
+        }
+        catch (RuntimeException e)
+        {
+            // a cold node still serves correctly, it must not stay out of service
+            log.warn("Warm-up stopped after {} iterations: {}", completedIterations, e.getMessage());
+        }
+        finally
+        {
+            LoanEvent.setSuppressed(false);
+
+            durationNanos = System.nanoTime() - start;
+            state = State.DONE;
+        }
+
+        log.info("Warm-up finished in {} ms: {} iterations, {} quotes, {} rejected", TimeUnit.NANOSECONDS.toMillis(durationNanos), completedIterations, quotes, failures);
+    }
+
+    /**
+     * @return the configured markets found in the catalog, or the first ones of the catalog
+     */
+    private List<String> selectMarkets()
+    {
+        if (markets.trim().isEmpty())
+        {
+            return marketDataSource.getMarkets().stream().sorted().limit(maxMarkets).collect(Collectors.toList());
+        }
+
+        List<String> selected = new ArrayList<>();
+
+        for (String field : markets.split(","))
+        {
+            String market = field.trim();
+
+            if (market.isEmpty())
+            {
+                continue;
+            }
+
+            if (marketDataSource.getMarkets().contains(market))
+            {
+                selected.add(market);
+            }
+            else
+            {
+                log.warn("Warm-up market {} is not in the catalog", market);
+            }
+        }
+
+        return Collections.unmodifiableList(selected);
+    }
+
+    private void warmUp(String market, long deadline)
+    {
+        for (int amount = MIN_AMOUNT; amount <= MAX_AMOUNT; amount += AMOUNT_INCREMENT)
+        {
+            if (System.nanoTime() - deadline > 0)
+            {
+                timedOut = true;
+
+                return;
+            }
+
+            quote(market, amount, false);
+            quote(market, amount, true);
+        }
+    }
+
+    private void quote(String market, int amount, boolean menu)
+    {
+        try
+        {
+            // the submission goes through the same JSON binding as a request body
+            LoanSubmission submission = objectMapper.readValue(objectMapper.writeValueAsBytes(submission(market, amount, menu)), LoanSubmission.class);
+
+            LoanProposal proposal = loanService.warmUp(submission);
+
+            LoanProposalJson.write(objectMapper, proposal);
+
+            quotes++;
+        }
+        catch (RuntimeException e)
+        {
+            // large amounts may be more than a market can lend, which warms the error path as well
+            failures++;
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("Warm-up submission cannot be mapped", e);
+        }
+    }
+
+    private static LoanSubmission submission(String market, int amount, boolean menu)
+    {
+        LoanSubmission submission = new LoanSubmission();
+
+        submission.setMarket(market);
+        submission.setAmount(amount);
+
+        if (menu)
+        {
+            submission.setTerms(Arrays.asList(TERM_MENU));
+        }
+
+        return submission;
+    }
+
+    public State getState()
+    {
+        return state;
+    }
+
+    public int getCompletedIterations()
+    {
+        return completedIterations;
+    }
+
+    public boolean isTimedOut()
+    {
+        return timedOut;
+    }
+
+    public int getIterations()
+    {
+        return iterations;
+    }
+
+    public long getQuotes()
+    {
+        return quotes;
+    }
+
+    public long getFailures()
+    {
+        return failures;
+    }
+
+    public long getDurationNanos()
+    {
+        return durationNanos;
+    }
+}
@@ -0,0 +1,178 @@
+package com.bigbank.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.bigbank.loan.service.ApiKeyRegistry;
+import com.bigbank.loan.service.ApiKeyRegistry.ApiClient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+
+@DisplayName("Testing ApiKeyRegistry")
+class ApiKeyRegistryTests
+{
+
+    @TempDir
+    Path directory;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testSingleKeyWithoutFile() throws ReflectiveOperationException
+    {
+
+        /* Prepare */
+        ApiKeyRegistry registry = registry("");
+
+        /* Execute */
+        ApiClient client = registry.find("TOKEN-ABC");
+        ApiClient unknown = registry.find("TOKEN-XYZ");
+
+        /* Verify */
+        assertThat(client.getName()).isEqualTo("default");
+        assertThat(client.tryAcquire()).isZero();
+        assertThat(unknown).isNull();
+        assertThat(meterRegistry.get(ApiKeyRegistry.REQUESTS_COUNTER).tags("partner", "unknown", "outcome", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testKeysAndQuotasFromFile() throws IOException, ReflectiveOperationException
+    {
+
+        /* Prepare */
+        Path file = write(directory.resolve("api-keys.csv"), "partner,key_sha256,requests_per_second,burst",
+                "alpha," + ApiKeyRegistry.hash("alpha-key") + ",0.001,2",
+                "beta," + ApiKeyRegistry.hash("beta-key") + ",0,0");
+
+        ApiKeyRegistry registry = registry(file.toString());
+
+        /* Execute */
+        ApiClient alpha = registry.find("alpha-key");
+
+        long first = alpha.tryAcquire();
+        long second = alpha.tryAcquire();
+        long third = alpha.tryAcquire();
+
+        /* Verify */
+        assertThat(alpha.getName()).isEqualTo("alpha");
+        assertThat(registry.find("beta-key").getName()).isEqualTo("beta");
+        assertThat(registry.find(ApiKeyRegistry.hash("alpha-key"))).isNull();
+
+        assertThat(first).isZero();
+        assertThat(second).isZero();
+        assertThat(third).isPositive();
+
+        assertThat(meterRegistry.get(ApiKeyRegistry.REQUESTS_COUNTER).tags("partner", "alpha", "outcome", "accepted").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(ApiKeyRegistry.REQUESTS_COUNTER).tags("partner", "alpha", "outcome", "throttled").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testRolesFromFileAndAdminKey() throws IOException, ReflectiveOperationException
+    {
+
+        /* Prepare */
+        Path file = write(directory.resolve("api-keys.csv"), "partner,key_sha256,requests_per_second,burst,roles",
+                "alpha," + ApiKeyRegistry.hash("alpha-key") + ",0,0,",
+                "ops," + ApiKeyRegistry.hash("ops-key") + ",0,0,admin");
+
+        ApiKeyRegistry registry = registry(file.toString());
+
+        ApiKeyRegistry single = new ApiKeyRegistry();
+        set(single, "meterRegistry", meterRegistry);
+        set(single, "apiKeysFile", "");
+        set(single, "adminApiKey", "TOKEN-ADMIN");
+        single.init();
+
+        /* Execute */
+        ApiClient alpha = registry.find("alpha-key");
+        ApiClient ops = registry.find("ops-key");
+        ApiClient admin = single.find("TOKEN-ADMIN");
+
+        /* Verify */
+        assertThat(alpha.getAuthorities()).isEmpty();
+        assertThat(ops.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+        assertThat(admin.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+        assertThat(single.find("TOKEN-ABC").getAuthorities()).isEmpty();
+    }
+
+    @Test
+    void testReloadKeepsBucketsOfUnchangedPartners() throws IOException, ReflectiveOperationException
+    {
+
+        /* Prepare */
+        Path file = write(directory.resolve("api-keys.csv"), "partner,key_sha256,requests_per_second,burst",
+                "alpha," + ApiKeyRegistry.hash("alpha-key") + ",0.001,1");
+
+        ApiKeyRegistry registry = registry(file.toString());
+
+        registry.find("alpha-key").tryAcquire();
+
+        write(file, "partner,key_sha256,requests_per_second,burst",
+                "alpha," + ApiKeyRegistry.hash("alpha-key") + ",0.001,1",
+                "gamma," + ApiKeyRegistry.hash("gamma-key") + ",0,0");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+
+        /* Execute */
+        registry.reload();
+
+        /* Verify */
+        assertThat(registry.find("gamma-key").getName()).isEqualTo("gamma");
+        assertThat(registry.find("alpha-key").tryAcquire()).isPositive();
+    }
+
+    @Test
+    void testInvalidFileKeepsCurrentKeys() throws IOException, ReflectiveOperationException
+    {
+
+        /* Prepare */
+        Path file = write(directory.resolve("api-keys.csv"), "partner,key_sha256,requests_per_second,burst",
+                "alpha," + ApiKeyRegistry.hash("alpha-key") + ",0,0");
+
+        ApiKeyRegistry registry = registry(file.toString());
+
+        write(file, "partner,key_sha256,requests_per_second,burst", "alpha,not-a-hash,0,0");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+
+        /* Execute */
+        registry.reload();
+
+        /* Verify */
+        assertThat(registry.find("alpha-key").getName()).isEqualTo("alpha");
+    }
+
+    private ApiKeyRegistry registry(String apiKeysFile) throws ReflectiveOperationException
+    {
+        ApiKeyRegistry registry = new ApiKeyRegistry();
+
+        set(registry, "meterRegistry", meterRegistry);
+        set(registry, "apiKeysFile", apiKeysFile);
+
+        registry.init();
+
+        return registry;
+    }
+
+    private static void set(Object target, String name, Object value) throws ReflectiveOperationException
+    {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private static Path write(Path file, String... lines) throws IOException
+    {
+        return Files.write(file, String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,144 @@
+package com.bigbank.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bigbank.loan.engine.quote.Lender;
+import com.bigbank.loan.engine.quote.LoanQuoteCalculator;
+import com.bigbank.loan.engine.reservation.CapacityLedger;
+import com.bigbank.loan.engine.reservation.Reservation;
+import com.bigbank.loan.engine.reservation.TimingWheel;
+import com.bigbank.loan.excetpion.InsufficientLendersException;
+
+
+@DisplayName("Testing CapacityLedger")
+class CapacityLedgerTests
+{
+
+    @Test
+    void testConcurrentHoldsNeverOversubscribe() throws InterruptedException
+    {
+
+        /* Prepare */
+        List<Lender> lenders = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++)
+        {
+            lenders.add(new Lender("Lender" + i, BigDecimal.valueOf(50 + i % 50, 3), 100 + i % 400));
+        }
+
+        CapacityLedger ledger = new CapacityLedger(new LoanQuoteCalculator(lenders));
+        long capacity = ledger.getRemainingAmount();
+
+        AtomicLong held = new AtomicLong();
+        Queue<Reservation> reservations = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+
+        /* Execute */
+        for (int thread = 0; thread < 16; thread++)
+        {
+            executor.execute(() -> {
+                try
+                {
+                    start.await();
+
+                    for (int i = 0; ; i++)
+                    {
+                        Reservation reservation = ledger.hold("id", 1000, 0);
+
+                        // release every third hold, so that freed capacity is reused by other threads
+                        if (i % 3 == 0 && reservation.release())
+                        {
+                            continue;
+                        }
+
+                        held.addAndGet(1000);
+                        reservations.add(reservation);
+                    }
+                }
+                catch (InsufficientLendersException | InterruptedException e)
+                {
+                    // market exhausted
+                }
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+
+        /* Verify */
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        assertThat(held.get() + ledger.getRemainingAmount()).isEqualTo(capacity);
+        assertThat(ledger.getRemainingAmount()).isLessThan(1000);
+
+        reservations.forEach(Reservation::release);
+
+        assertThat(ledger.getRemainingAmount()).isEqualTo(capacity);
+    }
+
+    @Test
+    void testReservationChangesStatusOnce()
+    {
+
+        /* Prepare */
+        List<Lender> lenders = new ArrayList<>();
+        lenders.add(new Lender("Bob", new BigDecimal("0.075"), 1000));
+
+        CapacityLedger ledger = new CapacityLedger(new LoanQuoteCalculator(lenders));
+        Reservation reservation = ledger.hold("id", 1000, 0);
+
+        /* Execute */
+        boolean committed = reservation.commit();
+
+        /* Verify */
+        assertThat(committed).isTrue();
+        assertThat(reservation.release()).isFalse();
+        assertThat(reservation.expire()).isFalse();
+        assertThat(ledger.getRemainingAmount()).isZero();
+        assertThatThrownBy(() -> ledger.hold("other", 1000, 0)).isInstanceOf(InsufficientLendersException.class);
+        assertThat(ledger.getHeldCount()).isZero();
+    }
+
+    @Test
+    void testTimingWheelExpiresHold() throws InterruptedException
+    {
+
+        /* Prepare */
+        List<Lender> lenders = new ArrayList<>();
+        lenders.add(new Lender("Bob", new BigDecimal("0.075"), 1000));
+
+        CapacityLedger ledger = new CapacityLedger(new LoanQuoteCalculator(lenders));
+        Reservation reservation = ledger.hold("id", 1000, 0);
+        CountDownLatch expired = new CountDownLatch(1);
+
+        /* Execute */
+        try (TimingWheel wheel = new TimingWheel(5, 4, "test-expiry"))
+        {
+            wheel.schedule(() -> {
+                reservation.expire();
+                expired.countDown();
+            }, 50);
+
+            /* Verify */
+            assertThat(expired.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(reservation.getStatus()).isEqualTo(Reservation.Status.EXPIRED);
+        assertThat(ledger.getRemainingAmount()).isEqualTo(1000);
+    }
+}
@@ -0,0 +1,116 @@
+package com.bigbank.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.bigbank.loan.engine.AmortizedLoan;
+import com.bigbank.loan.engine.FixedPointAmortizedLoan;
+import com.bigbank.loan.engine.NumericEngine;
+import com.bigbank.loan.engine.quote.Lender;
+import com.bigbank.loan.engine.quote.LoanQuote;
+import com.bigbank.loan.engine.quote.LoanQuoteCalculator;
+import com.bigbank.loan.excetpion.InsufficientLendersException;
+
+
+/**
+ * Differential tests: the fixed-point engine must give the same results as the <code>BigDecimal</code> one
+ */
+@DisplayName("Testing FixedPointAmortizedLoan")
+class FixedPointAmortizedLoanTests
+{
+
+    private static final int REPAYMENT_MONTHS = 36;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "0.069", "0.071", "0.074", "0.075", "0.081", "0.104", "0.0712345", "1.5"})
+    void testRepaymentMatchesBigDecimal(String annualRate)
+    {
+
+        /* Prepare */
+        BigDecimal rate = new BigDecimal(annualRate);
+        long monthlyRate = FixedPointAmortizedLoan.getMonthlyInterestRate(rate);
+        long discountComplement = FixedPointAmortizedLoan.getDiscountComplement(monthlyRate, REPAYMENT_MONTHS);
+
+        for (int principal = 1; principal <= 15000; principal++)
+        {
+
+            /* Execute */
+            long actual = FixedPointAmortizedLoan.getMonthlyRepayment(principal, monthlyRate, discountComplement, REPAYMENT_MONTHS);
+
+            /* Verify */
+            BigDecimal expected = AmortizedLoan.getMonthlyRepayment(new BigDecimal(principal), rate, REPAYMENT_MONTHS);
+
+            assertThat(BigDecimal.valueOf(actual, FixedPointAmortizedLoan.SCALE)).isEqualTo(expected);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/market-en.csv", "/market-it.csv", "/market.csv"})
+    void testQuotesMatchBigDecimal(String marketFile) throws IOException
+    {
+
+        /* Prepare */
+        LoanQuoteCalculator bigDecimal = new LoanQuoteCalculator(readLenders(marketFile), NumericEngine.BIG_DECIMAL);
+        LoanQuoteCalculator fixedPoint = new LoanQuoteCalculator(readLenders(marketFile), NumericEngine.FIXED_POINT);
+
+        for (int amount = 1000; amount <= 15000; amount += 100)
+        {
+
+            /* Execute */
+            LoanQuote expected;
+
+            try
+            {
+                expected = bigDecimal.getQuote(amount);
+            }
+            catch (InsufficientLendersException e)
+            {
+                int insufficientAmount = amount;
+
+                assertThatThrownBy(() -> fixedPoint.getQuote(insufficientAmount))
+                        .isInstanceOf(InsufficientLendersException.class);
+
+                continue;
+            }
+
+            LoanQuote actual = fixedPoint.getQuote(amount);
+
+            /* Verify */
+            assertThat(actual.getRate()).isEqualTo(expected.getRate());
+            assertThat(actual.getMonthlyRepayment()).isEqualTo(expected.getMonthlyRepayment());
+            assertThat(actual.getTotalRepayment()).isEqualTo(expected.getTotalRepayment());
+        }
+    }
+
+    private static List<Lender> readLenders(String marketFile) throws IOException
+    {
+        List<Lender> lenders = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(FixedPointAmortizedLoanTests.class.getResourceAsStream(marketFile), StandardCharsets.UTF_8)))
+        {
+            // skip the header
+            String line = reader.readLine();
+
+            while ((line = reader.readLine()) != null)
+            {
+                String[] columns = line.split(",");
+
+                lenders.add(new Lender(columns[0], new BigDecimal(columns[1]), Integer.parseInt(columns[2])));
+            }
+        }
+
+        return lenders;
+    }
+}
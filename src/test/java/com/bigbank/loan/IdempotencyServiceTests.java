@@ -0,0 +1,202 @@
+package com.bigbank.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.bigbank.loan.excetpion.IdempotencyKeyConflict;
+import com.bigbank.loan.excetpion.InsufficientLendersException;
+import com.bigbank.loan.model.LoanProposal;
+import com.bigbank.loan.model.LoanSubmission;
+import com.bigbank.loan.service.IdempotencyService;
+import com.bigbank.loan.service.LoanService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testing IdempotencyService")
+class IdempotencyServiceTests
+{
+
+    @Mock
+    LoanService loanService;
+
+    // not a spy: the counters of the cache are registered through the registry's inner More instance, which a spy
+    // shares with the original registry
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    IdempotencyService testedIdempotencyService;
+
+    @BeforeEach
+    void setUp() throws ReflectiveOperationException
+    {
+        Field field = IdempotencyService.class.getDeclaredField("meterRegistry");
+        field.setAccessible(true);
+        field.set(testedIdempotencyService, meterRegistry);
+
+        testedIdempotencyService.init();
+    }
+
+    @Test
+    void testRetryReplaysFirstProposal()
+    {
+
+        /* Prepare */
+        when(loanService.calculate(any())).thenReturn(LoanProposal.builder().loanId("id-1").build());
+
+        /* Execute */
+        LoanProposal first = testedIdempotencyService.calculate("partner", "key", submission("en", 1000));
+        LoanProposal retry = testedIdempotencyService.calculate("partner", "key", submission("en", 1000));
+
+        /* Verify */
+        assertThat(retry.getLoanId()).isEqualTo("id-1");
+        assertThat(retry).isSameAs(first);
+        verify(loanService, times(1)).calculate(any());
+
+        assertThat(meterRegistry.find("cache.gets").tags("cache", IdempotencyService.CACHE_NAME, "result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("cache.gets").tags("cache", IdempotencyService.CACHE_NAME, "result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testKeysAreScopedByCaller()
+    {
+
+        /* Prepare */
+        when(loanService.calculate(any())).thenReturn(LoanProposal.builder().loanId("id-1").build(), LoanProposal.builder().loanId("id-2").build());
+
+        /* Execute */
+        LoanProposal first = testedIdempotencyService.calculate("partner", "key", submission("en", 1000));
+        LoanProposal other = testedIdempotencyService.calculate("other-partner", "key", submission("en", 1000));
+
+        /* Verify */
+        assertThat(first.getLoanId()).isEqualTo("id-1");
+        assertThat(other.getLoanId()).isEqualTo("id-2");
+    }
+
+    @Test
+    void testKeyReusedWithAnotherSubmissionIsRejected()
+    {
+
+        /* Prepare */
+        when(loanService.calculate(any())).thenReturn(LoanProposal.builder().loanId("id-1").build());
+
+        testedIdempotencyService.calculate("partner", "key", submission("en", 1000));
+
+        /* Execute */
+        assertThatThrownBy(() -> testedIdempotencyService.calculate("partner", "key", submission("en", 2000)))
+
+                /* Verify */
+                .isInstanceOf(IdempotencyKeyConflict.class);
+    }
+
+    @Test
+    void testFailuresAreNotReplayed()
+    {
+
+        /* Prepare */
+        when(loanService.calculate(any()))
+                .thenThrow(new InsufficientLendersException("Not enough lenders"))
+                .thenReturn(LoanProposal.builder().loanId("id-1").build());
+
+        assertThatThrownBy(() -> testedIdempotencyService.calculate("partner", "key", submission("en", 1000)))
+                .isInstanceOf(InsufficientLendersException.class);
+
+        /* Execute */
+        LoanProposal retry = testedIdempotencyService.calculate("partner", "key", submission("en", 1000));
+
+        /* Verify */
+        assertThat(retry.getLoanId()).isEqualTo("id-1");
+        verify(loanService, times(2)).calculate(any());
+    }
+
+    @Test
+    void testErrorsAreNotReplayed()
+    {
+
+        /* Prepare */
+        when(loanService.calculate(any()))
+                .thenThrow(new OutOfMemoryError("Java heap space"))
+                .thenReturn(LoanProposal.builder().loanId("id-1").build());
+
+        assertThatThrownBy(() -> testedIdempotencyService.calculate("partner", "key", submission("en", 1000)))
+                .isInstanceOf(OutOfMemoryError.class);
+
+        /* Execute */
+        LoanProposal retry = testedIdempotencyService.calculate("partner", "key", submission("en", 1000));
+
+        /* Verify */
+        assertThat(retry.getLoanId()).isEqualTo("id-1");
+        verify(loanService, times(2)).calculate(any());
+    }
+
+    @Test
+    void testConcurrentDuplicatesShareOneQuote() throws Exception
+    {
+
+        /* Prepare */
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(loanService.calculate(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return LoanProposal.builder().loanId("id-1").build();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        /* Execute */
+        Future<LoanProposal> first = executor.submit(() -> testedIdempotencyService.calculate("partner", "key", submission("en", 1000)));
+
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        List<Future<LoanProposal>> duplicates = IntStream.range(0, 7)
+                .mapToObj(i -> executor.submit(() -> testedIdempotencyService.calculate("partner", "key", submission("en", 1000))))
+                .collect(Collectors.toList());
+
+        release.countDown();
+
+        /* Verify */
+        assertThat(first.get(10, TimeUnit.SECONDS).getLoanId()).isEqualTo("id-1");
+
+        for (Future<LoanProposal> duplicate : duplicates)
+        {
+            assertThat(duplicate.get(10, TimeUnit.SECONDS).getLoanId()).isEqualTo("id-1");
+        }
+
+        verify(loanService, times(1)).calculate(any());
+
+        executor.shutdown();
+    }
+
+    private static LoanSubmission submission(String market, int amount)
+    {
+        LoanSubmission submission = new LoanSubmission();
+        submission.setMarket(market);
+        submission.setAmount(amount);
+        return submission;
+    }
+}
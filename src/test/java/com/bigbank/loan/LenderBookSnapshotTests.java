@@ -0,0 +1,82 @@
+package com.bigbank.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bigbank.loan.engine.NumericEngine;
+import com.bigbank.loan.engine.quote.LenderBook;
+import com.bigbank.loan.engine.quote.LenderBookSnapshot;
+import com.bigbank.loan.engine.quote.LoanQuoteCalculator;
+import com.bigbank.loan.excetpion.InvalidMarketData;
+
+
+@DisplayName("Testing LenderBookSnapshot")
+class LenderBookSnapshotTests
+{
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRoundTrip() throws IOException
+    {
+
+        /* Prepare */
+        LenderBook book = LenderBook.of(LoanQuoteTableTests.lenders());
+        Path snapshot = directory.resolve("market-en.snapshot");
+
+        /* Execute */
+        LenderBookSnapshot.write(book, snapshot);
+        LenderBook read = LenderBookSnapshot.read(snapshot);
+
+        /* Verify */
+        assertThat(read.asList()).containsExactlyElementsOf(book.asList());
+        assertThat(read.getRateCount()).isEqualTo(book.getRateCount());
+        assertThat(new LoanQuoteCalculator(read, NumericEngine.BIG_DECIMAL).getQuote(1700).getMonthlyRepayment())
+                .isEqualTo(new LoanQuoteCalculator(book, NumericEngine.BIG_DECIMAL).getQuote(1700).getMonthlyRepayment());
+    }
+
+    @Test
+    void testCorruptSnapshot() throws IOException
+    {
+
+        /* Prepare */
+        Path snapshot = directory.resolve("market-en.snapshot");
+        LenderBookSnapshot.write(LenderBook.of(LoanQuoteTableTests.lenders()), snapshot);
+
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(snapshot, bytes);
+
+        /* Execute */
+        assertThatThrownBy(() -> LenderBookSnapshot.read(snapshot))
+
+                /* Verify */
+                .isInstanceOf(InvalidMarketData.class)
+                .hasMessageContaining("checksum");
+    }
+
+    @Test
+    void testNotASnapshot() throws IOException
+    {
+
+        /* Prepare */
+        Path snapshot = directory.resolve("market-en.snapshot");
+        Files.write(snapshot, "Lender,Rate,Available\nBob,0.075,640\n".getBytes());
+
+        /* Execute */
+        assertThatThrownBy(() -> LenderBookSnapshot.read(snapshot))
+
+                /* Verify */
+                .isInstanceOf(InvalidMarketData.class)
+                .hasMessageContaining("not a lender book snapshot");
+    }
+}
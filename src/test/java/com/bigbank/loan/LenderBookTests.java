@@ -0,0 +1,74 @@
+package com.bigbank.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bigbank.loan.engine.quote.Lender;
+import com.bigbank.loan.engine.quote.LenderBook;
+
+
+@DisplayName("Testing LenderBook")
+class LenderBookTests
+{
+
+    @Test
+    void testSortedLikeTheBeanList()
+    {
+
+        /* Prepare */
+        List<Lender> lenders = LoanQuoteTableTests.lenders();
+        lenders.add(new Lender("Zoe", new BigDecimal("0.0710"), 60));
+
+        List<Lender> expected = new ArrayList<>(lenders);
+        expected.sort((lender1, lender2) -> {
+            int rateComparison = lender1.getRate().compareTo(lender2.getRate());
+
+            return rateComparison != 0 ? rateComparison : lender2.getAmount() - lender1.getAmount();
+        });
+
+        /* Execute */
+        LenderBook book = LenderBook.of(lenders);
+
+        /* Verify */
+        assertThat(book.size()).isEqualTo(8);
+        assertThat(book.getRateCount()).isEqualTo(6);
+
+        for (int i = 0; i < book.size(); i++)
+        {
+            assertThat(book.getName(i)).isEqualTo(expected.get(i).getName());
+            assertThat(book.getRateDecimal(i)).isEqualByComparingTo(expected.get(i).getRate());
+            assertThat(book.getAmount(i)).isEqualTo(expected.get(i).getAmount());
+        }
+
+        // equal rates share one id, whatever their scale
+        assertThat(book.getRateId(2)).isEqualTo(book.getRateId(3));
+        assertThat(book.getName(2)).isEqualTo("Angela");
+        assertThat(book.getName(3)).isEqualTo("Zoe");
+    }
+
+    @Test
+    void testCumulativeAmounts()
+    {
+
+        /* Prepare */
+        LenderBook book = LenderBook.of(LoanQuoteTableTests.lenders());
+
+        /* Execute */
+        long total = book.getTotalAmount();
+
+        /* Verify */
+        assertThat(total).isEqualTo(2330);
+        assertThat(book.getCumulativeAmount(0)).isEqualTo(480);
+        assertThat(book.getCumulativeAmount(1)).isEqualTo(1000);
+        assertThat(book.getFootprintBytes()).isPositive();
+        assertThat(book.asList().get(0)).isEqualTo(new Lender("Jane", new BigDecimal("0.069"), 480));
+        assertThatThrownBy(() -> book.asList().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
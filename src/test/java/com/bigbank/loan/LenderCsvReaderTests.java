@@ -0,0 +1,113 @@
+package com.bigbank.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bigbank.loan.engine.quote.Lender;
+import com.bigbank.loan.engine.quote.LenderColumns;
+import com.bigbank.loan.engine.quote.LenderCsvReader;
+import com.bigbank.loan.excetpion.InvalidMarketData;
+
+
+@DisplayName("Testing LenderCsvReader")
+class LenderCsvReaderTests
+{
+
+    private static LenderColumns read(String csv) throws IOException
+    {
+        return LenderCsvReader.read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testMarketFile() throws IOException
+    {
+
+        /* Prepare */
+        LenderColumns lenders;
+
+        /* Execute */
+        try (InputStream input = getClass().getResourceAsStream("/market-en.csv"))
+        {
+            lenders = LenderCsvReader.read(input);
+        }
+
+        /* Verify */
+        assertThat(lenders.size()).isEqualTo(7);
+        assertThat(lenders.toLenders().get(0)).isEqualTo(new Lender("Bob", new BigDecimal("0.075"), 640));
+        assertThat(lenders.getRate(1)).isEqualTo(69_000_000L);
+        assertThat(lenders.getAmount(6)).isEqualTo(60);
+    }
+
+    @Test
+    void testColumnsByHeaderAndQuotedFields() throws IOException
+    {
+
+        /* Prepare */
+        String csv = "\uFEFFAvailable,Lender,Rate\r\n640,\"Bob, \"\"Jr\"\"\",0.070\r\n\r\n480,Jane,1\r\n";
+
+        /* Execute */
+        LenderColumns lenders = read(csv);
+
+        /* Verify */
+        assertThat(lenders.size()).isEqualTo(2);
+        assertThat(lenders.getName(0)).isEqualTo("Bob, \"Jr\"");
+        assertThat(lenders.getRateDecimal(0)).isEqualTo(new BigDecimal("0.07"));
+        assertThat(lenders.getAmount(0)).isEqualTo(640);
+        assertThat(lenders.getRateDecimal(1)).isEqualTo(BigDecimal.ONE);
+    }
+
+    @Test
+    void testMalformedLineIsReported()
+    {
+
+        /* Prepare */
+        String csv = "Lender,Rate,Available\nBob,0.075,640\nJane,0.0x9,480\n";
+
+        /* Execute */
+        assertThatThrownBy(() -> read(csv))
+
+                /* Verify */
+                .isInstanceOf(InvalidMarketData.class)
+                .hasMessageContaining("line 3")
+                .hasMessageContaining("0.0x9");
+    }
+
+    @Test
+    void testMissingFieldIsReported()
+    {
+
+        /* Prepare */
+        String csv = "Lender,Rate,Available\n\"Bob\nSmith\",0.075,640\nJane,0.069\n";
+
+        /* Execute */
+        assertThatThrownBy(() -> read(csv))
+
+                /* Verify */
+                .isInstanceOf(InvalidMarketData.class)
+                .hasMessageContaining("line 4");
+    }
+
+    @Test
+    void testMissingHeader()
+    {
+
+        /* Prepare */
+        String csv = "Lender,Rate\nBob,0.075\n";
+
+        /* Execute */
+        assertThatThrownBy(() -> read(csv))
+
+                /* Verify */
+                .isInstanceOf(InvalidMarketData.class)
+                .hasMessageContaining("line 1");
+    }
+}
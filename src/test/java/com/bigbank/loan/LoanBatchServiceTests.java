@@ -0,0 +1,119 @@
+package com.bigbank.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.codec.DecodingException;
+
+import com.bigbank.loan.excetpion.InvalidMarketId;
+import com.bigbank.loan.model.LoanBatchResult;
+import com.bigbank.loan.model.LoanProposal;
+import com.bigbank.loan.service.LoanBatchService;
+import com.bigbank.loan.service.LoanService;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testing LoanBatchService")
+class LoanBatchServiceTests
+{
+
+    @Mock
+    LoanService loanService;
+
+    @Spy
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @InjectMocks
+    LoanBatchService testedLoanBatchService;
+
+    @AfterEach
+    void tearDown()
+    {
+        testedLoanBatchService.destroy();
+    }
+
+    @Test
+    void testErrorsAreReportedPerItem() throws IOException
+    {
+
+        /* Prepare */
+        testedLoanBatchService.init();
+
+        when(loanService.calculate(argThat(submission -> submission != null && "en".equals(submission.getMarket()))))
+                .thenReturn(LoanProposal.builder().loanId("id").requestedAmount("1000").build());
+        when(loanService.calculate(argThat(submission -> submission != null && "xx".equals(submission.getMarket()))))
+                .thenThrow(new InvalidMarketId("Provided market id is invalid"));
+
+        String batch = "{\"market\": \"en\", \"amount\": 1000}\n"
+                + "{\"market\": \"en\", \"amount\": 50}\n"
+                + "{\"market\": \"xx\", \"amount\": 1000}\n"
+                + "{\"market\": \"en\", \"amount\": \"lots\"}\n";
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        /* Execute */
+        testedLoanBatchService.calculate(new ByteArrayInputStream(batch.getBytes(StandardCharsets.UTF_8)), output);
+
+        /* Verify */
+        String[] lines = output.toString("UTF-8").split("\n");
+
+        assertThat(lines).hasSize(4);
+        assertThat(objectMapper.readTree(lines[0]).path("proposal").path("loanId").asText()).isEqualTo("id");
+        assertThat(objectMapper.readTree(lines[1]).path("status").asInt()).isEqualTo(400);
+        assertThat(objectMapper.readTree(lines[2]).path("status").asInt()).isEqualTo(400);
+        assertThat(objectMapper.readTree(lines[2]).path("error").asText()).contains("market id");
+        assertThat(objectMapper.readTree(lines[3]).path("index").asInt()).isEqualTo(3);
+        assertThat(objectMapper.readTree(lines[3]).path("status").asInt()).isEqualTo(400);
+    }
+
+    @Test
+    void testReactiveBatchKeepsOrderAndStopsAtMalformedInput() throws IOException
+    {
+
+        /* Prepare */
+        testedLoanBatchService.init();
+
+        when(loanService.calculate(argThat(submission -> submission != null && "en".equals(submission.getMarket()))))
+                .thenReturn(LoanProposal.builder().loanId("id").requestedAmount("1000").build());
+
+        Flux<JsonNode> submissions = Flux.just(
+                objectMapper.readTree("{\"market\": \"en\", \"amount\": 1000}"),
+                objectMapper.readTree("{\"market\": \"en\", \"amount\": 50}"),
+                objectMapper.readTree("{\"market\": \"en\", \"amount\": 2000}"))
+                .concatWith(Flux.error(new DecodingException("JSON decoding error", new JsonParseException(null, "Unexpected character"))));
+
+        /* Execute */
+        List<LoanBatchResult> results = testedLoanBatchService.calculate(submissions).collectList().block();
+
+        /* Verify */
+        assertThat(results).extracting(LoanBatchResult::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(results).extracting(LoanBatchResult::getStatus).containsExactly(200, 400, 200, 400);
+        assertThat(results.get(3).getError()).isEqualTo("Malformed batch: Unexpected character");
+    }
+}
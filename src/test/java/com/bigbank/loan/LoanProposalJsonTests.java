@@ -0,0 +1,68 @@
+package com.bigbank.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bigbank.loan.model.LoanProposal;
+import com.bigbank.loan.model.LoanProposalJson;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+
+@DisplayName("Testing LoanProposalJson")
+class LoanProposalJsonTests
+{
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testSplicedJsonEqualsJackson() throws JsonProcessingException
+    {
+
+        /* Prepare */
+        LoanProposal template = template();
+        template.setFragment(LoanProposalJson.fragment(objectMapper, template));
+
+        LoanProposal proposal = template.toBuilder().loanId("01ARZ3NDEKTSV4RRFFQ69G5FAV").build();
+
+        /* Execute */
+        byte[] json = LoanProposalJson.write(objectMapper, proposal);
+
+        /* Verify */
+        assertThat(template.getFragment()).isNotNull();
+        assertThat(json).isEqualTo(objectMapper.writeValueAsBytes(proposal));
+    }
+
+    @Test
+    void testLoanIdNeedingEscapeFallsBackToJackson() throws IOException
+    {
+
+        /* Prepare */
+        LoanProposal template = template();
+        template.setFragment(LoanProposalJson.fragment(objectMapper, template));
+
+        LoanProposal proposal = template.toBuilder().loanId("a\"b\\c").build();
+
+        /* Execute */
+        byte[] json = LoanProposalJson.write(objectMapper, proposal);
+
+        /* Verify */
+        assertThat(json).isEqualTo(objectMapper.writeValueAsBytes(proposal));
+        assertThat(objectMapper.readTree(json).get("loanId").asText()).isEqualTo("a\"b\\c");
+    }
+
+    private static LoanProposal template()
+    {
+        return LoanProposal.builder()
+                .requestedAmount("1000")
+                .rate("7.0")
+                .monthlyRepayment("30.88")
+                .totalRepayment("1111.68")
+                .currencySign("£")
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.bigbank.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bigbank.loan.engine.quote.LoanQuoteBatch;
+
+
+@DisplayName("Testing LoanQuoteBatch")
+class LoanQuoteBatchTests
+{
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testResultsInInputOrder() throws IOException
+    {
+
+        /* Prepare */
+        Path market = market();
+
+        StringBuilder requests = new StringBuilder("# amounts\n\n");
+
+        for (int i = 0; i < 2000; i++)
+        {
+            requests.append(1000 + (i % 10) * 100).append('\n');
+        }
+
+        StringWriter output = new StringWriter();
+
+        /* Execute */
+        LoanQuoteBatch.Summary summary = new LoanQuoteBatch(market.toString(), false, 4).run(new BufferedReader(new StringReader(requests.toString())), output);
+
+        /* Verify */
+        String[] lines = output.toString().split("\n");
+
+        assertThat(lines).hasSize(2001);
+        assertThat(lines[0]).isEqualTo("line,market,amount,rate,monthly_repayment,total_repayment,error");
+        assertThat(lines[1]).isEqualTo("3," + market + ",1000,7.0,30.88,1111.65,");
+
+        for (int i = 0; i < 2000; i++)
+        {
+            assertThat(lines[i + 1]).startsWith((i + 3) + "," + market + "," + (1000 + (i % 10) * 100) + ",");
+        }
+
+        assertThat(summary.getRequests()).isEqualTo(2000);
+        assertThat(summary.getFailures()).isZero();
+        assertThat(summary.getLatencyNanos(50)).isLessThanOrEqualTo(summary.getLatencyNanos(100));
+    }
+
+    @Test
+    void testInvalidRequestsAreReportedOnTheirLine() throws IOException
+    {
+
+        /* Prepare */
+        Path market = market();
+
+        String requests = String.join("\n", market + ",1050", "missing.csv,1000", "0900", market + ",2000");
+
+        StringWriter output = new StringWriter();
+
+        /* Execute */
+        LoanQuoteBatch.Summary summary = new LoanQuoteBatch(null, true, 2).run(new BufferedReader(new StringReader(requests)), output);
+
+        /* Verify */
+        assertThat(output.toString().split("\n")).containsExactly(
+                "{\"line\":1,\"market\":\"" + market + "\",\"amount\":\"1050\",\"error\":\"Invalid loan amount, must be any 100 increment between 1000-15000 inclusive: 1050\"}",
+                "{\"line\":2,\"market\":\"missing.csv\",\"amount\":\"1000\",\"error\":\"Invalid market file: missing.csv\"}",
+                "{\"line\":3,\"market\":\"\",\"amount\":\"0900\",\"error\":\"Missing market file, expected: market_file,loan_amount\"}",
+                "{\"line\":4,\"market\":\"" + market + "\",\"amount\":\"2000\",\"rate\":\"7.3\",\"monthlyRepayment\":\"62.01\",\"totalRepayment\":\"2232.43\"}");
+
+        assertThat(summary.getRequests()).isEqualTo(4);
+        assertThat(summary.getFailures()).isEqualTo(3);
+    }
+
+    private Path market() throws IOException
+    {
+        return Files.write(directory.resolve("market.csv"), String.join("\n", "Lender,Rate,Available",
+                "Bob,0.075,640", "Jane,0.069,480", "Fred,0.071,520", "Mary,0.104,170", "John,0.081,320",
+                "Dave,0.074,140", "Angela,0.071,60").getBytes(StandardCharsets.UTF_8));
+    }
+}
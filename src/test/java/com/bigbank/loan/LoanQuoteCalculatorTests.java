@@ -0,0 +1,231 @@
+package com.bigbank.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.bigbank.loan.engine.AmortizedLoan;
+import com.bigbank.loan.engine.NumericEngine;
+
+import com.bigbank.loan.engine.quote.AmortizationRow;
+import com.bigbank.loan.engine.quote.AmortizationSchedule;
+import com.bigbank.loan.engine.quote.Lender;
+import com.bigbank.loan.engine.quote.LenderBook;
+import com.bigbank.loan.engine.quote.LoanQuote;
+import com.bigbank.loan.engine.quote.LoanQuoteCalculator;
+import com.bigbank.loan.excetpion.InsufficientLendersException;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+
+@DisplayName("Testing LoanQuoteCalculator")
+class LoanQuoteCalculatorTests
+{
+
+    @Test
+    void testManySmallLenders()
+    {
+
+        /* Prepare */
+        List<Lender> lenders = new ArrayList<>();
+
+        for (int i = 0; i < 100_000; i++)
+        {
+            lenders.add(new Lender("Lender" + i, new BigDecimal("0.07"), 1));
+        }
+
+        LoanQuoteCalculator calculator = new LoanQuoteCalculator(lenders);
+
+        /* Execute */
+        LoanQuote quote = calculator.getQuote(15000);
+
+        /* Verify */
+        assertThat(quote.getRate()).isEqualByComparingTo("7.0");
+        assertThat(quote.getMonthlyRepayment()).isEqualByComparingTo(new LoanQuoteCalculator(lenders(15000)).getQuote(15000).getMonthlyRepayment());
+    }
+
+    @Test
+    void testExactCapacity()
+    {
+
+        /* Prepare */
+        LoanQuoteCalculator calculator = new LoanQuoteCalculator(lenders(1000));
+
+        /* Execute */
+        calculator.getQuote(1000);
+
+        assertThatThrownBy(() -> calculator.getQuote(1100))
+
+                /* Verify */
+                .isInstanceOf(InsufficientLendersException.class);
+    }
+
+    @ParameterizedTest
+    @EnumSource(NumericEngine.class)
+    void testTermMenuMatchesSingleTermRepayments(NumericEngine numericEngine)
+    {
+
+        /* Prepare */
+        List<Lender> lenders = new ArrayList<>();
+        String[] rates = {"0.069", "0.071", "0.074", "0.075", "0.104"};
+
+        for (int i = 0; i < 50; i++)
+        {
+            lenders.add(new Lender("Lender" + i, new BigDecimal(rates[i % rates.length]), 100 + 37 * i));
+        }
+
+        LoanQuoteCalculator calculator = new LoanQuoteCalculator(lenders, numericEngine);
+        int[] terms = {12, 24, 36, 48, 60};
+
+        /* Execute */
+        LoanQuote[] quotes = calculator.getQuotes(12300, terms);
+
+        /* Verify */
+        assertThat(quotes).hasSize(terms.length);
+
+        for (int t = 0; t < terms.length; t++)
+        {
+            BigDecimal monthlyRepayment = BigDecimal.ZERO;
+            int remaining = 12300;
+
+            for (Lender lender : calculator.getLenders())
+            {
+                int lent = Math.min(remaining, lender.getAmount());
+
+                monthlyRepayment = monthlyRepayment.add(AmortizedLoan.getMonthlyRepayment(new BigDecimal(lent), lender.getRate(), terms[t]));
+                remaining -= lent;
+            }
+
+            assertThat(quotes[t].getRepaymentMonths()).isEqualTo(terms[t]);
+            assertThat(quotes[t].getMonthlyRepayment()).isEqualTo(monthlyRepayment.setScale(2, RoundingMode.HALF_UP));
+            assertThat(quotes[t].getTotalRepayment()).isEqualTo(monthlyRepayment.multiply(new BigDecimal(terms[t])).setScale(2, RoundingMode.UP));
+        }
+
+        LoanQuote single = calculator.getQuote(12300);
+
+        assertThat(quotes[2].getMonthlyRepayment()).isEqualTo(single.getMonthlyRepayment());
+        assertThat(quotes[2].getTotalRepayment()).isEqualTo(single.getTotalRepayment());
+        assertThat(quotes[2].getRate()).isEqualTo(single.getRate());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 36, 360})
+    void testScheduleReconcilesToTheQuote(int term)
+    {
+
+        /* Prepare */
+        List<Lender> lenders = new ArrayList<>();
+        String[] rates = {"0.069", "0.071", "0.104"};
+
+        for (int i = 0; i < 30; i++)
+        {
+            lenders.add(new Lender("Lender" + i, new BigDecimal(rates[i % rates.length]), 100 + 37 * i));
+        }
+
+        LoanQuoteCalculator calculator = new LoanQuoteCalculator(lenders);
+
+        /* Execute */
+        AmortizationSchedule schedule = calculator.getSchedule(12300, term);
+
+        BigDecimal payments = BigDecimal.ZERO;
+        BigDecimal principal = BigDecimal.ZERO;
+        AmortizationRow last = null;
+        int rows = 0;
+
+        while (schedule.hasNext())
+        {
+            last = schedule.next();
+            rows++;
+
+            payments = payments.add(last.getPayment());
+            principal = principal.add(last.getPrincipal());
+
+            assertThat(last.getMonth()).isEqualTo(rows);
+            assertThat(last.getPayment()).isEqualTo(last.getInterest().add(last.getPrincipal()));
+            assertThat(last.getInterest().signum()).isPositive();
+        }
+
+        /* Verify */
+        LoanQuote quote = calculator.getQuotes(12300, new int[] {term})[0];
+
+        assertThat(schedule.getQuote().getMonthlyRepayment()).isEqualTo(quote.getMonthlyRepayment());
+        assertThat(rows).isEqualTo(term);
+        assertThat(payments).isEqualTo(quote.getTotalRepayment());
+        assertThat(principal).isEqualByComparingTo("12300");
+        assertThat(last.getBalance()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void testFlightRecorderEvents(@TempDir Path directory) throws IOException
+    {
+
+        /* Prepare */
+        List<Lender> lenders = new ArrayList<>();
+
+        lenders.add(new Lender("Jane", new BigDecimal("0.069"), 600));
+        lenders.add(new Lender("Bob", new BigDecimal("0.075"), 600));
+
+        LoanQuoteCalculator calculator = new LoanQuoteCalculator(LenderBook.of(lenders), NumericEngine.BIG_DECIMAL, "en");
+
+        List<RecordedEvent> events;
+
+        /* Execute */
+        try (Recording recording = new Recording())
+        {
+            recording.enable("com.bigbank.loan.LenderAllocation");
+            recording.enable("com.bigbank.loan.RateSolver");
+            recording.start();
+
+            calculator.getQuotes(1000, new int[] {12, 36});
+
+            recording.stop();
+            recording.dump(directory.resolve("quote.jfr"));
+
+            events = RecordingFile.readAllEvents(directory.resolve("quote.jfr"));
+        }
+
+        events.sort(Comparator.comparing(RecordedEvent::getStartTime));
+
+        /* Verify */
+        assertThat(events.stream().map(event -> event.getEventType().getName()).collect(Collectors.toList()))
+                .containsExactly("com.bigbank.loan.LenderAllocation", "com.bigbank.loan.RateSolver", "com.bigbank.loan.RateSolver");
+
+        for (RecordedEvent event : events)
+        {
+            assertThat(event.getString("market")).isEqualTo("en");
+            assertThat(event.getInt("amount")).isEqualTo(1000);
+            assertThat(event.getInt("lenders")).isEqualTo(2);
+        }
+
+        assertThat(events.get(1).getInt("term")).isEqualTo(12);
+        assertThat(events.get(2).getInt("term")).isEqualTo(36);
+        assertThat(events.get(2).getInt("iterations")).isPositive();
+        assertThat(events.get(2).getBoolean("converged")).isTrue();
+    }
+
+    private static List<Lender> lenders(int amount)
+    {
+        List<Lender> lenders = new ArrayList<>();
+
+        lenders.add(new Lender("Single", new BigDecimal("0.07"), amount));
+
+        return lenders;
+    }
+}
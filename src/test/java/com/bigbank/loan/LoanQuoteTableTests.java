@@ -0,0 +1,76 @@
+package com.bigbank.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bigbank.loan.engine.quote.Lender;
+import com.bigbank.loan.engine.quote.LoanQuote;
+import com.bigbank.loan.engine.quote.LoanQuoteCalculator;
+import com.bigbank.loan.engine.quote.LoanQuoteTable;
+import com.bigbank.loan.excetpion.InsufficientLendersException;
+
+
+@DisplayName("Testing LoanQuoteTable")
+class LoanQuoteTableTests
+{
+
+    static List<Lender> lenders()
+    {
+        return new ArrayList<>(Arrays.asList(
+                new Lender("Bob", new BigDecimal("0.075"), 640),
+                new Lender("Jane", new BigDecimal("0.069"), 480),
+                new Lender("Fred", new BigDecimal("0.071"), 520),
+                new Lender("Mary", new BigDecimal("0.104"), 170),
+                new Lender("John", new BigDecimal("0.081"), 320),
+                new Lender("Dave", new BigDecimal("0.074"), 140),
+                new Lender("Angela", new BigDecimal("0.071"), 60)));
+    }
+
+    @Test
+    void testTableMatchesCalculator()
+    {
+
+        /* Prepare */
+        LoanQuoteCalculator calculator = new LoanQuoteCalculator(lenders());
+
+        /* Execute */
+        LoanQuoteTable table = new LoanQuoteTable(calculator);
+
+        /* Verify */
+        for (int amount = 1000; amount <= 2300; amount += 100)
+        {
+            LoanQuote expected = calculator.getQuote(amount);
+            LoanQuote actual = table.getQuote(amount);
+
+            assertThat(actual.getRate()).isEqualTo(expected.getRate());
+            assertThat(actual.getMonthlyRepayment()).isEqualTo(expected.getMonthlyRepayment());
+            assertThat(actual.getTotalRepayment()).isEqualTo(expected.getTotalRepayment());
+        }
+
+        assertThat(table.size()).isEqualTo(14);
+        assertThat(table.getFootprintBytes()).isPositive();
+        assertThat(table.getQuote(1000).getMonthlyRepayment()).isEqualByComparingTo("30.88");
+    }
+
+    @Test
+    void testInsufficientLenders()
+    {
+
+        /* Prepare */
+        LoanQuoteTable table = new LoanQuoteTable(new LoanQuoteCalculator(lenders()));
+
+        /* Execute */
+        assertThatThrownBy(() -> table.getQuote(15000))
+
+                /* Verify */
+                .isInstanceOf(InsufficientLendersException.class);
+    }
+}
@@ -6,11 +6,13 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.bigbank.loan.excetpion.InvalidLoanSubmissionException;
 import com.bigbank.loan.model.LoanSubmission;
 import com.bigbank.loan.service.LoanService;
+import com.bigbank.loan.service.QuoteMetrics;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -21,6 +23,9 @@ class LoanServiceTests
     @InjectMocks
     LoanService testedLoanService;
 
+    @Mock
+    QuoteMetrics quoteMetrics;
+
     @Test
     void testFormalValidation()
     {
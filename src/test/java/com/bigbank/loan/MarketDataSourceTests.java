@@ -1,17 +1,40 @@
 package com.bigbank.loan;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import com.bigbank.loan.excetpion.InvalidLoanSubmissionException;
-import com.bigbank.loan.model.LoanSubmission;
-import com.bigbank.loan.service.LoanService;
+import com.bigbank.loan.engine.quote.LenderColumns;
+import com.bigbank.loan.excetpion.InvalidMarketUpdate;
+import com.bigbank.loan.excetpion.MarketBudgetExceeded;
+import com.bigbank.loan.model.MarketLenders;
 import com.bigbank.loan.service.MarketDataSource;
+import com.bigbank.loan.service.QuoteMetrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -22,6 +45,21 @@ class MarketDataSourceTests
     @InjectMocks
     MarketDataSource testedMarketDataSource;
 
+    @Mock
+    QuoteMetrics quoteMetrics;
+
+    @Spy
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp()
+    {
+        testedMarketDataSource.init();
+    }
+
     @Test
     void testInvalidSource()
     {
@@ -35,4 +73,172 @@ class MarketDataSourceTests
                 /* Verify */
                 .isInstanceOf(IllegalArgumentException.class);
     }
+
+    @Test
+    void testSnapshotIsSharedAndSorted()
+    {
+
+        /* Prepare */
+        String market = "en";
+
+        /* Execute */
+        MarketLenders first = testedMarketDataSource.snapshot(market);
+        MarketLenders second = testedMarketDataSource.snapshot(market);
+
+        /* Verify */
+        assertThat(second).isSameAs(first);
+        assertThat(first.getLenders()).hasSize(7);
+        assertThat(first.getLenders().get(0).getName()).isEqualTo("Jane");
+        assertThatThrownBy(() -> first.getLenders().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void testMarketsDiscoveredFromDirectoryAndLoadedOnce() throws Exception
+    {
+
+        /* Prepare */
+        copyMarket("market-north.csv");
+        copyMarket("market-south.csv");
+        Files.write(directory.resolve("notes.txt"), new byte[0]);
+
+        SimpleMeterRegistry catalogRegistry = new SimpleMeterRegistry();
+
+        set("marketDir", directory.toString());
+        set("meterRegistry", catalogRegistry);
+        testedMarketDataSource.init();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MarketLenders>> snapshots = new ArrayList<>();
+
+        /* Execute */
+        for (int i = 0; i < 8; i++)
+        {
+            snapshots.add(executor.submit(() -> {
+                start.await();
+                return testedMarketDataSource.snapshot("north");
+            }));
+        }
+
+        start.countDown();
+
+        /* Verify */
+        assertThat(testedMarketDataSource.getMarkets()).containsExactlyInAnyOrder("north", "south");
+
+        for (Future<MarketLenders> snapshot : snapshots)
+        {
+            assertThat(snapshot.get()).isSameAs(snapshots.get(0).get());
+        }
+
+        executor.shutdown();
+
+        assertThat(catalogRegistry.get("cache.load").tags("cache", MarketDataSource.CACHE_NAME, "result", "success").functionCounter().count()).isEqualTo(1);
+        assertThat(catalogRegistry.get(MarketDataSource.DISCOVERED_GAUGE).gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void testColdMarketsEvictedOverMemoryBudget() throws Exception
+    {
+
+        /* Prepare */
+        for (int i = 0; i < 20; i++)
+        {
+            copyMarket("market-m" + i + ".csv");
+        }
+
+        set("marketDir", directory.toString());
+        testedMarketDataSource.init();
+
+        MarketLenders first = testedMarketDataSource.snapshot("m0");
+        long budget = 3 * (first.getBook().getFootprintBytes() + first.getQuotes().getFootprintBytes());
+
+        SimpleMeterRegistry budgetRegistry = new SimpleMeterRegistry();
+
+        set("memoryBudgetBytes", budget);
+        set("meterRegistry", budgetRegistry);
+        testedMarketDataSource.init();
+
+        /* Execute */
+        for (int i = 0; i < 20; i++)
+        {
+            testedMarketDataSource.snapshot("m" + i);
+        }
+
+        /* Verify */
+        assertThat(budgetRegistry.get(MarketDataSource.RESIDENT_BYTES_GAUGE).gauge().value()).isLessThanOrEqualTo(budget);
+        assertThat(budgetRegistry.get("cache.evictions").tags("cache", MarketDataSource.CACHE_NAME).functionCounter().count()).isPositive();
+        assertThat(testedMarketDataSource.snapshot("m0").getLenders()).hasSize(7);
+    }
+
+    @Test
+    void testPublishedBookReplacesFileUntilWithdrawn()
+    {
+
+        /* Prepare */
+        MarketLenders file = testedMarketDataSource.snapshot("en");
+
+        LenderColumns lenders = new LenderColumns();
+        lenders.add("Zoe", LenderColumns.toUnscaled(new BigDecimal("0.071")), 2000);
+        lenders.add("Ann", LenderColumns.toUnscaled(new BigDecimal("0.065")), 3000);
+
+        /* Execute */
+        MarketLenders published = testedMarketDataSource.publish("en", lenders);
+
+        testedMarketDataSource.reload();
+
+        /* Verify */
+        assertThat(published.isPublished()).isTrue();
+        assertThat(published.getVersion()).isGreaterThan(file.getVersion());
+        assertThat(published.getSourceLastModified()).isNotEqualTo(file.getSourceLastModified());
+        assertThat(testedMarketDataSource.snapshot("en")).isSameAs(published);
+        assertThat(published.getLenders().get(0).getName()).isEqualTo("Ann");
+
+        assertThatThrownBy(() -> testedMarketDataSource.publish("en", new LenderColumns())).isInstanceOf(InvalidMarketUpdate.class);
+        assertThat(testedMarketDataSource.snapshot("en")).isSameAs(published);
+
+        MarketLenders withdrawn = testedMarketDataSource.unpublish("en");
+
+        assertThat(withdrawn.isPublished()).isFalse();
+        assertThat(testedMarketDataSource.snapshot("en")).isSameAs(withdrawn);
+        assertThat(withdrawn.getLenders()).hasSize(7);
+    }
+
+    @Test
+    void testPublishedBookOverMemoryBudgetRejected() throws Exception
+    {
+
+        /* Prepare */
+        SimpleMeterRegistry versionRegistry = new SimpleMeterRegistry();
+
+        set("quoteMetrics", new QuoteMetrics(versionRegistry));
+
+        MarketLenders file = testedMarketDataSource.snapshot("en");
+
+        LenderColumns lenders = new LenderColumns();
+        lenders.add("Ann", LenderColumns.toUnscaled(new BigDecimal("0.065")), 3000);
+
+        set("memoryBudgetBytes", 1L);
+
+        /* Execute */
+        assertThatThrownBy(() -> testedMarketDataSource.publish("en", lenders)).isInstanceOf(MarketBudgetExceeded.class);
+
+        /* Verify */
+        assertThat(testedMarketDataSource.snapshot("en")).isSameAs(file);
+        assertThat(versionRegistry.get(QuoteMetrics.VERSION_GAUGE).tags("market", "en").gauge().value()).isEqualTo(file.getVersion());
+    }
+
+    private void copyMarket(String fileName) throws IOException
+    {
+        try (InputStream market = getClass().getResourceAsStream("/market-en.csv"))
+        {
+            Files.copy(market, directory.resolve(fileName));
+        }
+    }
+
+    private void set(String name, Object value) throws ReflectiveOperationException
+    {
+        Field field = MarketDataSource.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(testedMarketDataSource, value);
+    }
 }
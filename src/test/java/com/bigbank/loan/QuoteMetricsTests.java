@@ -0,0 +1,127 @@
+package com.bigbank.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bigbank.loan.engine.NumericEngine;
+import com.bigbank.loan.engine.quote.AnnuityFactors;
+import com.bigbank.loan.engine.quote.Lender;
+import com.bigbank.loan.engine.quote.LoanQuoteCalculator;
+import com.bigbank.loan.engine.quote.LoanQuoteTable;
+import com.bigbank.loan.service.QuoteMetrics;
+import com.bigbank.loan.service.QuoteMetrics.Outcome;
+import com.bigbank.loan.service.QuoteMetrics.QuoteStages;
+import com.bigbank.loan.service.QuoteMetrics.Stage;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+
+@DisplayName("Testing QuoteMetrics")
+class QuoteMetricsTests
+{
+
+    @Test
+    void testOnlyReachedStagesAreRecorded()
+    {
+
+        /* Prepare */
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QuoteMetrics quoteMetrics = new QuoteMetrics(registry);
+
+        QuoteStages stages = new QuoteStages();
+        stages.mark(Stage.VALIDATION);
+        stages.mark(Stage.ENGINE_BUILD);
+        stages.finish();
+
+        /* Execute */
+        quoteMetrics.record("en", Outcome.INSUFFICIENT_LENDERS, stages);
+        quoteMetrics.record("fr", Outcome.INSUFFICIENT_LENDERS, stages);
+
+        /* Verify */
+        Timer validation = registry.find(QuoteMetrics.STAGE_TIMER)
+                .tags("market", "en", "stage", "validation", "outcome", "insufficient_lenders").timer();
+        Timer total = registry.find(QuoteMetrics.STAGE_TIMER).tags("market", "en", "stage", "total").timer();
+        Timer latency = registry.find(QuoteMetrics.LATENCY_TIMER).tags("stage", "total", "outcome", "insufficient_lenders").timer();
+
+        assertThat(validation).isNotNull();
+        assertThat(validation.count()).isEqualTo(1);
+        assertThat(total.count()).isEqualTo(1);
+        assertThat(latency.count()).isEqualTo(2);
+        assertThat(registry.find(QuoteMetrics.STAGE_TIMER).tags("stage", "render").timer()).isNull();
+        assertThat(registry.find(QuoteMetrics.LATENCY_TIMER).tags("stage", "render").timer()).isNull();
+    }
+
+    @Test
+    void testAnnuityLookupsSurviveNewVersions()
+    {
+
+        /* Prepare */
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QuoteMetrics quoteMetrics = new QuoteMetrics(registry);
+
+        LoanQuoteCalculator first = new LoanQuoteCalculator(lenders(), NumericEngine.BIG_DECIMAL);
+        LoanQuoteCalculator second = new LoanQuoteCalculator(lenders(), NumericEngine.BIG_DECIMAL);
+
+        /* Execute */
+        quoteMetrics.recordMarketBuild("en", 1, 0, 0, new LoanQuoteTable(first), first.getBook().getAnnuityFactors());
+        first.getQuotes(1000, new int[] {36, 72});
+
+        quoteMetrics.recordMarketBuild("en", 2, 0, 0, new LoanQuoteTable(second), second.getBook().getAnnuityFactors());
+
+        /* Verify */
+        double hits = registry.get(QuoteMetrics.ANNUITY_LOOKUPS_COUNTER).tags("market", "en", "result", "hit").functionCounter().count();
+        double misses = registry.get(QuoteMetrics.ANNUITY_LOOKUPS_COUNTER).tags("market", "en", "result", "miss").functionCounter().count();
+
+        assertThat(misses).isEqualTo(1);
+        assertThat(hits).isEqualTo(first.getBook().getAnnuityFactors().getHitCount() + second.getBook().getAnnuityFactors().getHitCount());
+        assertThat(registry.get(QuoteMetrics.ANNUITY_FACTORS_GAUGE).tags("market", "en").gauge().value())
+                .isEqualTo(2.0 * AnnuityFactors.STANDARD_TERMS.size());
+    }
+
+    @Test
+    void testMarketMetersRemovedWithTheMarket()
+    {
+
+        /* Prepare */
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QuoteMetrics quoteMetrics = new QuoteMetrics(registry);
+
+        LoanQuoteCalculator en = new LoanQuoteCalculator(lenders(), NumericEngine.BIG_DECIMAL);
+        LoanQuoteCalculator fr = new LoanQuoteCalculator(lenders(), NumericEngine.BIG_DECIMAL);
+
+        quoteMetrics.recordMarketBuild("en", 1, 0, 0, new LoanQuoteTable(en), en.getBook().getAnnuityFactors());
+        quoteMetrics.recordMarketBuild("fr", 2, 0, 0, new LoanQuoteTable(fr), fr.getBook().getAnnuityFactors());
+
+        QuoteStages stages = new QuoteStages();
+        stages.mark(Stage.VALIDATION);
+        stages.finish();
+
+        quoteMetrics.record("en", Outcome.SUCCESS, stages);
+        quoteMetrics.record("fr", Outcome.SUCCESS, stages);
+
+        /* Execute */
+        quoteMetrics.removeMarket("en");
+
+        /* Verify */
+        assertThat(registry.find(QuoteMetrics.MARKET_BUILD_TIMER).tag("market", "en").meters()).isEmpty();
+        assertThat(registry.find(QuoteMetrics.ANNUITY_LOOKUPS_COUNTER).tag("market", "en").meters()).isEmpty();
+        assertThat(registry.find(QuoteMetrics.ANNUITY_FACTORS_GAUGE).tag("market", "en").gauge()).isNull();
+        assertThat(registry.find(QuoteMetrics.ANNUITY_FACTORS_GAUGE).tag("market", "fr").gauge()).isNotNull();
+        assertThat(registry.find(QuoteMetrics.MARKET_BUILD_TIMER).tag("market", "fr").meters()).hasSize(3);
+        assertThat(registry.find(QuoteMetrics.STAGE_TIMER).tag("market", "en").meters()).isEmpty();
+        assertThat(registry.find(QuoteMetrics.STAGE_TIMER).tag("market", "fr").meters()).hasSize(2);
+        assertThat(registry.find(QuoteMetrics.LATENCY_TIMER).tags("stage", "total").timer().count()).isEqualTo(2);
+    }
+
+    private static List<Lender> lenders()
+    {
+        return Arrays.asList(new Lender("Bob", new BigDecimal("0.075"), 640), new Lender("Jane", new BigDecimal("0.069"), 480));
+    }
+}
@@ -0,0 +1,38 @@
+package com.bigbank.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.bigbank.loan.engine.AmortizedLoan;
+import com.bigbank.loan.engine.RateSolver;
+
+
+@DisplayName("Testing RateSolver")
+class RateSolverTests
+{
+
+    @ParameterizedTest
+    @CsvSource({"1000, 36, 0.069", "15000, 36, 0.104", "5000, 12, 0.0001", "10000, 360, 0.05", "2000, 360, 2.5"})
+    void testSolvesRepaymentRate(int principal, int term, String annualRate)
+    {
+
+        /* Prepare */
+        double monthlyRepayment = AmortizedLoan.getMonthlyRepayment(new BigDecimal(principal), new BigDecimal(annualRate), term).doubleValue();
+        long invocations = RateSolver.getInvocationCount();
+        long nonConvergences = RateSolver.getNonConvergenceCount();
+
+        /* Execute */
+        double rate = AmortizedLoan.getApproximateAnnualInterestRate(principal, term, monthlyRepayment);
+
+        /* Verify */
+        assertThat(rate).isCloseTo(Double.parseDouble(annualRate), within(1e-6));
+        assertThat(RateSolver.getInvocationCount()).isGreaterThan(invocations);
+        assertThat(RateSolver.getNonConvergenceCount()).isEqualTo(nonConvergences);
+    }
+}
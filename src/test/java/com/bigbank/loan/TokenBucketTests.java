@@ -0,0 +1,113 @@
+package com.bigbank.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bigbank.loan.engine.quota.TokenBucket;
+
+
+@DisplayName("Testing TokenBucket")
+class TokenBucketTests
+{
+
+    @Test
+    void testBurstThenRefill()
+    {
+
+        /* Prepare */
+        AtomicLong clock = new AtomicLong(1_000_000_000L);
+        TokenBucket bucket = new TokenBucket(10, 5, clock::get);
+
+        /* Execute */
+        int granted = 0;
+
+        while (bucket.tryAcquire() == 0)
+        {
+            granted++;
+        }
+
+        long wait = bucket.tryAcquire();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        /* Verify */
+        assertThat(granted).isEqualTo(5);
+        assertThat(wait).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isPositive();
+    }
+
+    @Test
+    void testIdleBucketHoldsNoMoreThanItsCapacity()
+    {
+
+        /* Prepare */
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(100, 3, clock::get);
+
+        clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+
+        /* Execute */
+        int granted = 0;
+
+        while (bucket.tryAcquire() == 0)
+        {
+            granted++;
+        }
+
+        /* Verify */
+        assertThat(granted).isEqualTo(3);
+    }
+
+    @Test
+    void testConcurrentAcquiresNeverExceedCapacity() throws InterruptedException
+    {
+
+        /* Prepare */
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(1, 1000, clock::get);
+
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+
+        /* Execute */
+        for (int thread = 0; thread < 16; thread++)
+        {
+            executor.execute(() -> {
+                try
+                {
+                    start.await();
+
+                    for (int i = 0; i < 10_000; i++)
+                    {
+                        if (bucket.tryAcquire() == 0)
+                        {
+                            granted.incrementAndGet();
+                        }
+                    }
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+
+        /* Verify */
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        assertThat(granted.get()).isEqualTo(1000);
+    }
+}
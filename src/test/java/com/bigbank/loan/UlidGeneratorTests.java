@@ -0,0 +1,131 @@
+package com.bigbank.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bigbank.loan.engine.id.UlidGenerator;
+
+
+@DisplayName("Testing UlidGenerator")
+class UlidGeneratorTests
+{
+
+    @Test
+    void testIdsAreUniqueAcrossThreads() throws InterruptedException
+    {
+
+        /* Prepare */
+        int threads = 32;
+        int idsPerThread = 50_000;
+
+        // a frozen clock leaves uniqueness to the node, the thread slots and the sequences alone
+        UlidGenerator generator = new UlidGenerator(7, () -> 1_600_000_000_000L);
+
+        Set<String> ids = ConcurrentHashMap.newKeySet(threads * idsPerThread);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        /* Execute */
+        for (int thread = 0; thread < threads; thread++)
+        {
+            executor.execute(() -> {
+                try
+                {
+                    start.await();
+
+                    for (int i = 0; i < idsPerThread; i++)
+                    {
+                        ids.add(generator.nextId());
+                    }
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+
+        /* Verify */
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        assertThat(ids).hasSize(threads * idsPerThread);
+    }
+
+    @Test
+    void testIdsAreOrderedByTime()
+    {
+
+        /* Prepare */
+        AtomicLong clock = new AtomicLong(1_600_000_000_000L);
+        UlidGenerator generator = new UlidGenerator(UlidGenerator.MAX_NODE, clock::get);
+
+        List<String> ids = new ArrayList<>();
+
+        /* Execute */
+        for (int i = 0; i < 1000; i++)
+        {
+            ids.add(generator.nextId());
+
+            if (i % 10 == 0)
+            {
+                clock.addAndGet(i % 20 == 0 ? 3 : -1);
+            }
+        }
+
+        /* Verify */
+        assertThat(ids).isSorted();
+        assertThat(ids).allSatisfy(id -> assertThat(id).hasSize(UlidGenerator.LENGTH).matches("[0-9A-HJKMNP-TV-Z]+"));
+        assertThat(UlidGenerator.getTimestamp(ids.get(0))).isEqualTo(1_600_000_000_000L);
+    }
+
+    @Test
+    void testIdsOfAnotherThreadSortByMillisecond() throws InterruptedException
+    {
+
+        /* Prepare */
+        AtomicLong clock = new AtomicLong(1_600_000_000_000L);
+        UlidGenerator generator = new UlidGenerator(1, clock::get);
+
+        String[] later = new String[1];
+
+        /* Execute */
+        String earlier = generator.nextId();
+
+        clock.incrementAndGet();
+
+        Thread thread = new Thread(() -> later[0] = generator.nextId());
+        thread.start();
+        thread.join();
+
+        /* Verify */
+        assertThat(later[0]).isGreaterThan(earlier);
+        assertThat(UlidGenerator.getTimestamp(later[0]) - UlidGenerator.getTimestamp(earlier)).isEqualTo(1);
+    }
+
+    @Test
+    void testNodeIdIsChecked()
+    {
+
+        /* Execute */
+        assertThatThrownBy(() -> new UlidGenerator(UlidGenerator.MAX_NODE + 1))
+
+                /* Verify */
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Node id");
+    }
+}
@@ -0,0 +1,158 @@
+package com.bigbank.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.bigbank.loan.excetpion.InsufficientLendersException;
+import com.bigbank.loan.model.LoanProposal;
+import com.bigbank.loan.model.LoanSubmission;
+import com.bigbank.loan.service.LoanService;
+import com.bigbank.loan.service.MarketDataSource;
+import com.bigbank.loan.service.WarmUpService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testing WarmUpService")
+class WarmUpServiceTests
+{
+
+    @InjectMocks
+    WarmUpService testedWarmUpService;
+
+    @Mock
+    LoanService loanService;
+
+    @Mock
+    MarketDataSource marketDataSource;
+
+    @Spy
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() throws ReflectiveOperationException
+    {
+        set(testedWarmUpService, "iterations", 2);
+
+        testedWarmUpService.init();
+    }
+
+    @Test
+    void testQuotesTheWholeAmountRangeOfAMarket()
+    {
+
+        /* Prepare */
+        when(marketDataSource.getMarkets()).thenReturn(Collections.singleton("en"));
+        when(loanService.warmUp(any())).thenAnswer(invocation -> {
+
+            LoanSubmission submission = invocation.getArgument(0);
+
+            if (submission.getAmount() > 2000)
+            {
+                throw new InsufficientLendersException();
+            }
+
+            return LoanProposal.builder().loanId("id").build();
+        });
+
+        /* Execute */
+        WarmUpService.State before = testedWarmUpService.getState();
+
+        testedWarmUpService.run();
+
+        /* Verify */
+        assertThat(before).isEqualTo(WarmUpService.State.PENDING);
+        assertThat(testedWarmUpService.getState()).isEqualTo(WarmUpService.State.DONE);
+        assertThat(testedWarmUpService.getCompletedIterations()).isEqualTo(2);
+
+        // 11 amounts up to 2000, each alone and with the term menu, twice
+        assertThat(testedWarmUpService.getQuotes()).isEqualTo(44);
+        assertThat(testedWarmUpService.getFailures()).isEqualTo(2 * 2 * 141 - 44);
+
+        verify(loanService, times(2 * 141)).warmUp(argThat(submission -> submission.getTerms() != null && submission.getTerms().size() == 5));
+        assertThat(meterRegistry.get(WarmUpService.QUOTES_GAUGE).gauge().value()).isEqualTo(44);
+    }
+
+    @Test
+    void testOnlyTheFirstMarketsOfTheCatalogAreWarmedUp()
+    {
+
+        /* Prepare */
+        when(marketDataSource.getMarkets()).thenReturn(new HashSet<>(Arrays.asList("de", "en", "fr", "lt")));
+        when(loanService.warmUp(any())).thenReturn(LoanProposal.builder().loanId("id").build());
+
+        /* Execute */
+        testedWarmUpService.run();
+
+        /* Verify */
+        verify(loanService, times(2 * 2 * 141)).warmUp(argThat(submission -> "de".equals(submission.getMarket())));
+        verify(loanService, times(2 * 2 * 141)).warmUp(argThat(submission -> "en".equals(submission.getMarket())));
+        verify(loanService, never()).warmUp(argThat(submission -> "fr".equals(submission.getMarket()) || "lt".equals(submission.getMarket())));
+        verify(loanService, never()).calculate(any());
+    }
+
+    @Test
+    void testTimeLimitEndsTheWarmUp() throws ReflectiveOperationException
+    {
+
+        /* Prepare */
+        set(testedWarmUpService, "maxDurationMillis", 0L);
+
+        when(marketDataSource.getMarkets()).thenReturn(Collections.singleton("en"));
+
+        /* Execute */
+        testedWarmUpService.run();
+
+        /* Verify */
+        assertThat(testedWarmUpService.getState()).isEqualTo(WarmUpService.State.DONE);
+        assertThat(testedWarmUpService.isTimedOut()).isTrue();
+        assertThat(testedWarmUpService.getCompletedIterations()).isZero();
+    }
+
+    @Test
+    void testFailureStillEndsTheWarmUp()
+    {
+
+        /* Prepare */
+        when(marketDataSource.getMarkets()).thenThrow(new IllegalStateException("catalog unavailable"));
+
+        /* Execute */
+        testedWarmUpService.run();
+
+        /* Verify */
+        assertThat(testedWarmUpService.getState()).isEqualTo(WarmUpService.State.DONE);
+        assertThat(testedWarmUpService.getCompletedIterations()).isZero();
+    }
+
+    private static void set(Object target, String name, Object value) throws ReflectiveOperationException
+    {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}